@@ -0,0 +1,63 @@
+package com.fleetmonitoring.alert;
+
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.Telemetry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// One operation evaluates the default rule set once for every vehicle, one simulated second apart.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class AlertEngineBenchmark {
+
+    @Param({"500", "10000", "100000"})
+    private int fleetSize;
+
+    private Telemetry[] readings;
+    private AlertEngine engine;
+    private List<Alert> alerts;
+    private Consumer<Alert> sink;
+    private long nowMillis;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rng = new SplittableRandom(42);
+        Instant now = Instant.now();
+        readings = new Telemetry[fleetSize];
+        for (int i = 0; i < fleetSize; i++) {
+            readings[i] = Telemetry.builder()
+                    .vehicleId("GP " + i)
+                    .speed(30 + rng.nextDouble() * 100)
+                    .fuelLevel(10 + rng.nextDouble() * 90)
+                    .engineTemp(70 + rng.nextDouble() * 35)
+                    .timestamp(now)
+                    .build();
+        }
+        engine = new AlertEngine(new AlertRuleProperties());
+        alerts = new ArrayList<>();
+        sink = alerts::add;
+        nowMillis = now.toEpochMilli();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        alerts.clear();
+        nowMillis += 1000;
+        Instant now = Instant.ofEpochMilli(nowMillis);
+        for (int i = 0; i < readings.length; i++) {
+            readings[i].setTimestamp(now);
+            engine.evaluate(i, readings[i], sink);
+        }
+        return alerts.size();
+    }
+}
@@ -0,0 +1,90 @@
+package com.fleetmonitoring.geofence;
+
+import com.fleetmonitoring.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// One operation moves every vehicle a step and evaluates it against the fence set, i.e. one tick.
+// Fences are half circles, half hexagons of 100 m - 1 km scattered over the simulator region.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class GeofenceBenchmark {
+
+    @Param({"10000", "100000"})
+    private int fleetSize;
+
+    @Param({"1000", "5000"})
+    private int fenceCount;
+
+    private double[] lats;
+    private double[] lngs;
+    private String[] ids;
+    private GeofenceEngine engine;
+    private List<Alert> alerts;
+    private Consumer<Alert> sink;
+    private SplittableRandom rng;
+    private long nowMillis;
+
+    @Setup
+    public void setup() {
+        rng = new SplittableRandom(42);
+        List<Geofence> fences = new ArrayList<>(fenceCount);
+        for (int i = 0; i < fenceCount; i++) {
+            double lat = -26.20 + (rng.nextDouble() - 0.5) * 0.24;
+            double lng = 28.04 + (rng.nextDouble() - 0.5) * 0.36;
+            double radius = 100 + rng.nextDouble() * 900;
+            Geofence.GeofenceBuilder fence = Geofence.builder()
+                    .id((long) i)
+                    .name("Fence " + i)
+                    .category(GeofenceCategory.values()[i % 3])
+                    .dwellLimitSeconds(600);
+            if (i % 2 == 0) {
+                fence.shape(GeofenceShape.CIRCLE).centerLatitude(lat).centerLongitude(lng).radiusMeters(radius);
+            } else {
+                List<GeoPoint> hexagon = new ArrayList<>(6);
+                double deg = radius / 111_320.0;
+                for (int k = 0; k < 6; k++) {
+                    double angle = k * Math.PI / 3;
+                    hexagon.add(new GeoPoint(lat + Math.sin(angle) * deg, lng + Math.cos(angle) * deg));
+                }
+                fence.shape(GeofenceShape.POLYGON).vertices(hexagon);
+            }
+            fences.add(fence.build());
+        }
+        engine = new GeofenceEngine(0.0025, 1_000_000);
+        engine.reload(fences);
+
+        lats = new double[fleetSize];
+        lngs = new double[fleetSize];
+        ids = new String[fleetSize];
+        for (int i = 0; i < fleetSize; i++) {
+            lats[i] = -26.20 + (rng.nextDouble() - 0.5) * 0.24;
+            lngs[i] = 28.04 + (rng.nextDouble() - 0.5) * 0.36;
+            ids[i] = "GP " + i;
+        }
+        alerts = new ArrayList<>();
+        sink = alerts::add;
+        nowMillis = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        alerts.clear();
+        nowMillis += 1000;
+        for (int i = 0; i < fleetSize; i++) {
+            lats[i] += (rng.nextDouble() - 0.5) * 0.0005;
+            lngs[i] += (rng.nextDouble() - 0.5) * 0.0005;
+            engine.evaluate(i, ids[i], lats[i], lngs[i], nowMillis, sink);
+        }
+        return alerts.size();
+    }
+}
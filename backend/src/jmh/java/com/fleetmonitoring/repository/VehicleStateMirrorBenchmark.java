@@ -0,0 +1,112 @@
+package com.fleetmonitoring.repository;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Timestamp;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Writing the whole fleet's last-known state to the vehicles table, once per tick: the single
+// unnest upsert the pipeline uses versus one UPDATE transaction per vehicle, the path it replaced.
+// Runs against PostgreSQL 16 in a Testcontainers container, so it needs Docker; the database is on
+// loopback, which makes the per-row numbers a lower bound for a remote server. Every operation
+// writes the other of two fleet states, so no update is a no-op.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class VehicleStateMirrorBenchmark {
+
+    @Param({"500", "5000", "50000"})
+    private int fleetSize;
+
+    private PostgreSQLContainer<?> postgres;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private VehicleRepositoryImpl repository;
+
+    private String[] vehicleIds;
+    private double[][] latitudes;
+    private double[][] longitudes;
+    private double[][] speeds;
+    private double[][] fuelLevels;
+    private double[][] engineTemps;
+    private long[][] updatedMillis;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword(), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repository = new VehicleRepositoryImpl(jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE vehicles (id bigserial PRIMARY KEY, " +
+                "vehicle_id varchar(255) NOT NULL UNIQUE, last_latitude float(53) NOT NULL, " +
+                "last_longitude float(53) NOT NULL, last_speed float(53) NOT NULL, " +
+                "last_fuel_level float(53) NOT NULL, last_engine_temp float(53) NOT NULL, " +
+                "last_updated timestamp(6) with time zone)");
+
+        SplittableRandom rng = new SplittableRandom(42);
+        vehicleIds = new String[fleetSize];
+        latitudes = new double[2][fleetSize];
+        longitudes = new double[2][fleetSize];
+        speeds = new double[2][fleetSize];
+        fuelLevels = new double[2][fleetSize];
+        engineTemps = new double[2][fleetSize];
+        updatedMillis = new long[2][fleetSize];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < fleetSize; i++) {
+            vehicleIds[i] = "GP " + i;
+            for (int s = 0; s < 2; s++) {
+                latitudes[s][i] = -26.20 + (rng.nextDouble() - 0.5) * 0.24;
+                longitudes[s][i] = 28.04 + (rng.nextDouble() - 0.5) * 0.36;
+                speeds[s][i] = rng.nextDouble() * 120;
+                fuelLevels[s][i] = rng.nextDouble() * 100;
+                engineTemps[s][i] = 75 + rng.nextDouble() * 20;
+                updatedMillis[s][i] = now + s * 1000L;
+            }
+        }
+        // Both paths update existing rows, as they do once the fleet has been seeded.
+        repository.upsertVehicleStates(vehicleIds, latitudes[0], longitudes[0], speeds[0],
+                fuelLevels[0], engineTemps[0], updatedMillis[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public int unnestUpsert() {
+        int s = ++tick & 1;
+        return transactionTemplate.execute(status -> repository.upsertVehicleStates(vehicleIds,
+                latitudes[s], longitudes[s], speeds[s], fuelLevels[s], engineTemps[s], updatedMillis[s]));
+    }
+
+    @Benchmark
+    public int perRowTransactions() {
+        int s = ++tick & 1;
+        int rows = 0;
+        for (int i = 0; i < fleetSize; i++) {
+            int v = i;
+            rows += transactionTemplate.execute(status -> jdbcTemplate.update(
+                    "UPDATE vehicles SET last_latitude = ?, last_longitude = ?, last_speed = ?, " +
+                    "last_fuel_level = ?, last_engine_temp = ?, last_updated = ? WHERE vehicle_id = ?",
+                    latitudes[s][v], longitudes[s][v], speeds[s][v], fuelLevels[s][v], engineTemps[s][v],
+                    new Timestamp(updatedMillis[s][v]), vehicleIds[v]));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,71 @@
+package com.fleetmonitoring.simulator;
+
+import com.fleetmonitoring.model.Telemetry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// One operation is one simulator tick over the whole fleet.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class SimulatorBenchmark {
+
+    @Param({"500", "10000", "100000"})
+    private int fleetSize;
+
+    private List<VehicleState> states;
+    private SimulationShard shard;
+    private SplittableRandom rng;
+
+    @Setup
+    public void setup() {
+        rng = new SplittableRandom(42);
+        states = new ArrayList<>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            states.add(new VehicleState(i, String.format("GP %03d %05d", i % 1000, i),
+                    -26.2 + (rng.nextDouble() - 0.5) * 0.24, 28.04 + (rng.nextDouble() - 0.5) * 0.36,
+                    30 + rng.nextDouble() * 70, 40 + rng.nextDouble() * 60, 75 + rng.nextDouble() * 15));
+        }
+        shard = new SimulationShard(states, 0, fleetSize, rng.split());
+    }
+
+    @Benchmark
+    public double evolve() {
+        double checksum = 0;
+        for (VehicleState state : states) {
+            state.evolve(rng);
+            checksum += state.speed;
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public void buildTelemetry(Blackhole blackhole) {
+        Instant now = Instant.now();
+        for (VehicleState state : states) {
+            blackhole.consume(Telemetry.builder()
+                    .vehicleId(state.vehicleId)
+                    .latitude(state.latitude)
+                    .longitude(state.longitude)
+                    .speed(state.speed)
+                    .fuelLevel(state.fuelLevel)
+                    .engineTemp(state.engineTemp)
+                    .timestamp(now)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<Telemetry> shardTick() {
+        return shard.run(Instant.now());
+    }
+}
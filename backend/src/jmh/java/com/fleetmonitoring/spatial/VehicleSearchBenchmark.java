@@ -0,0 +1,169 @@
+package com.fleetmonitoring.spatial;
+
+import com.fleetmonitoring.model.NearbyVehicle;
+import com.fleetmonitoring.state.FleetSnapshot;
+import com.fleetmonitoring.state.FleetStateStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Nearest-k and radius queries against the live index versus a haversine scan of the whole
+// snapshot, plus the per-tick index update. Vehicles and query points are spread over the
+// simulator region; publish alternates between two snapshots about 50 m apart, and publishBatch
+// does the same for a batch of 1,000 vehicles spread over the fleet.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class VehicleSearchBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000"})
+    private int fleetSize;
+
+    @Param({"10"})
+    private int k;
+
+    @Param({"1.0"})
+    private double radiusKm;
+
+    private FleetSnapshot[] snapshots;
+    private LiveVehicleIndex index;
+    private double[] queryLats;
+    private double[] queryLngs;
+    private int[] batch;
+    private int query;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rng = new SplittableRandom(42);
+        FleetStateStore store = new FleetStateStore();
+        double[] lats = new double[fleetSize];
+        double[] lngs = new double[fleetSize];
+        for (int i = 0; i < fleetSize; i++) {
+            store.register("GP " + i);
+            lats[i] = -26.20 + (rng.nextDouble() - 0.5) * 0.24;
+            lngs[i] = 28.04 + (rng.nextDouble() - 0.5) * 0.36;
+        }
+        snapshots = new FleetSnapshot[2];
+        for (int s = 0; s < snapshots.length; s++) {
+            for (int i = 0; i < fleetSize; i++) {
+                store.update(i, lats[i] + s * 0.0005, lngs[i] + s * 0.0005, 60, 50, 85, 0);
+            }
+            snapshots[s] = store.publish();
+        }
+        index = new LiveVehicleIndex(0.01);
+        index.publish(snapshots[0]);
+        batch = new int[1000];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = (int) ((long) i * fleetSize / batch.length);
+        }
+
+        queryLats = new double[QUERIES];
+        queryLngs = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryLats[i] = -26.20 + (rng.nextDouble() - 0.5) * 0.24;
+            queryLngs[i] = 28.04 + (rng.nextDouble() - 0.5) * 0.36;
+        }
+    }
+
+    @Benchmark
+    public List<NearbyVehicle> nearestIndexed() {
+        int q = next();
+        return index.nearest(queryLats[q], queryLngs[q], k);
+    }
+
+    @Benchmark
+    public int[] nearestLinearScan() {
+        int q = next();
+        return scanNearest(snapshots[0], queryLats[q], queryLngs[q], k);
+    }
+
+    @Benchmark
+    public List<NearbyVehicle> withinIndexed() {
+        int q = next();
+        return index.within(queryLats[q], queryLngs[q], radiusKm, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int[] withinLinearScan() {
+        int q = next();
+        return scanWithin(snapshots[0], queryLats[q], queryLngs[q], radiusKm);
+    }
+
+    @Benchmark
+    public void publish() {
+        index.publish(snapshots[++tick & 1]);
+    }
+
+    // Claims to follow whichever snapshot it replaces, so the index takes the incremental path.
+    @Benchmark
+    public void publishBatch() {
+        FleetSnapshot previous = snapshots[tick & 1];
+        index.publish(snapshots[++tick & 1], batch, previous.getVersion() + 1);
+    }
+
+    private int next() {
+        return query++ & (QUERIES - 1);
+    }
+
+    // Keeps the k closest in a sorted insertion buffer; k is small, so this beats a heap.
+    private static int[] scanNearest(FleetSnapshot snapshot, double lat, double lng, int k) {
+        double[] lats = snapshot.getLatitudes();
+        double[] lngs = snapshot.getLongitudes();
+        int[] best = new int[k];
+        double[] bestDistance = new double[k];
+        Arrays.fill(bestDistance, Double.MAX_VALUE);
+        for (int i = 0; i < snapshot.getSize(); i++) {
+            double d = GeoMath.haversineKm(lat, lng, lats[i], lngs[i]);
+            if (d < bestDistance[k - 1]) {
+                int j = k - 1;
+                while (j > 0 && bestDistance[j - 1] > d) {
+                    bestDistance[j] = bestDistance[j - 1];
+                    best[j] = best[j - 1];
+                    j--;
+                }
+                bestDistance[j] = d;
+                best[j] = i;
+            }
+        }
+        return best;
+    }
+
+    private static int[] scanWithin(FleetSnapshot snapshot, double lat, double lng, double radiusKm) {
+        double[] lats = snapshot.getLatitudes();
+        double[] lngs = snapshot.getLongitudes();
+        int[] hits = new int[64];
+        double[] distances = new double[64];
+        int size = 0;
+        for (int i = 0; i < snapshot.getSize(); i++) {
+            double d = GeoMath.haversineKm(lat, lng, lats[i], lngs[i]);
+            if (d <= radiusKm) {
+                if (size == hits.length) {
+                    hits = Arrays.copyOf(hits, size * 2);
+                    distances = Arrays.copyOf(distances, size * 2);
+                }
+                hits[size] = i;
+                distances[size++] = d;
+            }
+        }
+        double[] keys = distances;
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(keys[a], keys[b]));
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = hits[order[i]];
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,106 @@
+package com.fleetmonitoring.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One operation delivers one batch of alerts to a single subscriber: the old path sends one
+// template message per alert, the fan-out serialises a single frame, either with every alert or
+// with the default rate limit, which in a sustained storm leaves only the summaries. The outbound
+// channel is a blackhole that counts frames and bytes.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class AlertFanoutBenchmark {
+
+    @Param({"10", "500", "5000"})
+    private int alertCount;
+
+    private List<Alert> alerts;
+    private SimpMessagingTemplate template;
+    private AlertFanout fanout;
+    private AlertFanout limitedFanout;
+    private long frames;
+    private long payloadBytes;
+
+    @Setup
+    public void setup() {
+        Instant now = Instant.now();
+        alerts = new ArrayList<>(alertCount);
+        for (int i = 0; i < alertCount; i++) {
+            String vehicleId = String.format("GP %03d %05d", i % 1000, i);
+            alerts.add(Alert.builder()
+                    .vehicleId(vehicleId)
+                    .alertType(AlertType.ENGINE_OVERHEAT)
+                    .severity(i % 4 == 0 ? Severity.CRITICAL : Severity.WARNING)
+                    .message(String.format("Vehicle %s engine at %.1f°C", vehicleId, 100.0 + i % 15))
+                    .timestamp(now)
+                    .build());
+        }
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        MessageChannel blackhole = (message, timeout) -> {
+            frames++;
+            payloadBytes += ((byte[]) message.getPayload()).length;
+            return true;
+        };
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        template = new SimpMessagingTemplate(blackhole);
+        template.setMessageConverter(converter);
+
+        // A zero rate disables the limiter, so every alert is serialised in both variants.
+        fanout = subscribed(new AlertFanout(blackhole, objectMapper, new SimpleMeterRegistry(), 0, 20, 5));
+        limitedFanout = subscribed(new AlertFanout(blackhole, objectMapper, new SimpleMeterRegistry(), 5, 20, 5));
+    }
+
+    private AlertFanout subscribed(AlertFanout target) {
+        target.init();
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setSessionId("bench");
+        subscribe.setSubscriptionId("sub-0");
+        subscribe.setDestination(AlertFanout.TOPIC);
+        target.onSubscribe(new SessionSubscribeEvent(this,
+                MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders())));
+        return target;
+    }
+
+    @Benchmark
+    public long perAlertMessages() {
+        for (Alert alert : alerts) {
+            template.convertAndSend(AlertFanout.TOPIC, alert);
+        }
+        return frames + payloadBytes;
+    }
+
+    @Benchmark
+    public long batchedFanout() {
+        fanout.publish(alerts);
+        return frames + payloadBytes;
+    }
+
+    @Benchmark
+    public long rateLimitedFanout() {
+        limitedFanout.publish(alerts);
+        return frames + payloadBytes;
+    }
+}
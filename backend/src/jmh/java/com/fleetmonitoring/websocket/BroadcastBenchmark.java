@@ -0,0 +1,87 @@
+package com.fleetmonitoring.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetmonitoring.model.Telemetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// One operation serialises a whole tick into /topic/vehicles frames through the real broadcaster for
+// one caught-up subscriber, with the outbound channel replaced by a blackhole so only conversion is
+// measured. The method was broadcastTelemetryBatch in 1.0.0, when it timed a plain 50-reading JSON
+// conversion; it was renamed when the stream became conflating, so the two are not compared.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class BroadcastBenchmark {
+
+    @Param({"500", "10000", "100000"})
+    private int fleetSize;
+
+    private List<Telemetry> batch;
+    private WebSocketBroadcaster broadcaster;
+    private long payloadBytes;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rng = new SplittableRandom(42);
+        Instant now = Instant.now();
+        batch = new ArrayList<>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            batch.add(Telemetry.builder()
+                    .vehicleId(String.format("GP %03d %05d", i % 1000, i))
+                    .latitude(-26.2 + rng.nextDouble() * 0.2)
+                    .longitude(28.04 + rng.nextDouble() * 0.3)
+                    .speed(rng.nextDouble() * 120)
+                    .fuelLevel(rng.nextDouble() * 100)
+                    .engineTemp(70 + rng.nextDouble() * 30)
+                    .timestamp(now)
+                    .build());
+        }
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        MessageChannel blackhole = (message, timeout) -> {
+            payloadBytes += ((byte[]) message.getPayload()).length;
+            return true;
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConflatingVehicleStream stream = new ConflatingVehicleStream(blackhole, new SessionBacklog(),
+                objectMapper, registry, 32, 20000);
+        stream.init();
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setSessionId("bench");
+        subscribe.setSubscriptionId("sub-0");
+        subscribe.setDestination(ConflatingVehicleStream.TOPIC);
+        stream.onSubscribe(new SessionSubscribeEvent(this,
+                MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders())));
+
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        SimpMessagingTemplate template = new SimpMessagingTemplate(blackhole);
+        template.setMessageConverter(converter);
+        broadcaster = new WebSocketBroadcaster(template, stream,
+                new AlertFanout(blackhole, objectMapper, registry, 5, 20, 5));
+    }
+
+    @Benchmark
+    public long broadcastConflated() {
+        broadcaster.broadcastTelemetryBatch(batch);
+        return payloadBytes;
+    }
+}
@@ -1,64 +1,128 @@
 package com.fleetmonitoring.alert;
 
 import com.fleetmonitoring.model.*;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 
+// Rules are compiled once from configuration. Evaluation works on primitives, keeps cooldowns and
+// windowed rule state in arrays indexed by vehicle ordinal and only allocates when an alert is emitted.
+// Windows, cooldowns and alert timestamps run on each reading's own time, so several readings of one
+// vehicle in a batch, or a device uploading readings it buffered, are judged by when they were taken.
+// Evaluation only touches state at the reading's ordinal. After ensureCapacity has covered every
+// ordinal, readings of different vehicles may be evaluated on different threads; one vehicle's
+// readings must stay on one thread, in order.
 @Service
-public class AlertEngine {
+@EnableConfigurationProperties(AlertRuleProperties.class)
+@Slf4j
+public class AlertEngine implements MeterBinder {
 
-    private static final long COOLDOWN_SECONDS = 30;
+    private static final int TYPE_COUNT = AlertType.values().length;
 
-    private final Map<String, Instant> lastAlertTimes = new ConcurrentHashMap<>();
+    private final CompiledRule[] rules;
+    private final long cooldownMillis;
 
-    public List<Alert> evaluate(Telemetry telemetry) {
-        List<Alert> alerts = new ArrayList<>();
+    private long[] lastAlertMillis = new long[0];
+    private final AtomicLongArray emitted = new AtomicLongArray(TYPE_COUNT);
+    private final AtomicLongArray suppressed = new AtomicLongArray(TYPE_COUNT);
 
-        if (telemetry.getSpeed() > 120) {
-            Severity severity = telemetry.getSpeed() > 140 ? Severity.CRITICAL : Severity.WARNING;
-            tryCreateAlert(telemetry, AlertType.OVERSPEED, severity,
-                    String.format("Vehicle %s speeding at %.1f km/h", telemetry.getVehicleId(), telemetry.getSpeed()),
-                    alerts);
-        }
+    public AlertEngine(AlertRuleProperties properties) {
+        // Windowed rules keep times as int deciseconds from this epoch; starting a day back leaves room
+        // for readings a device buffered before startup.
+        long epochMillis = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        this.rules = properties.getRules().stream()
+                .map(rule -> CompiledRule.compile(rule, epochMillis))
+                .toArray(CompiledRule[]::new);
+        this.cooldownMillis = properties.getCooldownSeconds() * 1000;
+        log.info("Compiled {} alert rules with a {}s cooldown", rules.length, properties.getCooldownSeconds());
+    }
+
+    public void evaluate(int ordinal, Telemetry telemetry, Consumer<Alert> sink) {
+        evaluate(ordinal, telemetry.getVehicleId(), telemetry.getSpeed(), telemetry.getFuelLevel(),
+                telemetry.getEngineTemp(), telemetry.getTimestamp().toEpochMilli(), sink);
+    }
 
-        if (telemetry.getFuelLevel() < 15) {
-            Severity severity = telemetry.getFuelLevel() < 10 ? Severity.CRITICAL : Severity.WARNING;
-            tryCreateAlert(telemetry, AlertType.LOW_FUEL, severity,
-                    String.format("Vehicle %s fuel low at %.1f%%", telemetry.getVehicleId(), telemetry.getFuelLevel()),
-                    alerts);
+    public void evaluate(int ordinal, String vehicleId, double speed, double fuelLevel, double engineTemp,
+                         long readingMillis, Consumer<Alert> sink) {
+        for (CompiledRule rule : rules) {
+            double value = rule.field.read(speed, fuelLevel, engineTemp);
+            int level = rule.level(ordinal, value, readingMillis);
+            if (level == 0) {
+                continue;
+            }
+            int slot = ordinal * TYPE_COUNT + rule.typeIndex;
+            if (slot >= lastAlertMillis.length) {
+                grow(slot + 1);
+            }
+            long last = lastAlertMillis[slot];
+            if (last != 0 && readingMillis - last < cooldownMillis) {
+                suppressed.incrementAndGet(rule.typeIndex);
+                continue;
+            }
+            lastAlertMillis[slot] = readingMillis;
+            emitted.incrementAndGet(rule.typeIndex);
+            sink.accept(Alert.builder()
+                    .vehicleId(vehicleId)
+                    .alertType(rule.type)
+                    .severity(level == 2 ? Severity.CRITICAL : Severity.WARNING)
+                    .message(String.format(rule.messageTemplate, vehicleId, rule.observed(ordinal, value)))
+                    .timestamp(Instant.ofEpochMilli(readingMillis))
+                    .build());
         }
+    }
 
-        if (telemetry.getEngineTemp() > 100) {
-            Severity severity = telemetry.getEngineTemp() > 110 ? Severity.CRITICAL : Severity.WARNING;
-            tryCreateAlert(telemetry, AlertType.ENGINE_OVERHEAT, severity,
-                    String.format("Vehicle %s engine at %.1f\u00B0C", telemetry.getVehicleId(), telemetry.getEngineTemp()),
-                    alerts);
+    // Reserves per-vehicle state for ordinals below {@code vehicles}; call it before evaluating in
+    // parallel, so no evaluation has to grow an array another thread is using.
+    public void ensureCapacity(int vehicles) {
+        if ((long) vehicles * TYPE_COUNT > lastAlertMillis.length) {
+            grow(vehicles * TYPE_COUNT);
         }
+        for (CompiledRule rule : rules) {
+            rule.ensureCapacity(vehicles);
+        }
+    }
 
-        return alerts;
+    public long getEmittedCount() {
+        return sum(emitted);
     }
 
-    private void tryCreateAlert(Telemetry t, AlertType type, Severity severity,
-                                String message, List<Alert> alerts) {
-        String key = t.getVehicleId() + ":" + type;
-        Instant now = Instant.now();
-        Instant lastAlert = lastAlertTimes.get(key);
+    public long getSuppressedCount() {
+        return sum(suppressed);
+    }
 
-        if (lastAlert == null || Duration.between(lastAlert, now).getSeconds() >= COOLDOWN_SECONDS) {
-            lastAlertTimes.put(key, now);
-            alerts.add(Alert.builder()
-                    .vehicleId(t.getVehicleId())
-                    .alertType(type)
-                    .severity(severity)
-                    .message(message)
-                    .timestamp(now)
-                    .build());
+    private static long sum(AtomicLongArray counts) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
         }
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (AlertType type : Arrays.stream(rules).map(rule -> rule.type).distinct().toList()) {
+            int index = type.ordinal();
+            FunctionCounter.builder("fleet.alerts.emitted", emitted, counts -> counts.get(index))
+                    .tag("type", type.name())
+                    .register(registry);
+            FunctionCounter.builder("fleet.alerts.suppressed", suppressed, counts -> counts.get(index))
+                    .description("Alerts withheld because the vehicle was still in cooldown for that type")
+                    .tag("type", type.name())
+                    .register(registry);
+        }
+    }
+
+    private void grow(int minLength) {
+        int length = Math.max(minLength, Math.max(TYPE_COUNT * 1024, lastAlertMillis.length * 2));
+        lastAlertMillis = Arrays.copyOf(lastAlertMillis, length);
     }
 }
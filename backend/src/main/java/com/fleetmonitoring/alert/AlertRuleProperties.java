@@ -0,0 +1,78 @@
+package com.fleetmonitoring.alert;
+
+import com.fleetmonitoring.model.AlertType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "fleet.alerts")
+@Getter
+@Setter
+public class AlertRuleProperties {
+
+    private long cooldownSeconds = 30;
+
+    private List<Rule> rules = new ArrayList<>(List.of(
+            new Rule(AlertType.OVERSPEED, RuleKind.SUSTAINED, TelemetryField.SPEED, Comparison.ABOVE, 120, 140,
+                    "Vehicle %s speeding at %.1f km/h").window(5),
+            new Rule(AlertType.LOW_FUEL, RuleKind.THRESHOLD, TelemetryField.FUEL_LEVEL, Comparison.BELOW, 15, 10,
+                    "Vehicle %s fuel low at %.1f%%"),
+            new Rule(AlertType.ENGINE_OVERHEAT, RuleKind.THRESHOLD, TelemetryField.ENGINE_TEMP, Comparison.ABOVE, 100, 110,
+                    "Vehicle %s engine at %.1f°C"),
+            new Rule(AlertType.FUEL_DROP, RuleKind.RATE_OF_CHANGE, TelemetryField.FUEL_LEVEL, Comparison.BELOW, -0.15, -0.3,
+                    "Vehicle %s fuel dropping at %.2f%%/s").window(60),
+            new Rule(AlertType.ENGINE_TEMP_RISE, RuleKind.RATE_OF_CHANGE, TelemetryField.ENGINE_TEMP, Comparison.ABOVE, 1.0, 2.0,
+                    "Vehicle %s engine temperature rising at %.1f°C/s").window(10)));
+
+    public enum Comparison {
+        ABOVE,
+        BELOW
+    }
+
+    public enum RuleKind {
+        // The current reading crosses the threshold.
+        THRESHOLD,
+        // Every reading for window-seconds crosses the threshold.
+        SUSTAINED,
+        // At least min-count readings within window-seconds cross the threshold.
+        COUNT_IN_WINDOW,
+        // Change per second against the oldest reading in window-seconds crosses the threshold.
+        RATE_OF_CHANGE
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Rule {
+        private AlertType type;
+        private RuleKind kind = RuleKind.THRESHOLD;
+        private TelemetryField field;
+        private Comparison comparison;
+        private double warning;
+        private double critical;
+        private String message;
+        private double windowSeconds;
+        private int minCount = 3;
+        private int samples = 16;
+
+        Rule(AlertType type, RuleKind kind, TelemetryField field, Comparison comparison,
+             double warning, double critical, String message) {
+            this.type = type;
+            this.kind = kind;
+            this.field = field;
+            this.comparison = comparison;
+            this.warning = warning;
+            this.critical = critical;
+            this.message = message;
+        }
+
+        Rule window(double seconds) {
+            this.windowSeconds = seconds;
+            return this;
+        }
+    }
+}
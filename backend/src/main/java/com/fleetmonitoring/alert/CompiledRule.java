@@ -0,0 +1,83 @@
+package com.fleetmonitoring.alert;
+
+import com.fleetmonitoring.model.AlertType;
+
+// A configured rule flattened to primitives. Thresholds are normalised so a BELOW rule is evaluated
+// as "negated value above negated threshold", leaving the hot path a single comparison shape.
+abstract class CompiledRule {
+
+    final AlertType type;
+    final int typeIndex;
+    final TelemetryField field;
+    final double sign;
+    final double warning;
+    final double critical;
+    final String messageTemplate;
+
+    CompiledRule(AlertRuleProperties.Rule rule) {
+        if (rule.getType() == null || rule.getField() == null || rule.getComparison() == null) {
+            throw new IllegalArgumentException("Alert rule needs type, field and comparison: " + rule.getType());
+        }
+        this.type = rule.getType();
+        this.typeIndex = type.ordinal();
+        this.field = rule.getField();
+        this.sign = rule.getComparison() == AlertRuleProperties.Comparison.ABOVE ? 1 : -1;
+        this.warning = sign * rule.getWarning();
+        this.critical = sign * rule.getCritical();
+        if (critical < warning) {
+            throw new IllegalArgumentException("Critical threshold of " + type
+                    + " must be at least as severe as its warning threshold");
+        }
+        this.messageTemplate = rule.getMessage() != null ? rule.getMessage() : "Vehicle %s " + type + " at %.1f";
+    }
+
+    static CompiledRule compile(AlertRuleProperties.Rule rule, long epochMillis) {
+        return switch (rule.getKind()) {
+            case THRESHOLD -> new ThresholdRule(rule);
+            case SUSTAINED -> new SustainedRule(rule);
+            case COUNT_IN_WINDOW -> new CountInWindowRule(rule, epochMillis);
+            case RATE_OF_CHANGE -> new RateOfChangeRule(rule, epochMillis);
+        };
+    }
+
+    // 0 = no breach, 1 = warning, 2 = critical. Per-vehicle state is only touched at {@code ordinal},
+    // so vehicles in different shards can be evaluated concurrently once capacity is reserved.
+    abstract int level(int ordinal, double value, long readingMillis);
+
+    // Grows the per-vehicle state to hold at least {@code vehicles} ordinals.
+    abstract void ensureCapacity(int vehicles);
+
+    // Value reported in the message of an alert level() just raised for this vehicle.
+    double observed(int ordinal, double value) {
+        return value;
+    }
+
+    final int levelOf(double normalised) {
+        if (normalised > critical) return 2;
+        if (normalised > warning) return 1;
+        return 0;
+    }
+
+    static long windowMillis(AlertRuleProperties.Rule rule) {
+        if (rule.getWindowSeconds() <= 0) {
+            throw new IllegalArgumentException(rule.getKind() + " rule " + rule.getType() + " needs window-seconds > 0");
+        }
+        return (long) (rule.getWindowSeconds() * 1000);
+    }
+
+    static final class ThresholdRule extends CompiledRule {
+
+        ThresholdRule(AlertRuleProperties.Rule rule) {
+            super(rule);
+        }
+
+        @Override
+        int level(int ordinal, double value, long readingMillis) {
+            return levelOf(sign * value);
+        }
+
+        @Override
+        void ensureCapacity(int vehicles) {
+        }
+    }
+}
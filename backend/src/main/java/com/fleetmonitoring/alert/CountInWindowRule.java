@@ -0,0 +1,52 @@
+package com.fleetmonitoring.alert;
+
+import java.util.Arrays;
+
+// Fires when at least min-count breaching samples fall inside the window. Each vehicle keeps a ring of
+// its last min-count breach times, so the check is a single comparison against the oldest entry.
+final class CountInWindowRule extends CompiledRule {
+
+    private final long epochMillis;
+    private final int windowDeciseconds;
+    private final int minCount;
+    private int[] breachTimes = new int[0];
+    private int[] next = new int[0];
+
+    CountInWindowRule(AlertRuleProperties.Rule rule, long epochMillis) {
+        super(rule);
+        if (rule.getMinCount() < 1) {
+            throw new IllegalArgumentException("COUNT_IN_WINDOW rule " + type + " needs min-count >= 1");
+        }
+        this.epochMillis = epochMillis;
+        this.windowDeciseconds = (int) (windowMillis(rule) / 100);
+        this.minCount = rule.getMinCount();
+    }
+
+    @Override
+    int level(int ordinal, double value, long readingMillis) {
+        int instant = levelOf(sign * value);
+        if (instant == 0) {
+            return 0;
+        }
+        if (ordinal >= next.length) {
+            ensureCapacity(ordinal + 1);
+        }
+        // Stored as deciseconds since engine start, offset by one so that 0 means "empty slot".
+        int now = Math.max(1, (int) ((readingMillis - epochMillis) / 100) + 1);
+        int base = ordinal * minCount;
+        breachTimes[base + next[ordinal]] = now;
+        next[ordinal] = (next[ordinal] + 1) % minCount;
+
+        int oldest = breachTimes[base + next[ordinal]];
+        return oldest != 0 && now - oldest <= windowDeciseconds ? instant : 0;
+    }
+
+    @Override
+    void ensureCapacity(int vehicles) {
+        if (vehicles > next.length) {
+            int capacity = Math.max(vehicles, Math.max(1024, next.length * 2));
+            next = Arrays.copyOf(next, capacity);
+            breachTimes = Arrays.copyOf(breachTimes, capacity * minCount);
+        }
+    }
+}
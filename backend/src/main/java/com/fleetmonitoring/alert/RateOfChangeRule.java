@@ -0,0 +1,89 @@
+package com.fleetmonitoring.alert;
+
+import java.util.Arrays;
+
+// Compares the current value with the oldest retained sample in the window and reports the change
+// per second. Each vehicle has a fixed ring of `samples` (time, value) pairs, downsampled to one entry
+// per window/(samples-1), so memory is bounded no matter how often a vehicle reports.
+final class RateOfChangeRule extends CompiledRule {
+
+    private final long epochMillis;
+    private final int windowDeciseconds;
+    private final int minSpanDeciseconds;
+    private final int sampleSpacingDeciseconds;
+    private final int samples;
+
+    private int[] times = new int[0];
+    private float[] values = new float[0];
+    private int[] start = new int[0];
+    private int[] count = new int[0];
+    private double[] rates = new double[0];
+
+    RateOfChangeRule(AlertRuleProperties.Rule rule, long epochMillis) {
+        super(rule);
+        if (rule.getSamples() < 2) {
+            throw new IllegalArgumentException("RATE_OF_CHANGE rule " + type + " needs samples >= 2");
+        }
+        this.epochMillis = epochMillis;
+        this.windowDeciseconds = (int) (windowMillis(rule) / 100);
+        this.minSpanDeciseconds = Math.max(1, windowDeciseconds / 2);
+        this.samples = rule.getSamples();
+        this.sampleSpacingDeciseconds = Math.max(1, windowDeciseconds / (samples - 1));
+    }
+
+    @Override
+    int level(int ordinal, double value, long readingMillis) {
+        if (ordinal >= count.length) {
+            ensureCapacity(ordinal + 1);
+        }
+        int now = (int) ((readingMillis - epochMillis) / 100);
+        int base = ordinal * samples;
+
+        // Evict samples that fell out of the window; each sample is evicted at most once.
+        while (count[ordinal] > 0 && now - times[base + start[ordinal]] > windowDeciseconds) {
+            start[ordinal] = (start[ordinal] + 1) % samples;
+            count[ordinal]--;
+        }
+
+        int level = 0;
+        rates[ordinal] = 0;
+        if (count[ordinal] > 0) {
+            int oldest = base + start[ordinal];
+            int span = now - times[oldest];
+            if (span >= minSpanDeciseconds) {
+                rates[ordinal] = (value - values[oldest]) * 10.0 / span;
+                level = levelOf(sign * rates[ordinal]);
+            }
+        }
+
+        int newest = base + (start[ordinal] + count[ordinal] + samples - 1) % samples;
+        if (count[ordinal] == 0 || now - times[newest] >= sampleSpacingDeciseconds) {
+            if (count[ordinal] == samples) {
+                start[ordinal] = (start[ordinal] + 1) % samples;
+                count[ordinal]--;
+            }
+            int slot = base + (start[ordinal] + count[ordinal]) % samples;
+            times[slot] = now;
+            values[slot] = (float) value;
+            count[ordinal]++;
+        }
+        return level;
+    }
+
+    @Override
+    double observed(int ordinal, double value) {
+        return rates[ordinal];
+    }
+
+    @Override
+    void ensureCapacity(int vehicles) {
+        if (vehicles > count.length) {
+            int capacity = Math.max(vehicles, Math.max(1024, count.length * 2));
+            start = Arrays.copyOf(start, capacity);
+            count = Arrays.copyOf(count, capacity);
+            rates = Arrays.copyOf(rates, capacity);
+            times = Arrays.copyOf(times, capacity * samples);
+            values = Arrays.copyOf(values, capacity * samples);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.fleetmonitoring.alert;
+
+import java.util.Arrays;
+
+// Fires only once a breach has held continuously for the whole window, so one noisy sample is ignored.
+// State is the start time of the current warning and critical breach per vehicle (0 = not breaching).
+final class SustainedRule extends CompiledRule {
+
+    private final long windowMillis;
+    private long[] warningSince = new long[0];
+    private long[] criticalSince = new long[0];
+
+    SustainedRule(AlertRuleProperties.Rule rule) {
+        super(rule);
+        this.windowMillis = windowMillis(rule);
+    }
+
+    @Override
+    int level(int ordinal, double value, long readingMillis) {
+        if (ordinal >= warningSince.length) {
+            ensureCapacity(ordinal + 1);
+        }
+        int instant = levelOf(sign * value);
+        warningSince[ordinal] = instant >= 1 ? (warningSince[ordinal] == 0 ? readingMillis : warningSince[ordinal]) : 0;
+        criticalSince[ordinal] = instant == 2 ? (criticalSince[ordinal] == 0 ? readingMillis : criticalSince[ordinal]) : 0;
+
+        if (criticalSince[ordinal] != 0 && readingMillis - criticalSince[ordinal] >= windowMillis) return 2;
+        if (warningSince[ordinal] != 0 && readingMillis - warningSince[ordinal] >= windowMillis) return 1;
+        return 0;
+    }
+
+    @Override
+    void ensureCapacity(int vehicles) {
+        if (vehicles > warningSince.length) {
+            int capacity = Math.max(vehicles, Math.max(1024, warningSince.length * 2));
+            warningSince = Arrays.copyOf(warningSince, capacity);
+            criticalSince = Arrays.copyOf(criticalSince, capacity);
+        }
+    }
+}
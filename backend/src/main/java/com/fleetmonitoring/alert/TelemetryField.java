@@ -0,0 +1,15 @@
+package com.fleetmonitoring.alert;
+
+public enum TelemetryField {
+    SPEED,
+    FUEL_LEVEL,
+    ENGINE_TEMP;
+
+    public double read(double speed, double fuelLevel, double engineTemp) {
+        return switch (this) {
+            case SPEED -> speed;
+            case FUEL_LEVEL -> fuelLevel;
+            case ENGINE_TEMP -> engineTemp;
+        };
+    }
+}
@@ -1,15 +1,20 @@
 package com.fleetmonitoring.controller;
 
-import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertCounts;
+import com.fleetmonitoring.model.AlertPage;
 import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
 import com.fleetmonitoring.service.AlertService;
-import com.fleetmonitoring.websocket.WebSocketBroadcaster;
+import com.fleetmonitoring.websocket.AlertFanout;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
 import java.util.Map;
 
 @RestController
@@ -18,28 +23,45 @@ import java.util.Map;
 public class AlertController {
 
     private final AlertService alertService;
-    private final WebSocketBroadcaster broadcaster;
+    private final AlertFanout alertFanout;
 
+    // Newest first; to page, pass the nextCursor of the previous page as before=<cursor>.
     @GetMapping
-    public List<Alert> getAlerts(
+    public AlertPage getAlerts(
             @RequestParam(required = false) AlertType type,
+            @RequestParam(required = false) Severity severity,
+            @RequestParam(required = false) String vehicleId,
+            @RequestParam(required = false) Long before,
             @RequestParam(defaultValue = "100") int limit) {
-        if (type != null) {
-            return alertService.getByType(type, limit);
-        }
-        return alertService.getRecent(limit);
+        return alertService.getPage(vehicleId, type, severity, before, limit);
     }
 
     @GetMapping("/{vehicleId}")
-    public List<Alert> getAlertsByVehicle(@PathVariable String vehicleId) {
-        return alertService.getByVehicleId(vehicleId);
+    public AlertPage getAlertsByVehicle(
+            @PathVariable String vehicleId,
+            @RequestParam(required = false) AlertType type,
+            @RequestParam(required = false) Severity severity,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "100") int limit) {
+        return alertService.getPage(vehicleId, type, severity, before, limit);
+    }
+
+    @GetMapping("/counts")
+    public AlertCounts getCounts(@RequestParam(defaultValue = "PT1H") Duration window) {
+        return alertService.getCounts(window);
     }
 
     @MessageMapping("/toggleAlerts")
-    public void toggleAlerts(@Payload Map<String, Boolean> payload) {
+    public void toggleAlerts(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId,
+                             @Payload Map<String, Boolean> payload) {
         Boolean enabled = payload.get("enabled");
         if (enabled != null) {
-            broadcaster.setAlertsEnabled(enabled);
+            alertFanout.setEnabled(sessionId, enabled);
         }
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
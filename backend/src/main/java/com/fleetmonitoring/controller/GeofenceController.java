@@ -0,0 +1,55 @@
+package com.fleetmonitoring.controller;
+
+import com.fleetmonitoring.model.Geofence;
+import com.fleetmonitoring.service.GeofenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/geofences")
+@RequiredArgsConstructor
+public class GeofenceController {
+
+    private final GeofenceService geofenceService;
+
+    @GetMapping
+    public List<Geofence> getGeofences() {
+        return geofenceService.findAll();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Geofence> getGeofence(@PathVariable long id) {
+        return geofenceService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<Geofence> createGeofence(@RequestBody Geofence geofence) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(geofenceService.create(geofence));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Geofence> updateGeofence(@PathVariable long id, @RequestBody Geofence geofence) {
+        return geofenceService.update(id, geofence)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteGeofence(@PathVariable long id) {
+        return geofenceService.delete(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadGeofence(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
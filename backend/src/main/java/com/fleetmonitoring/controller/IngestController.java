@@ -0,0 +1,161 @@
+package com.fleetmonitoring.controller;
+
+import com.fleetmonitoring.ingest.TelemetryFrameCodec;
+import com.fleetmonitoring.ingest.TelemetryIngest;
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.model.TelemetryReading;
+import com.fleetmonitoring.state.FleetStateStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/ingest")
+@RequiredArgsConstructor
+public class IngestController {
+
+    private final TelemetryIngest ingest;
+    private final FleetStateStore fleetStateStore;
+
+    // Alert windows, cooldowns and per-minute counts run on the reading's own time, so readings
+    // too far from the server clock are refused rather than trusted.
+    @Value("${fleet.ingest.max-past-skew:P1D}")
+    private Duration maxPastSkew;
+
+    @Value("${fleet.ingest.max-future-skew:PT5M}")
+    private Duration maxFutureSkew;
+
+    @Value("${fleet.ingest.max-speed:400}")
+    private double maxSpeed;
+
+    // Every new vehicleId takes a slot in the fleet state store for good.
+    @Value("${fleet.ingest.max-vehicles:200000}")
+    private int maxVehicles;
+
+    @PostMapping(value = "/telemetry", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> ingestReading(@RequestBody TelemetryReading reading) {
+        Instant receivedAt = Instant.now();
+        Telemetry telemetry = toTelemetry(reading, 0, receivedAt);
+        normalize(telemetry, receivedAt, new HashSet<>());
+        return respond(ingest.publish(telemetry, TelemetryIngest.SOURCE_HTTP), 1);
+    }
+
+    @PostMapping(value = "/telemetry/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> ingestBatch(@RequestBody List<TelemetryReading> body) {
+        Instant receivedAt = Instant.now();
+        List<Telemetry> readings = new ArrayList<>(body.size());
+        for (int i = 0; i < body.size(); i++) {
+            readings.add(toTelemetry(body.get(i), i, receivedAt));
+        }
+        normalizeAll(readings, receivedAt);
+        return respond(ingest.publishAll(readings, TelemetryIngest.SOURCE_HTTP), readings.size());
+    }
+
+    @PostMapping(value = "/telemetry/batch", consumes = TelemetryFrameCodec.CONTENT_TYPE)
+    public ResponseEntity<Map<String, Object>> ingestFrame(@RequestBody byte[] frame) {
+        Instant receivedAt = Instant.now();
+        List<Telemetry> readings = TelemetryFrameCodec.decode(frame, receivedAt);
+        normalizeAll(readings, receivedAt);
+        return respond(ingest.publishAll(readings, TelemetryIngest.SOURCE_HTTP), readings.size());
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return Map.of("queueDepth", ingest.queueDepth(), "capacity", ingest.capacity());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadReading(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private static Telemetry toTelemetry(TelemetryReading reading, int index, Instant receivedAt) {
+        if (reading == null) {
+            throw new IllegalArgumentException("reading " + index + " is null");
+        }
+        if (reading.latitude() == null || reading.longitude() == null || reading.speed() == null
+                || reading.fuelLevel() == null || reading.engineTemp() == null) {
+            throw new IllegalArgumentException("reading " + index
+                    + " needs latitude, longitude, speed, fuelLevel and engineTemp");
+        }
+        return Telemetry.builder()
+                .vehicleId(reading.vehicleId())
+                .latitude(reading.latitude())
+                .longitude(reading.longitude())
+                .speed(reading.speed())
+                .fuelLevel(reading.fuelLevel())
+                .engineTemp(reading.engineTemp())
+                .timestamp(reading.timestamp() != null ? reading.timestamp() : receivedAt)
+                .build();
+    }
+
+    private void normalizeAll(List<Telemetry> readings, Instant receivedAt) {
+        Set<String> newVehicles = new HashSet<>();
+        for (Telemetry reading : readings) {
+            normalize(reading, receivedAt, newVehicles);
+        }
+    }
+
+    // newVehicles collects the unknown ids of the whole request, so one batch cannot slip many
+    // new vehicles past the limit together.
+    private void normalize(Telemetry reading, Instant receivedAt, Set<String> newVehicles) {
+        if (reading.getVehicleId() == null || reading.getVehicleId().isBlank()) {
+            throw new IllegalArgumentException("vehicleId is required");
+        }
+        if (reading.getVehicleId().getBytes(StandardCharsets.UTF_8).length > Telemetry.MAX_VEHICLE_ID_BYTES) {
+            throw new IllegalArgumentException("vehicleId is longer than " + Telemetry.MAX_VEHICLE_ID_BYTES + " bytes");
+        }
+        if (!(reading.getLatitude() >= -90 && reading.getLatitude() <= 90
+                && reading.getLongitude() >= -180 && reading.getLongitude() <= 180)) {
+            throw new IllegalArgumentException("position out of range for " + reading.getVehicleId() + ": "
+                    + reading.getLatitude() + ", " + reading.getLongitude());
+        }
+        if (!(reading.getSpeed() >= 0 && reading.getSpeed() <= maxSpeed)) {
+            throw new IllegalArgumentException("speed for " + reading.getVehicleId() + " must be between 0 and "
+                    + maxSpeed + ": " + reading.getSpeed());
+        }
+        if (!(reading.getFuelLevel() >= 0 && reading.getFuelLevel() <= 100)) {
+            throw new IllegalArgumentException("fuelLevel for " + reading.getVehicleId()
+                    + " must be between 0 and 100: " + reading.getFuelLevel());
+        }
+        if (!Double.isFinite(reading.getEngineTemp())) {
+            throw new IllegalArgumentException("engineTemp for " + reading.getVehicleId() + " must be a number");
+        }
+        if (fleetStateStore.ordinalOf(reading.getVehicleId()) < 0 && newVehicles.add(reading.getVehicleId())
+                && fleetStateStore.size() + newVehicles.size() > maxVehicles) {
+            throw new IllegalArgumentException("fleet is at its limit of " + maxVehicles + " vehicles; "
+                    + reading.getVehicleId() + " is not registered");
+        }
+        reading.setId(null);
+        if (reading.getTimestamp() == null) {
+            reading.setTimestamp(receivedAt);
+        } else if (reading.getTimestamp().isBefore(receivedAt.minus(maxPastSkew))
+                || reading.getTimestamp().isAfter(receivedAt.plus(maxFutureSkew))) {
+            throw new IllegalArgumentException("timestamp " + reading.getTimestamp() + " for " + reading.getVehicleId()
+                    + " is outside the accepted window of " + maxPastSkew + " past and " + maxFutureSkew + " future");
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> respond(boolean accepted, int count) {
+        if (!accepted) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("accepted", 0, "queueDepth", ingest.queueDepth(), "capacity", ingest.capacity()));
+        }
+        return ResponseEntity.accepted()
+                .body(Map.of("accepted", count, "queueDepth", ingest.queueDepth()));
+    }
+}
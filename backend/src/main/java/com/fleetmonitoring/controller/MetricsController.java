@@ -0,0 +1,21 @@
+package com.fleetmonitoring.controller;
+
+import com.fleetmonitoring.metrics.FleetMetricsTracker;
+import com.fleetmonitoring.model.FleetMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final FleetMetricsTracker fleetMetrics;
+
+    @GetMapping("/fleet")
+    public FleetMetrics getFleetMetrics() {
+        return fleetMetrics.current();
+    }
+}
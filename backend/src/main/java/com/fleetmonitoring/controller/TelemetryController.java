@@ -1,29 +1,104 @@
 package com.fleetmonitoring.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fleetmonitoring.model.RollupResolution;
 import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.model.TelemetryCursor;
+import com.fleetmonitoring.model.Track;
 import com.fleetmonitoring.service.TelemetryService;
+import com.fleetmonitoring.service.TrackService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/telemetry")
 @RequiredArgsConstructor
 public class TelemetryController {
 
+    public static final String NDJSON = "application/x-ndjson";
+
+    // Rows are buffered by the generator and flushed in groups, so a long stream is not one socket
+    // write per row.
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
     private final TelemetryService telemetryService;
+    private final TrackService trackService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{vehicleId}")
-    public List<Telemetry> getTelemetry(
+    public List<?> getTelemetry(
             @PathVariable String vehicleId,
             @RequestParam(required = false) Instant from,
             @RequestParam(required = false) Instant to,
             @RequestParam(defaultValue = "100") int limit) {
         if (from != null && to != null) {
+            RollupResolution resolution = telemetryService.resolutionFor(from, to);
+            if (resolution != null) {
+                return telemetryService.getRollupsBetween(resolution, vehicleId, from, to);
+            }
             return telemetryService.getHistoryBetween(vehicleId, from, to);
         }
         return telemetryService.getHistory(vehicleId, limit);
     }
+
+    // History as NDJSON in ascending (timestamp, id) order, written row by row as the cursor advances
+    // and filled forward over readings the dead-band skipped. Filled rows have no id; to page, pass
+    // the timestamp and id of the last row received that has one as after=<timestamp>,<id>.
+    @GetMapping(value = "/{vehicleId}/stream", produces = NDJSON)
+    public void streamTelemetry(
+            @PathVariable String vehicleId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "0") int limit,
+            HttpServletResponse response) throws IOException {
+        TelemetryCursor cursor = after != null ? TelemetryCursor.parse(after) : null;
+        response.setContentType(NDJSON);
+
+        ObjectWriter writer = objectMapper.writerFor(Telemetry.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            int[] unflushed = {0};
+            telemetryService.streamHistory(vehicleId, from, to, cursor, limit, row -> {
+                try {
+                    writer.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                    if (++unflushed[0] == FLUSH_EVERY_ROWS) {
+                        generator.flush();
+                        unflushed[0] = 0;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // Simplified path for drawing or export; pass the map zoom to size the tolerance to one pixel.
+    @GetMapping("/{vehicleId}/track")
+    public Track getTrack(
+            @PathVariable String vehicleId,
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(required = false) Integer zoom,
+            @RequestParam(required = false) Double toleranceMeters) {
+        return trackService.getTrack(vehicleId, from, to, zoom, toleranceMeters);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadCursor(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
@@ -1,5 +1,6 @@
 package com.fleetmonitoring.controller;
 
+import com.fleetmonitoring.model.NearbyVehicle;
 import com.fleetmonitoring.model.Vehicle;
 import com.fleetmonitoring.service.VehicleService;
 import lombok.RequiredArgsConstructor;
@@ -7,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/vehicles")
@@ -17,13 +19,33 @@ public class VehicleController {
 
     @GetMapping
     public List<Vehicle> getAllVehicles() {
-        return vehicleService.findAll();
+        return vehicleService.getLiveVehicles();
+    }
+
+    @GetMapping("/nearest")
+    public List<NearbyVehicle> getNearestVehicles(@RequestParam double lat,
+                                                  @RequestParam double lng,
+                                                  @RequestParam(defaultValue = "10") int k) {
+        return vehicleService.findNearest(lat, lng, k);
+    }
+
+    @GetMapping("/within")
+    public List<NearbyVehicle> getVehiclesWithin(@RequestParam double lat,
+                                                 @RequestParam double lng,
+                                                 @RequestParam double radiusKm,
+                                                 @RequestParam(defaultValue = "1000") int limit) {
+        return vehicleService.findWithin(lat, lng, radiusKm, limit);
     }
 
     @GetMapping("/{vehicleId}")
     public ResponseEntity<Vehicle> getVehicle(@PathVariable String vehicleId) {
-        return vehicleService.findByVehicleId(vehicleId)
+        return vehicleService.findLiveVehicle(vehicleId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadQuery(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
@@ -0,0 +1,61 @@
+package com.fleetmonitoring.controller;
+
+import com.fleetmonitoring.websocket.CompactVehicleStream;
+import com.fleetmonitoring.websocket.TrackReplayRequest;
+import com.fleetmonitoring.websocket.TrackReplayer;
+import com.fleetmonitoring.websocket.Viewport;
+import com.fleetmonitoring.websocket.ViewportBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+@Controller
+@RequiredArgsConstructor
+public class VehicleStreamController {
+
+    private final CompactVehicleStream compactVehicleStream;
+    private final ViewportBroadcaster viewportBroadcaster;
+    private final TrackReplayer trackReplayer;
+
+    @SubscribeMapping("/vehicles.dictionary")
+    public CompactVehicleStream.Keyframe getDictionary() {
+        return compactVehicleStream.keyframe();
+    }
+
+    @MessageMapping("/viewport")
+    public void setViewport(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId,
+                            @Payload Viewport viewport) {
+        viewportBroadcaster.register(sessionId, viewport);
+    }
+
+    @MessageMapping("/viewport.clear")
+    public void clearViewport(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        viewportBroadcaster.unregister(sessionId);
+    }
+
+    @MessageMapping("/track.replay")
+    public void replayTrack(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId,
+                            @Payload TrackReplayRequest request) {
+        trackReplayer.start(sessionId, request);
+    }
+
+    @MessageMapping("/track.replay.stop")
+    public void stopReplay(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        trackReplayer.stop(sessionId);
+    }
+
+    // Sessions have no principal, so the reply goes to the sending session.
+    @MessageExceptionHandler(IllegalArgumentException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, Object> handleBadRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
@@ -0,0 +1,98 @@
+package com.fleetmonitoring.geofence;
+
+import com.fleetmonitoring.model.GeoPoint;
+import com.fleetmonitoring.model.Geofence;
+import com.fleetmonitoring.model.GeofenceCategory;
+import com.fleetmonitoring.model.GeofenceShape;
+
+import java.util.List;
+
+// Geofence geometry reduced to primitives for the per-reading containment test. Circles use an
+// equirectangular distance, which is well within GPS error at geofence scales; polygons are
+// tested by ray casting in lat/lng space.
+final class CompiledFence {
+
+    private static final double METERS_PER_DEG_LAT = 111_320.0;
+
+    final long id;
+    final String name;
+    final GeofenceCategory category;
+    final long dwellLimitMillis;
+    final double minLat;
+    final double minLng;
+    final double maxLat;
+    final double maxLng;
+
+    private final boolean circle;
+    private final double centerLat;
+    private final double centerLng;
+    private final double metersPerDegLng;
+    private final double radiusSquared;
+    private final double[] lats;
+    private final double[] lngs;
+
+    private CompiledFence(Geofence fence, boolean circle, double centerLat, double centerLng, double radiusMeters,
+                          double[] lats, double[] lngs, double minLat, double minLng, double maxLat, double maxLng) {
+        this.id = fence.getId();
+        this.name = fence.getName();
+        this.category = fence.getCategory();
+        Integer dwell = fence.getDwellLimitSeconds();
+        this.dwellLimitMillis = dwell == null ? 0 : dwell * 1000L;
+        this.circle = circle;
+        this.centerLat = centerLat;
+        this.centerLng = centerLng;
+        this.metersPerDegLng = METERS_PER_DEG_LAT * Math.cos(Math.toRadians(centerLat));
+        this.radiusSquared = radiusMeters * radiusMeters;
+        this.lats = lats;
+        this.lngs = lngs;
+        this.minLat = minLat;
+        this.minLng = minLng;
+        this.maxLat = maxLat;
+        this.maxLng = maxLng;
+    }
+
+    static CompiledFence compile(Geofence fence) {
+        if (fence.getShape() == GeofenceShape.CIRCLE) {
+            double lat = fence.getCenterLatitude();
+            double lng = fence.getCenterLongitude();
+            double radius = fence.getRadiusMeters();
+            double dLat = radius / METERS_PER_DEG_LAT;
+            double dLng = radius / (METERS_PER_DEG_LAT * Math.cos(Math.toRadians(lat)));
+            return new CompiledFence(fence, true, lat, lng, radius, null, null,
+                    lat - dLat, lng - dLng, lat + dLat, lng + dLng);
+        }
+        List<GeoPoint> vertices = fence.getVertices();
+        double[] lats = new double[vertices.size()];
+        double[] lngs = new double[vertices.size()];
+        double minLat = Double.POSITIVE_INFINITY, minLng = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = vertices.get(i).latitude();
+            lngs[i] = vertices.get(i).longitude();
+            minLat = Math.min(minLat, lats[i]);
+            maxLat = Math.max(maxLat, lats[i]);
+            minLng = Math.min(minLng, lngs[i]);
+            maxLng = Math.max(maxLng, lngs[i]);
+        }
+        return new CompiledFence(fence, false, 0, 0, 0, lats, lngs, minLat, minLng, maxLat, maxLng);
+    }
+
+    boolean contains(double lat, double lng) {
+        if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) {
+            return false;
+        }
+        if (circle) {
+            double dy = (lat - centerLat) * METERS_PER_DEG_LAT;
+            double dx = (lng - centerLng) * metersPerDegLng;
+            return dx * dx + dy * dy <= radiusSquared;
+        }
+        boolean inside = false;
+        for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+            if ((lats[i] > lat) != (lats[j] > lat)
+                    && lng < (lngs[j] - lngs[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lngs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
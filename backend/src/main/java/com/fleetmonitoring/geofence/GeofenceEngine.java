@@ -0,0 +1,186 @@
+package com.fleetmonitoring.geofence;
+
+import com.fleetmonitoring.model.*;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tracks which geofences each vehicle is inside and turns changes into GEOFENCE_ENTER,
+ * GEOFENCE_EXIT and GEOFENCE_DWELL alerts. A reading is only tested against the candidate fences
+ * of its grid cell plus the fences the vehicle was already inside, so vehicles away from every
+ * fence cost one hash lookup.
+ * <p>
+ * {@link #evaluate} is driven by the single telemetry pipeline consumer and owns the containment
+ * state. {@link #reload} may be called from any thread: it compiles a new index and swaps it in,
+ * and the next evaluation picks it up. The first reading seen for a vehicle only seeds its state,
+ * so a restart does not report every parked vehicle as entering its depot.
+ */
+@Component
+@Slf4j
+public class GeofenceEngine implements MeterBinder {
+
+    private static final int ENTER = 0;
+    private static final int EXIT = 1;
+    private static final int DWELL = 2;
+
+    private final double cellSizeDeg;
+    private final int maxCells;
+
+    private volatile GeofenceIndex index = GeofenceIndex.EMPTY;
+
+    private Visits[] visits = new Visits[0];
+    private boolean[] seen = new boolean[0];
+    private final long[] events = new long[3];
+
+    public GeofenceEngine(@Value("${fleet.geofences.cell-size-deg:0.0025}") double cellSizeDeg,
+                          @Value("${fleet.geofences.max-cells:1000000}") int maxCells) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.maxCells = maxCells;
+    }
+
+    public void reload(List<Geofence> fences) {
+        GeofenceIndex next = new GeofenceIndex(fences.stream().map(CompiledFence::compile).toList(),
+                cellSizeDeg, maxCells);
+        index = next;
+        log.info("Indexed {} geofences in {} cells of {} deg", next.size(), next.occupiedCells(), next.cellSizeDeg());
+    }
+
+    public void evaluate(int ordinal, String vehicleId, double lat, double lng, long nowMillis, Consumer<Alert> sink) {
+        GeofenceIndex current = index;
+        CompiledFence[] candidates = current.candidates(lat, lng);
+        if (ordinal >= seen.length) {
+            grow(ordinal + 1);
+        }
+        Visits vehicle = visits[ordinal];
+        if (candidates.length == 0 && vehicle == null) {
+            seen[ordinal] = true;
+            return;
+        }
+        boolean report = seen[ordinal];
+        seen[ordinal] = true;
+
+        if (vehicle != null) {
+            // Swap-remove keeps the arrays packed, so walk backwards.
+            for (int i = vehicle.size - 1; i >= 0; i--) {
+                CompiledFence fence = current.byId(vehicle.fenceIds[i]);
+                if (fence == null) {
+                    vehicle.remove(i);
+                } else if (!fence.contains(lat, lng)) {
+                    vehicle.remove(i);
+                    emit(sink, EXIT, fence, vehicleId, nowMillis, "%s left %s");
+                } else if (!vehicle.dwellReported[i] && fence.dwellLimitMillis > 0
+                        && nowMillis - vehicle.enteredMillis[i] >= fence.dwellLimitMillis) {
+                    vehicle.dwellReported[i] = true;
+                    emit(sink, DWELL, fence, vehicleId, nowMillis, "%s has been inside %s for over "
+                            + describe(fence.dwellLimitMillis));
+                }
+            }
+        }
+        for (CompiledFence fence : candidates) {
+            if ((vehicle == null || !vehicle.contains(fence.id)) && fence.contains(lat, lng)) {
+                if (vehicle == null) {
+                    vehicle = visits[ordinal] = new Visits();
+                }
+                vehicle.add(fence.id, nowMillis);
+                if (report) {
+                    emit(sink, ENTER, fence, vehicleId, nowMillis, "%s entered %s");
+                }
+            }
+        }
+        if (vehicle != null && vehicle.size == 0) {
+            visits[ordinal] = null;
+        }
+    }
+
+    private void emit(Consumer<Alert> sink, int event, CompiledFence fence, String vehicleId, long nowMillis,
+                      String template) {
+        events[event]++;
+        AlertType type = switch (event) {
+            case ENTER -> AlertType.GEOFENCE_ENTER;
+            case EXIT -> AlertType.GEOFENCE_EXIT;
+            default -> AlertType.GEOFENCE_DWELL;
+        };
+        boolean critical = fence.category == GeofenceCategory.RESTRICTED_ZONE && event != EXIT;
+        sink.accept(Alert.builder()
+                .vehicleId(vehicleId)
+                .alertType(type)
+                .severity(critical ? Severity.CRITICAL : Severity.WARNING)
+                .message(String.format(template, vehicleId, fence.name))
+                .timestamp(Instant.ofEpochMilli(nowMillis))
+                .build());
+    }
+
+    private static String describe(long millis) {
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(millis);
+        return seconds < 120 ? seconds + " s" : TimeUnit.SECONDS.toMinutes(seconds) + " min";
+    }
+
+    public int getGeofenceCount() {
+        return index.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        String[] names = {"enter", "exit", "dwell"};
+        for (int i = 0; i < names.length; i++) {
+            int event = i;
+            FunctionCounter.builder("fleet.geofences.events", events, counts -> counts[event])
+                    .tag("event", names[i])
+                    .register(registry);
+        }
+        Gauge.builder("fleet.geofences.count", this, GeofenceEngine::getGeofenceCount).register(registry);
+    }
+
+    private void grow(int minLength) {
+        int length = Math.max(minLength, Math.max(1024, seen.length * 2));
+        visits = Arrays.copyOf(visits, length);
+        seen = Arrays.copyOf(seen, length);
+    }
+
+    // Fences one vehicle is currently inside; almost always zero or one entries.
+    private static final class Visits {
+        long[] fenceIds = new long[2];
+        long[] enteredMillis = new long[2];
+        boolean[] dwellReported = new boolean[2];
+        int size;
+
+        boolean contains(long fenceId) {
+            for (int i = 0; i < size; i++) {
+                if (fenceIds[i] == fenceId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long fenceId, long nowMillis) {
+            if (size == fenceIds.length) {
+                fenceIds = Arrays.copyOf(fenceIds, size * 2);
+                enteredMillis = Arrays.copyOf(enteredMillis, size * 2);
+                dwellReported = Arrays.copyOf(dwellReported, size * 2);
+            }
+            fenceIds[size] = fenceId;
+            enteredMillis[size] = nowMillis;
+            dwellReported[size] = false;
+            size++;
+        }
+
+        void remove(int i) {
+            size--;
+            fenceIds[i] = fenceIds[size];
+            enteredMillis[i] = enteredMillis[size];
+            dwellReported[i] = dwellReported[size];
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.fleetmonitoring.geofence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable sparse lat/lng grid over fences, keyed like the vehicle {@code GridIndex}: only cells
+ * that some fence's bounds overlap are stored, each listing those fences, so a position is only
+ * tested against its cell's candidates and fences far apart cost nothing for the space between
+ * them. The cell size is doubled only if the fences' own footprints add up to more than
+ * {@code maxCells} cell entries. Rebuilt whole on every geofence change.
+ */
+final class GeofenceIndex {
+
+    static final GeofenceIndex EMPTY = new GeofenceIndex(List.of(), 1, 1);
+    private static final CompiledFence[] NONE = new CompiledFence[0];
+
+    private final Map<Long, CompiledFence> byId = new HashMap<>();
+    private final Map<Long, CompiledFence[]> cells = new HashMap<>();
+    private final double cellSizeDeg;
+
+    GeofenceIndex(List<CompiledFence> fences, double cellSizeDeg, int maxCells) {
+        while (footprint(fences, cellSizeDeg) > maxCells) {
+            cellSizeDeg *= 2;
+        }
+        this.cellSizeDeg = cellSizeDeg;
+
+        Map<Long, List<CompiledFence>> building = new HashMap<>();
+        for (CompiledFence fence : fences) {
+            byId.put(fence.id, fence);
+            int maxRow = row(fence.maxLat);
+            int maxCol = col(fence.maxLng);
+            for (int row = row(fence.minLat); row <= maxRow; row++) {
+                for (int col = col(fence.minLng); col <= maxCol; col++) {
+                    building.computeIfAbsent(key(row, col), k -> new ArrayList<>(2)).add(fence);
+                }
+            }
+        }
+        building.forEach((key, cell) -> cells.put(key, cell.toArray(NONE)));
+    }
+
+    CompiledFence[] candidates(double lat, double lng) {
+        if (cells.isEmpty()) {
+            return NONE;
+        }
+        return cells.getOrDefault(key(row(lat), col(lng)), NONE);
+    }
+
+    CompiledFence byId(long id) {
+        return byId.get(id);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    int occupiedCells() {
+        return cells.size();
+    }
+
+    double cellSizeDeg() {
+        return cellSizeDeg;
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat + 90) / cellSizeDeg);
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor((lng + 180) / cellSizeDeg);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /** Cell entries the fences would take at this cell size, counting each fence's bounds alone. */
+    private static long footprint(List<CompiledFence> fences, double cellSizeDeg) {
+        long total = 0;
+        for (CompiledFence fence : fences) {
+            long rows = (long) Math.floor((fence.maxLat + 90) / cellSizeDeg)
+                    - (long) Math.floor((fence.minLat + 90) / cellSizeDeg) + 1;
+            long cols = (long) Math.floor((fence.maxLng + 180) / cellSizeDeg)
+                    - (long) Math.floor((fence.minLng + 180) / cellSizeDeg) + 1;
+            total += rows * cols;
+        }
+        return total;
+    }
+}
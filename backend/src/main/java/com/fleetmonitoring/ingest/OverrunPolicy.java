@@ -0,0 +1,8 @@
+package com.fleetmonitoring.ingest;
+
+// What a pipeline stage does with a new tick while its handoff queue is still full.
+public enum OverrunPolicy {
+    BLOCK,
+    SKIP,
+    COALESCE
+}
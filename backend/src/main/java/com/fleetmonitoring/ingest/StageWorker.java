@@ -0,0 +1,169 @@
+package com.fleetmonitoring.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * One pipeline stage on its own thread behind a bounded handoff queue. Items are handled strictly
+ * in submission order by a single thread, which is what keeps every vehicle's readings in order
+ * from stage to stage. When the queue is full the {@link OverrunPolicy} decides: BLOCK waits up to
+ * {@code blockTimeoutNanos} for space and then drops the new item, SKIP drops it at once, and
+ * COALESCE merges it into the newest pending item. A merged item
+ * is capped at {@code maxCoalescedSize} as measured by {@code sizer}; past that COALESCE falls back
+ * to SKIP, so a stage that keeps lagging is bounded in memory and not just in item count.
+ */
+@Slf4j
+final class StageWorker<T> {
+
+    private final String name;
+    private final int capacity;
+    private final OverrunPolicy policy;
+    private final BinaryOperator<T> coalescer;
+    private final ToIntFunction<T> sizer;
+    private final int maxCoalescedSize;
+    private final long blockTimeoutNanos;
+    private final Consumer<T> handler;
+
+    private final ArrayDeque<T> pending;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread thread;
+    private final Counter skipped;
+    private final Counter coalesced;
+    private final Counter overflowed;
+    private volatile boolean running = true;
+
+    StageWorker(String name, int capacity, OverrunPolicy policy, BinaryOperator<T> coalescer,
+                ToIntFunction<T> sizer, int maxCoalescedSize, long blockTimeoutNanos, Consumer<T> handler,
+                MeterRegistry meterRegistry) {
+        this.name = name;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.coalescer = coalescer;
+        this.sizer = sizer;
+        this.maxCoalescedSize = maxCoalescedSize;
+        this.blockTimeoutNanos = blockTimeoutNanos;
+        this.handler = handler;
+        this.pending = new ArrayDeque<>(capacity);
+        this.skipped = Counter.builder("fleet.pipeline.handoff.skipped").tag("stage", name)
+                .description("Batches dropped because the stage was still busy, or stayed busy past the block timeout")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("fleet.pipeline.handoff.coalesced").tag("stage", name)
+                .description("Batches merged into a pending batch because the stage was still busy")
+                .register(meterRegistry);
+        this.overflowed = Counter.builder("fleet.pipeline.handoff.coalesce.overflow").tag("stage", name)
+                .description("Batches dropped because merging them would exceed the coalesced size limit")
+                .register(meterRegistry);
+        Gauge.builder("fleet.pipeline.handoff.depth", this, StageWorker::depth).tag("stage", name)
+                .register(meterRegistry);
+        this.thread = new Thread(this::run, "pipeline-" + name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void submit(T item) {
+        long waitNanos = blockTimeoutNanos;
+        lock.lock();
+        try {
+            while (pending.size() >= capacity && running) {
+                switch (policy) {
+                    case SKIP -> {
+                        skipped.increment();
+                        return;
+                    }
+                    case COALESCE -> {
+                        T newest = pending.peekLast();
+                        if ((long) sizer.applyAsInt(newest) + sizer.applyAsInt(item) > maxCoalescedSize) {
+                            overflowed.increment();
+                            return;
+                        }
+                        pending.addLast(coalescer.apply(pending.pollLast(), item));
+                        coalesced.increment();
+                        return;
+                    }
+                    case BLOCK -> {
+                        if (waitNanos <= 0) {
+                            skipped.increment();
+                            return;
+                        }
+                        try {
+                            waitNanos = notFull.awaitNanos(waitNanos);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            skipped.increment();
+                            return;
+                        }
+                    }
+                }
+            }
+            pending.addLast(item);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            T item;
+            lock.lock();
+            try {
+                while (pending.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                item = pending.pollFirst();
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                handler.accept(item);
+            } catch (RuntimeException e) {
+                log.error("Pipeline stage {} failed on a batch", name, e);
+            }
+        }
+    }
+
+    // Items skipped or lost to the coalesced size limit since startup.
+    long dropped() {
+        return (long) (skipped.count() + overflowed.count());
+    }
+
+    int depth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stops accepting waits and lets the thread drain whatever is already queued.
+    void shutdown(long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        thread.join(timeoutMs);
+        if (thread.isAlive()) {
+            log.warn("Pipeline stage {} did not drain within {}ms, {} batches left", name, timeoutMs, depth());
+        }
+    }
+}
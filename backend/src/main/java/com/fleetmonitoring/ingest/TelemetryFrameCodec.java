@@ -0,0 +1,74 @@
+package com.fleetmonitoring.ingest;
+
+import com.fleetmonitoring.model.Telemetry;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact big-endian device frame:
+ * <pre>
+ * int32   record count
+ * repeated:
+ *   uint8   vehicleId length (at most 32), followed by that many UTF-8 bytes
+ *   float64 latitude, longitude, speed, fuelLevel, engineTemp
+ *   int64   timestamp (epoch millis, 0 = server receive time)
+ * </pre>
+ */
+public final class TelemetryFrameCodec {
+
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    private static final int FIXED_RECORD_BYTES = 1 + 5 * Double.BYTES + Long.BYTES;
+
+    private TelemetryFrameCodec() {
+    }
+
+    public static List<Telemetry> decode(byte[] frame, Instant receivedAt) {
+        ByteBuffer buf = ByteBuffer.wrap(frame);
+        try {
+            int count = buf.getInt();
+            if (count < 0 || (long) count * FIXED_RECORD_BYTES > buf.remaining()) {
+                throw new IllegalArgumentException("Frame declares " + count + " records but is " + frame.length + " bytes");
+            }
+            List<Telemetry> readings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int idLength = buf.get() & 0xFF;
+                if (idLength == 0) {
+                    throw new IllegalArgumentException("Record " + i + " has an empty vehicleId");
+                }
+                if (idLength > Telemetry.MAX_VEHICLE_ID_BYTES) {
+                    throw new IllegalArgumentException("Record " + i + " has a vehicleId longer than "
+                            + Telemetry.MAX_VEHICLE_ID_BYTES + " bytes");
+                }
+                String vehicleId = new String(frame, buf.position(), idLength, StandardCharsets.UTF_8);
+                buf.position(buf.position() + idLength);
+                double lat = buf.getDouble();
+                double lng = buf.getDouble();
+                double speed = buf.getDouble();
+                double fuel = buf.getDouble();
+                double temp = buf.getDouble();
+                long millis = buf.getLong();
+                readings.add(Telemetry.builder()
+                        .vehicleId(vehicleId)
+                        .latitude(lat)
+                        .longitude(lng)
+                        .speed(speed)
+                        .fuelLevel(fuel)
+                        .engineTemp(temp)
+                        .timestamp(millis == 0 ? receivedAt : Instant.ofEpochMilli(millis))
+                        .build());
+            }
+            if (buf.hasRemaining()) {
+                throw new IllegalArgumentException("Frame has " + buf.remaining() + " trailing bytes");
+            }
+            return readings;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated telemetry frame", e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fleetmonitoring.ingest;
+
+import com.fleetmonitoring.model.Telemetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+@RequiredArgsConstructor
+public class TelemetryIngest {
+
+    public static final String SOURCE_SIMULATOR = "simulator";
+    public static final String SOURCE_HTTP = "http";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fleet.ingest.buffer-capacity:262144}")
+    private int bufferCapacity;
+
+    private TelemetryRingBuffer buffer;
+    private volatile Thread consumer;
+    private Map<String, Counter> accepted;
+    private Map<String, Counter> rejected;
+
+    @PostConstruct
+    public void init() {
+        buffer = new TelemetryRingBuffer(bufferCapacity);
+        Gauge.builder("fleet.ingest.queue.depth", buffer, TelemetryRingBuffer::size)
+                .description("Telemetry readings waiting for the pipeline consumer")
+                .register(meterRegistry);
+        Gauge.builder("fleet.ingest.queue.capacity", buffer, TelemetryRingBuffer::capacity)
+                .register(meterRegistry);
+        // Registered once here: a registry lookup per publish would sit on the ingest hot path.
+        accepted = Map.of(SOURCE_SIMULATOR, counter("fleet.ingest.accepted", SOURCE_SIMULATOR),
+                SOURCE_HTTP, counter("fleet.ingest.accepted", SOURCE_HTTP));
+        rejected = Map.of(SOURCE_SIMULATOR, counter("fleet.ingest.rejected", SOURCE_SIMULATOR),
+                SOURCE_HTTP, counter("fleet.ingest.rejected", SOURCE_HTTP));
+    }
+
+    private Counter counter(String name, String source) {
+        return Counter.builder(name).tag("source", source).register(meterRegistry);
+    }
+
+    public boolean publish(Telemetry telemetry, String source) {
+        boolean accepted = buffer.tryPublish(telemetry);
+        record(source, accepted, 1);
+        return accepted;
+    }
+
+    public boolean publishAll(List<Telemetry> batch, String source) {
+        boolean accepted = buffer.tryPublishAll(batch);
+        record(source, accepted, batch.size());
+        return accepted;
+    }
+
+    public int queueDepth() {
+        return buffer.size();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    TelemetryRingBuffer buffer() {
+        return buffer;
+    }
+
+    void attachConsumer(Thread thread) {
+        consumer = thread;
+    }
+
+    private void record(String source, boolean accepted, int count) {
+        (accepted ? this.accepted : rejected).get(source).increment(count);
+        Thread waiting = consumer;
+        if (accepted && waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.fleetmonitoring.ingest;
+
+import com.fleetmonitoring.alert.AlertEngine;
+import com.fleetmonitoring.geofence.GeofenceEngine;
+import com.fleetmonitoring.metrics.FleetMetricsTracker;
+import com.fleetmonitoring.metrics.TickMetrics;
+import com.fleetmonitoring.metrics.TickMetrics.Stage;
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.FleetMetrics;
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.persistence.AlertWriteBehind;
+import com.fleetmonitoring.persistence.TelemetryDeadband;
+import com.fleetmonitoring.persistence.TelemetryJournal;
+import com.fleetmonitoring.persistence.TelemetryWriteBehind;
+import com.fleetmonitoring.service.VehicleService;
+import com.fleetmonitoring.spatial.LiveVehicleIndex;
+import com.fleetmonitoring.state.FleetSnapshot;
+import com.fleetmonitoring.state.FleetStateStore;
+import com.fleetmonitoring.state.RecentAlertIndex;
+import com.fleetmonitoring.state.RecentTelemetryCache;
+import com.fleetmonitoring.websocket.CompactVehicleStream;
+import com.fleetmonitoring.websocket.ViewportBroadcaster;
+import com.fleetmonitoring.websocket.WebSocketBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Single consumer of the ingest ring buffer: every reading, simulated or device-sourced,
+// goes through the same fleet state and alerting path in arrival order. Persistence and broadcast
+// run on their own stage threads behind bounded handoffs, so a slow flush or a slow fan-out
+// overlaps with the next batch instead of delaying it. Alert rules, the costliest per-reading pass,
+// are sharded by vehicle ordinal across a small pool, so every vehicle's readings stay in order on
+// one thread while the shards run in parallel. The snapshot, fleet metrics and the stage handoff are
+// whole-fleet work, so they run at most once per publish interval: batches drained in between only
+// update the changed vehicles and are handed off together at the next boundary.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryPipeline {
+
+    private final TelemetryIngest ingest;
+    private final FleetStateStore fleetStateStore;
+    private final AlertEngine alertEngine;
+    private final GeofenceEngine geofenceEngine;
+    private final RecentAlertIndex alertIndex;
+    private final RecentTelemetryCache recentTelemetry;
+    private final FleetMetricsTracker fleetMetrics;
+    private final TelemetryDeadband deadband;
+    private final TelemetryJournal journal;
+    private final TelemetryWriteBehind telemetryWriter;
+    private final VehicleService vehicleService;
+    private final AlertWriteBehind alertWriter;
+    private final WebSocketBroadcaster broadcaster;
+    private final CompactVehicleStream compactVehicleStream;
+    private final ViewportBroadcaster viewportBroadcaster;
+    private final LiveVehicleIndex liveVehicleIndex;
+    private final TickMetrics tickMetrics;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fleet.ingest.drain-batch-size:65536}")
+    private int drainBatchSize;
+
+    @Value("${fleet.ingest.idle-park-ms:10}")
+    private long idleParkMs;
+
+    @Value("${fleet.ingest.state-mirror-interval-ms:1000}")
+    private long stateMirrorIntervalMs;
+
+    @Value("${fleet.pipeline.publish-interval-ms:100}")
+    private long publishIntervalMs;
+
+    @Value("${fleet.ingest.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${fleet.pipeline.alert-shards:0}")
+    private int alertShardCount;
+
+    // Below this many readings a batch is evaluated inline; the fork and join would cost more.
+    @Value("${fleet.pipeline.alert-parallel-threshold:4096}")
+    private int alertParallelThreshold;
+
+    @Value("${fleet.pipeline.handoff-capacity:2}")
+    private int handoffCapacity;
+
+    @Value("${fleet.pipeline.max-coalesced-readings:524288}")
+    private int maxCoalescedReadings;
+
+    @Value("${fleet.pipeline.block-timeout-ms:250}")
+    private long blockTimeoutMs;
+
+    @Value("${fleet.pipeline.persistence.overrun-policy:COALESCE}")
+    private OverrunPolicy persistenceOverrun;
+
+    @Value("${fleet.pipeline.broadcast.overrun-policy:COALESCE}")
+    private OverrunPolicy broadcastOverrun;
+
+    private Thread consumer;
+    private volatile boolean running;
+    private long nextMirrorNanos;
+    private long nextPublishNanos;
+    private int[] ordinals = new int[0];
+    private List<Telemetry> pendingBatch = new ArrayList<>();
+    private List<Alert> pendingAlerts = new ArrayList<>();
+    private int[] pendingOrdinals = new int[0];
+    private int pendingCount;
+    private StageWorker<TickResult> persistenceStage;
+    private StageWorker<TickResult> broadcastStage;
+    private int alertShards;
+    private long persistenceLosses;
+    private ExecutorService alertPool;
+
+    @PostConstruct
+    public void start() {
+        alertShards = alertShardCount > 0 ? alertShardCount : Runtime.getRuntime().availableProcessors();
+        if (alertShards > 1) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            alertPool = Executors.newFixedThreadPool(alertShards, r -> {
+                Thread thread = new Thread(r, "pipeline-alerts-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        persistenceStage = new StageWorker<>("persistence", handoffCapacity, persistenceOverrun,
+                TickResult::concat, TickResult::size, maxCoalescedReadings,
+                TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs), this::persist, meterRegistry);
+        broadcastStage = new StageWorker<>("broadcast", handoffCapacity, broadcastOverrun,
+                TickResult::latest, TickResult::size, maxCoalescedReadings,
+                TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs), this::broadcast, meterRegistry);
+        nextPublishNanos = System.nanoTime();
+        running = true;
+        consumer = new Thread(this::run, "telemetry-pipeline");
+        consumer.setDaemon(true);
+        ingest.attachConsumer(consumer);
+        consumer.start();
+    }
+
+    private void run() {
+        TelemetryRingBuffer buffer = ingest.buffer();
+        while (running || buffer.size() > 0) {
+            List<Telemetry> batch = new ArrayList<>();
+            if (buffer.drainTo(batch, drainBatchSize) == 0) {
+                if (pendingCount > 0 && publishDue(System.nanoTime())) {
+                    publishPending(System.nanoTime());
+                } else if (running) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(idleParkMs));
+                }
+                continue;
+            }
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.error("Telemetry pipeline failed on a batch of {} readings", batch.size(), e);
+            }
+        }
+        if (pendingCount > 0) {
+            publishPending(System.nanoTime());
+        }
+    }
+
+    // State, alert rules and geofences run as separate passes over the batch so each stage can be
+    // timed on its own without a clock read per reading.
+    private void process(List<Telemetry> batch) {
+        long start = System.nanoTime();
+        int size = batch.size();
+        if (ordinals.length < size) {
+            ordinals = new int[Math.max(size, ordinals.length * 2)];
+        }
+        for (int i = 0; i < size; i++) {
+            Telemetry t = batch.get(i);
+            int ordinal = fleetStateStore.ordinalOf(t.getVehicleId());
+            if (ordinal < 0) {
+                ordinal = fleetStateStore.register(t.getVehicleId());
+            }
+            ordinals[i] = ordinal;
+            fleetStateStore.update(ordinal, t.getLatitude(), t.getLongitude(), t.getSpeed(),
+                    t.getFuelLevel(), t.getEngineTemp(), t.getTimestamp().toEpochMilli());
+            recentTelemetry.record(ordinal, t);
+            fleetMetrics.update(ordinal, t.getVehicleId(), t.getSpeed(), t.getFuelLevel(), t.getEngineTemp());
+        }
+        long mark = System.nanoTime();
+        tickMetrics.record(Stage.STATE, start, mark);
+
+        List<Alert> alerts = evaluateAlerts(batch, size);
+        Consumer<Alert> alertSink = alerts::add;
+        mark = stage(Stage.ALERTS, mark);
+        for (int i = 0; i < size; i++) {
+            Telemetry t = batch.get(i);
+            geofenceEngine.evaluate(ordinals[i], t.getVehicleId(), t.getLatitude(), t.getLongitude(),
+                    t.getTimestamp().toEpochMilli(), alertSink);
+        }
+        mark = stage(Stage.GEOFENCES, mark);
+        // Assigns the alert ids, so it must run before the alerts are handed off.
+        alertIndex.record(alerts);
+        mark = stage(Stage.ALERT_INDEX, mark);
+
+        pend(batch, size, alerts);
+        if (publishDue(mark)) {
+            mark = publishPending(mark);
+        }
+        tickMetrics.readingsProcessed(size);
+        tickMetrics.finished(TickMetrics.Component.PIPELINE, start, mark);
+    }
+
+    // The batch list is drained fresh each time, so the first pending batch is kept rather than copied.
+    private void pend(List<Telemetry> batch, int size, List<Alert> alerts) {
+        if (pendingBatch.isEmpty()) {
+            pendingBatch = batch;
+        } else {
+            pendingBatch.addAll(batch);
+        }
+        if (pendingAlerts.isEmpty()) {
+            pendingAlerts = alerts;
+        } else {
+            pendingAlerts.addAll(alerts);
+        }
+        if (pendingOrdinals.length < pendingCount + size) {
+            pendingOrdinals = Arrays.copyOf(pendingOrdinals, Math.max(pendingCount + size, pendingOrdinals.length * 2));
+        }
+        System.arraycopy(ordinals, 0, pendingOrdinals, pendingCount, size);
+        pendingCount += size;
+    }
+
+    // A full drain's worth of pending readings is published early, so a burst between two boundaries
+    // does not pile up behind the interval.
+    private boolean publishDue(long nowNanos) {
+        return nowNanos - nextPublishNanos >= 0 || pendingCount >= drainBatchSize;
+    }
+
+    private long publishPending(long startNanos) {
+        nextPublishNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(publishIntervalMs);
+        FleetSnapshot snapshot = fleetStateStore.publish();
+        FleetMetrics metrics = fleetMetrics.publish();
+        long mark = stage(Stage.SNAPSHOT, startNanos);
+
+        TickResult result = new TickResult(pendingBatch, Arrays.copyOf(pendingOrdinals, pendingCount),
+                snapshot.getVersion(), snapshot, metrics, pendingAlerts);
+        pendingBatch = new ArrayList<>();
+        pendingAlerts = new ArrayList<>();
+        pendingCount = 0;
+        persistenceStage.submit(result);
+        broadcastStage.submit(result);
+        return stage(Stage.HANDOFF, mark);
+    }
+
+    // Shard s takes the readings whose ordinal is s modulo the shard count, in batch order. Alerts are
+    // merged in shard order.
+    private List<Alert> evaluateAlerts(List<Telemetry> batch, int size) {
+        if (alertPool == null || size < alertParallelThreshold) {
+            List<Alert> alerts = new ArrayList<>();
+            Consumer<Alert> sink = alerts::add;
+            for (int i = 0; i < size; i++) {
+                alertEngine.evaluate(ordinals[i], batch.get(i), sink);
+            }
+            return alerts;
+        }
+        alertEngine.ensureCapacity(fleetStateStore.size());
+        int[] shardOrdinals = ordinals;
+        List<Callable<List<Alert>>> tasks = new ArrayList<>(alertShards);
+        for (int s = 0; s < alertShards; s++) {
+            int shard = s;
+            tasks.add(() -> {
+                List<Alert> alerts = new ArrayList<>();
+                Consumer<Alert> sink = alerts::add;
+                for (int i = 0; i < size; i++) {
+                    if (shardOrdinals[i] % alertShards == shard) {
+                        alertEngine.evaluate(shardOrdinals[i], batch.get(i), sink);
+                    }
+                }
+                return alerts;
+            });
+        }
+        List<Alert> alerts = new ArrayList<>();
+        try {
+            for (Future<List<Alert>> future : alertPool.invokeAll(tasks)) {
+                alerts.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Alert shard failed on a batch of {} readings", size, e.getCause());
+        }
+        return alerts;
+    }
+
+    private void persist(TickResult result) {
+        long start = System.nanoTime();
+        resyncAfterLosses();
+        List<Telemetry> rows = deadband.filter(result.batch(), result.alerts());
+        long mark = stage(Stage.DEADBAND, start);
+        try {
+            if (journal.isEnabled()) {
+                journal.append(rows);
+            } else {
+                telemetryWriter.submit(rows);
+            }
+        } catch (RuntimeException e) {
+            deadband.resync();
+            throw e;
+        }
+        mark = stage(Stage.PERSIST, mark);
+        mirrorVehicleState(result.snapshot());
+        mark = stage(Stage.MIRROR, mark);
+        // Timed as ALERT_SAVE on the write-behind thread.
+        alertWriter.submit(result.alerts());
+        tickMetrics.finished(TickMetrics.Component.PERSISTENCE, start, mark);
+    }
+
+    private void broadcast(TickResult result) {
+        long start = System.nanoTime();
+        broadcaster.broadcastTelemetryBatch(result.batch());
+        broadcaster.broadcastMetrics(result.metrics());
+        broadcaster.broadcastAlerts(result.alerts());
+        long mark = stage(Stage.BROADCAST, start);
+        compactVehicleStream.publish(result.snapshot());
+        mark = stage(Stage.COMPACT_STREAM, mark);
+        viewportBroadcaster.publish(result.snapshot(), result.ordinals(), result.sinceVersion());
+        mark = stage(Stage.VIEWPORT, mark);
+        liveVehicleIndex.publish(result.snapshot(), result.ordinals(), result.sinceVersion());
+        mark = stage(Stage.VEHICLE_INDEX, mark);
+        tickMetrics.finished(TickMetrics.Component.BROADCAST, start, mark);
+    }
+
+    // The dead-band treats every row it passed as persisted. Whenever rows went missing since the
+    // last batch (a skipped handoff, a dropped journal segment, a dropped or failed write-behind
+    // flush) its state is ahead of the database, so every vehicle's next reading is forced through.
+    private void resyncAfterLosses() {
+        long losses = persistenceStage.dropped() + journal.getDroppedRecords()
+                + telemetryWriter.getDroppedRows() + telemetryWriter.getFailedRows();
+        if (losses != persistenceLosses) {
+            persistenceLosses = losses;
+            deadband.resync();
+        }
+    }
+
+    private long stage(Stage stage, long startNanos) {
+        long end = System.nanoTime();
+        tickMetrics.record(stage, startNanos, end);
+        return end;
+    }
+
+    // The vehicles table is only a mirror of the store, so it is refreshed at most once per interval
+    // no matter how many small device batches arrive in between.
+    private void mirrorVehicleState(FleetSnapshot snapshot) {
+        long nowNanos = System.nanoTime();
+        if (nowNanos - nextMirrorNanos < 0) {
+            return;
+        }
+        nextMirrorNanos = nowNanos + TimeUnit.MILLISECONDS.toNanos(stateMirrorIntervalMs);
+        try {
+            vehicleService.updateVehicleStates(snapshot);
+        } catch (RuntimeException e) {
+            log.error("Failed to mirror fleet state to the vehicles table", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(shutdownTimeoutMs);
+        if (consumer.isAlive()) {
+            log.warn("Telemetry pipeline did not drain within {}ms, {} readings left",
+                    shutdownTimeoutMs, ingest.queueDepth());
+        }
+        if (alertPool != null) {
+            alertPool.shutdown();
+        }
+        persistenceStage.shutdown(shutdownTimeoutMs);
+        broadcastStage.shutdown(shutdownTimeoutMs);
+    }
+}
@@ -0,0 +1,101 @@
+package com.fleetmonitoring.ingest;
+
+import com.fleetmonitoring.model.Telemetry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer.
+ * <p>
+ * Producers claim a contiguous range of sequences with a CAS on {@code tail}, fill the claimed slots
+ * and publish each one with a release store. The single consumer reads slots in sequence order,
+ * stops at the first slot that is not yet published, clears what it consumed and then advances
+ * {@code head}, which is what frees capacity for producers. A batch is either claimed in full or
+ * rejected, so callers can turn a full buffer straight into backpressure.
+ */
+public class TelemetryRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Telemetry> slots;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public TelemetryRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public boolean tryPublish(Telemetry telemetry) {
+        long seq = claim(1);
+        if (seq < 0) {
+            return false;
+        }
+        slots.lazySet((int) seq & mask, telemetry);
+        return true;
+    }
+
+    public boolean tryPublishAll(List<Telemetry> batch) {
+        int n = batch.size();
+        if (n == 0) {
+            return true;
+        }
+        long seq = claim(n);
+        if (seq < 0) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            slots.lazySet((int) (seq + i) & mask, batch.get(i));
+        }
+        return true;
+    }
+
+    private long claim(int n) {
+        if (n > capacity) {
+            return -1;
+        }
+        while (true) {
+            long current = tail.get();
+            if (current + n - head.get() > capacity) {
+                return -1;
+            }
+            if (tail.compareAndSet(current, current + n)) {
+                return current;
+            }
+        }
+    }
+
+    // Must only be called from the single consumer thread.
+    public int drainTo(List<Telemetry> sink, int maxItems) {
+        long h = head.get();
+        int drained = 0;
+        while (drained < maxItems) {
+            int index = (int) (h + drained) & mask;
+            Telemetry telemetry = slots.get(index);
+            if (telemetry == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            sink.add(telemetry);
+            drained++;
+        }
+        if (drained > 0) {
+            head.lazySet(h + drained);
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,63 @@
+package com.fleetmonitoring.ingest;
+
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.FleetMetrics;
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.state.FleetSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Output of the alerting stage for one batch, handed to the persistence and broadcast stages.
+// ordinals are the vehicles that reported in snapshots sinceVersion up to snapshot's version; a
+// merged result covers both ranges, so a stage can tell whether it missed a batch.
+record TickResult(List<Telemetry> batch, int[] ordinals, long sinceVersion, FleetSnapshot snapshot,
+                  FleetMetrics metrics, List<Alert> alerts) {
+
+    int size() {
+        return batch.size();
+    }
+
+    // Persistence must not lose rows, so pending batches are concatenated in arrival order, up to the
+    // stage's coalesced size limit.
+    static TickResult concat(TickResult older, TickResult newer) {
+        List<Telemetry> batch = new ArrayList<>(older.batch.size() + newer.batch.size());
+        batch.addAll(older.batch);
+        batch.addAll(newer.batch);
+        return new TickResult(batch, concatOrdinals(older, newer), older.sinceVersion, newer.snapshot,
+                newer.metrics, concatAlerts(older, newer));
+    }
+
+    // Live views only need each vehicle's newest reading; alerts are events and are all kept.
+    static TickResult latest(TickResult older, TickResult newer) {
+        Map<String, Telemetry> latest = new LinkedHashMap<>(older.batch.size() * 2);
+        for (Telemetry t : older.batch) {
+            latest.put(t.getVehicleId(), t);
+        }
+        for (Telemetry t : newer.batch) {
+            latest.put(t.getVehicleId(), t);
+        }
+        return new TickResult(new ArrayList<>(latest.values()), concatOrdinals(older, newer), older.sinceVersion,
+                newer.snapshot, newer.metrics, concatAlerts(older, newer));
+    }
+
+    // Duplicates are harmless: consumers read positions from the snapshot, not from the batch.
+    private static int[] concatOrdinals(TickResult older, TickResult newer) {
+        int[] ordinals = Arrays.copyOf(older.ordinals, older.ordinals.length + newer.ordinals.length);
+        System.arraycopy(newer.ordinals, 0, ordinals, older.ordinals.length, newer.ordinals.length);
+        return ordinals;
+    }
+
+    private static List<Alert> concatAlerts(TickResult older, TickResult newer) {
+        if (older.alerts.isEmpty()) {
+            return newer.alerts;
+        }
+        List<Alert> alerts = new ArrayList<>(older.alerts.size() + newer.alerts.size());
+        alerts.addAll(older.alerts);
+        alerts.addAll(newer.alerts);
+        return alerts;
+    }
+}
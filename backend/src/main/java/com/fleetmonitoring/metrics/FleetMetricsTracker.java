@@ -0,0 +1,138 @@
+package com.fleetmonitoring.metrics;
+
+import com.fleetmonitoring.model.FleetMetrics;
+import com.fleetmonitoring.model.FleetMetrics.ProvinceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Fleet KPIs maintained incrementally: each update retracts the vehicle's previous contribution
+ * and adds the new one, so the cost per reading is constant and nothing ever rescans the fleet.
+ * <p>
+ * Bucket 0 is the whole fleet; bucket 1 + p is province p, taken from the plate prefix. Speeds are
+ * summed as fixed-point longs so the running totals never drift. Updates come from the telemetry
+ * pipeline thread only; {@link #publish()} freezes the totals into an immutable {@link FleetMetrics}
+ * that readers get in O(1).
+ */
+@Component
+public class FleetMetricsTracker {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double SPEED_SCALE = 1000.0;
+
+    private static final byte REPORTED = 1;
+    private static final byte OVERSPEED = 2;
+    private static final byte LOW_FUEL = 4;
+    private static final byte OVERHEAT = 8;
+
+    @Value("${fleet.metrics.speed-limit:120}")
+    private double speedLimit;
+
+    @Value("${fleet.metrics.fuel-warning:15}")
+    private double fuelWarning;
+
+    @Value("${fleet.metrics.temp-warning:100}")
+    private double tempWarning;
+
+    private final Map<String, Integer> provinceIndex = new HashMap<>();
+    private final List<String> provinceCodes = new ArrayList<>();
+
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private long[] speeds = new long[INITIAL_CAPACITY];
+    private int[] buckets = new int[INITIAL_CAPACITY];
+
+    private int[] online = new int[1];
+    private long[] speedSums = new long[1];
+    private int[] overspeed = new int[1];
+    private int[] lowFuel = new int[1];
+    private int[] overheat = new int[1];
+
+    private long version;
+    private volatile FleetMetrics current = FleetMetrics.EMPTY;
+
+    public void update(int ordinal, String vehicleId, double speed, double fuel, double temp) {
+        if (ordinal >= flags.length) {
+            int capacity = Math.max(ordinal + 1, flags.length * 2);
+            flags = Arrays.copyOf(flags, capacity);
+            speeds = Arrays.copyOf(speeds, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+        }
+
+        byte previous = flags[ordinal];
+        int bucket;
+        if ((previous & REPORTED) != 0) {
+            bucket = buckets[ordinal];
+            apply(0, previous, speeds[ordinal], -1);
+            apply(bucket, previous, speeds[ordinal], -1);
+        } else {
+            bucket = 1 + provinceOf(vehicleId);
+            buckets[ordinal] = bucket;
+        }
+
+        byte next = REPORTED;
+        if (speed > speedLimit) next |= OVERSPEED;
+        if (fuel < fuelWarning) next |= LOW_FUEL;
+        if (temp > tempWarning) next |= OVERHEAT;
+        long fixedSpeed = Math.round(speed * SPEED_SCALE);
+
+        flags[ordinal] = next;
+        speeds[ordinal] = fixedSpeed;
+        apply(0, next, fixedSpeed, 1);
+        apply(bucket, next, fixedSpeed, 1);
+    }
+
+    public FleetMetrics publish() {
+        Map<String, ProvinceMetrics> provinces = new TreeMap<>();
+        for (int p = 0; p < provinceCodes.size(); p++) {
+            int bucket = 1 + p;
+            if (online[bucket] > 0) {
+                provinces.put(provinceCodes.get(p), new ProvinceMetrics(online[bucket], averageSpeed(bucket),
+                        overspeed[bucket], lowFuel[bucket], overheat[bucket]));
+            }
+        }
+        FleetMetrics metrics = new FleetMetrics(++version, System.currentTimeMillis(), online[0],
+                averageSpeed(0), overspeed[0], lowFuel[0], overheat[0], Collections.unmodifiableMap(provinces));
+        current = metrics;
+        return metrics;
+    }
+
+    public FleetMetrics current() {
+        return current;
+    }
+
+    private void apply(int bucket, byte flag, long fixedSpeed, int sign) {
+        online[bucket] += sign;
+        speedSums[bucket] += sign * fixedSpeed;
+        if ((flag & OVERSPEED) != 0) overspeed[bucket] += sign;
+        if ((flag & LOW_FUEL) != 0) lowFuel[bucket] += sign;
+        if ((flag & OVERHEAT) != 0) overheat[bucket] += sign;
+    }
+
+    private double averageSpeed(int bucket) {
+        if (online[bucket] == 0) {
+            return 0;
+        }
+        return Math.round(speedSums[bucket] / SPEED_SCALE / online[bucket] * 10) / 10.0;
+    }
+
+    private int provinceOf(String vehicleId) {
+        int space = vehicleId.indexOf(' ');
+        String code = space > 0 ? vehicleId.substring(0, space) : "OTHER";
+        Integer index = provinceIndex.get(code);
+        if (index != null) {
+            return index;
+        }
+        index = provinceCodes.size();
+        provinceIndex.put(code, index);
+        provinceCodes.add(code);
+        int bucketCount = index + 2;
+        online = Arrays.copyOf(online, bucketCount);
+        speedSums = Arrays.copyOf(speedSums, bucketCount);
+        overspeed = Arrays.copyOf(overspeed, bucketCount);
+        lowFuel = Arrays.copyOf(lowFuel, bucketCount);
+        overheat = Arrays.copyOf(overheat, bucketCount);
+        return index;
+    }
+}
@@ -0,0 +1,110 @@
+package com.fleetmonitoring.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for every stage of a tick, from simulation through persistence and broadcast, plus overrun
+ * detection against {@code fleet.simulator.tick-interval-ms}. Meters are created once up front so
+ * recording on the hot path is a lookup-free call with {@link System#nanoTime()} deltas.
+ * Percentiles and histograms are configured under {@code management.metrics.distribution}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TickMetrics {
+
+    public enum Stage {
+        SIMULATE, INGEST, STATE, ALERTS, GEOFENCES, ALERT_INDEX, SNAPSHOT, HANDOFF, DEADBAND, PERSIST, MIRROR, ALERT_SAVE,
+        BROADCAST, COMPACT_STREAM, VIEWPORT, VEHICLE_INDEX, COPY;
+
+        final String tag = name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    // The independently scheduled parts of a tick, each of which must keep up with the tick interval.
+    public enum Component {
+        SIMULATOR, PIPELINE, PERSISTENCE, BROADCAST;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fleet.simulator.tick-interval-ms:1000}")
+    private long tickIntervalMs;
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Component, Timer> componentTimers = new EnumMap<>(Component.class);
+    private final Map<Component, Counter> overruns = new EnumMap<>(Component.class);
+    private Counter readings;
+
+    private long tickIntervalNanos;
+    private boolean ticking;
+    private long nextTickNanos;
+    private volatile double tickLagMillis;
+
+    @PostConstruct
+    public void init() {
+        tickIntervalNanos = TimeUnit.MILLISECONDS.toNanos(tickIntervalMs);
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("fleet.tick.stage")
+                    .description("Time spent in one stage of a simulator tick or pipeline batch")
+                    .tag("stage", stage.tag)
+                    .register(meterRegistry));
+        }
+        for (Component component : Component.values()) {
+            componentTimers.put(component, Timer.builder("fleet.tick.duration")
+                    .tag("component", component.tag)
+                    .register(meterRegistry));
+            overruns.put(component, Counter.builder("fleet.tick.overruns")
+                    .description("Ticks or batches that took longer than the tick interval")
+                    .tag("component", component.tag)
+                    .register(meterRegistry));
+        }
+        readings = Counter.builder("fleet.telemetry.readings")
+                .description("Telemetry readings processed by the pipeline")
+                .register(meterRegistry);
+        Gauge.builder("fleet.tick.lag", this, m -> m.tickLagMillis)
+                .description("How late the last simulator tick started against its fixed-rate schedule")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public void record(Stage stage, long startNanos, long endNanos) {
+        stageTimers.get(stage).record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Fixed-rate scheduling starts late ticks back to back until it has caught up, so the expected
+    // start of each tick is the previous expected start plus one interval. A tick that starts earlier
+    // than expected re-anchors the schedule, which also absorbs the unknown delay before the first tick.
+    public void simulatorTickStarted(long startNanos) {
+        if (!ticking || startNanos - nextTickNanos < 0) {
+            ticking = true;
+            nextTickNanos = startNanos;
+        }
+        tickLagMillis = (startNanos - nextTickNanos) / 1e6;
+        nextTickNanos += tickIntervalNanos;
+    }
+
+    public void finished(Component component, long startNanos, long endNanos) {
+        long duration = endNanos - startNanos;
+        componentTimers.get(component).record(duration, TimeUnit.NANOSECONDS);
+        if (duration > tickIntervalNanos) {
+            overruns.get(component).increment();
+        }
+    }
+
+    public void readingsProcessed(int count) {
+        readings.increment(count);
+    }
+}
@@ -6,8 +6,8 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "alerts", indexes = {
-        @Index(name = "idx_alerts_vehicle_id", columnList = "vehicleId"),
-        @Index(name = "idx_alerts_type", columnList = "alertType"),
+        @Index(name = "idx_alerts_vehicle_id_id", columnList = "vehicleId, id"),
+        @Index(name = "idx_alerts_type_id", columnList = "alertType, id"),
         @Index(name = "idx_alerts_timestamp", columnList = "timestamp")
 })
 @Getter
@@ -17,8 +17,8 @@ import java.time.Instant;
 @Builder
 public class Alert {
 
+    // Assigned by RecentAlertIndex when the alert is raised, never by the database.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,12 @@
+package com.fleetmonitoring.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Alerts raised in [from, to), from the per-minute buckets of the live alert index.
+public record AlertCounts(Instant from,
+                          Instant to,
+                          long total,
+                          Map<AlertType, Long> byType,
+                          Map<Severity, Long> bySeverity) {
+}
@@ -0,0 +1,8 @@
+package com.fleetmonitoring.model;
+
+import java.util.List;
+
+// Newest first. Pass nextCursor back as before=<nextCursor> for the following page; it is null once
+// there is nothing older.
+public record AlertPage(List<Alert> alerts, Long nextCursor) {
+}
@@ -3,5 +3,10 @@ package com.fleetmonitoring.model;
 public enum AlertType {
     OVERSPEED,
     LOW_FUEL,
-    ENGINE_OVERHEAT
+    ENGINE_OVERHEAT,
+    FUEL_DROP,
+    ENGINE_TEMP_RISE,
+    GEOFENCE_ENTER,
+    GEOFENCE_EXIT,
+    GEOFENCE_DWELL
 }
@@ -0,0 +1,22 @@
+package com.fleetmonitoring.model;
+
+import java.util.Map;
+
+public record FleetMetrics(long version,
+                           long timestamp,
+                           int totalOnline,
+                           double averageSpeed,
+                           int overspeedCount,
+                           int lowFuelCount,
+                           int overheatCount,
+                           Map<String, ProvinceMetrics> provinces) {
+
+    public static final FleetMetrics EMPTY = new FleetMetrics(0, 0, 0, 0, 0, 0, 0, Map.of());
+
+    public record ProvinceMetrics(int totalOnline,
+                                  double averageSpeed,
+                                  int overspeedCount,
+                                  int lowFuelCount,
+                                  int overheatCount) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.fleetmonitoring.model;
+
+public record GeoPoint(double latitude, double longitude) {
+}
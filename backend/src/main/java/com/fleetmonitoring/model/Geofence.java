@@ -0,0 +1,48 @@
+package com.fleetmonitoring.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.List;
+
+// A circle uses the center and radius, a polygon its vertices (in order, implicitly closed).
+// dwellLimitSeconds of null or 0 disables the dwell alert for the fence.
+@Entity
+@Table(name = "geofences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Geofence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GeofenceCategory category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GeofenceShape shape;
+
+    private Double centerLatitude;
+    private Double centerLongitude;
+    private Double radiusMeters;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private List<GeoPoint> vertices;
+
+    private Integer dwellLimitSeconds;
+
+    private Instant updatedAt;
+}
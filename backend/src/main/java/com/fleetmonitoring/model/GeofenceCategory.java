@@ -0,0 +1,7 @@
+package com.fleetmonitoring.model;
+
+public enum GeofenceCategory {
+    DEPOT,
+    CUSTOMER_SITE,
+    RESTRICTED_ZONE
+}
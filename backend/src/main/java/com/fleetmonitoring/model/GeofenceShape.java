@@ -0,0 +1,6 @@
+package com.fleetmonitoring.model;
+
+public enum GeofenceShape {
+    CIRCLE,
+    POLYGON
+}
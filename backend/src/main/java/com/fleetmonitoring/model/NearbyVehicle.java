@@ -0,0 +1,13 @@
+package com.fleetmonitoring.model;
+
+import java.time.Instant;
+
+public record NearbyVehicle(String vehicleId,
+                            double latitude,
+                            double longitude,
+                            double speed,
+                            double fuelLevel,
+                            double engineTemp,
+                            Instant lastUpdated,
+                            double distanceKm) {
+}
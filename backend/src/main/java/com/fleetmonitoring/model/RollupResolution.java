@@ -0,0 +1,16 @@
+package com.fleetmonitoring.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+@Getter
+@RequiredArgsConstructor
+public enum RollupResolution {
+    MINUTE("telemetry_rollup_1m", Duration.ofMinutes(1)),
+    HOUR("telemetry_rollup_1h", Duration.ofHours(1));
+
+    private final String table;
+    private final Duration bucket;
+}
@@ -2,13 +2,14 @@ package com.fleetmonitoring.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
+// Partitioned by day and indexed on (vehicle_id, timestamp) and (timestamp) by SchemaMigrations;
+// Hibernate cannot see indexes on a partitioned parent, so they are not declared here.
 @Entity
-@Table(name = "telemetry", indexes = {
-        @Index(name = "idx_telemetry_vehicle_id", columnList = "vehicleId"),
-        @Index(name = "idx_telemetry_timestamp", columnList = "timestamp")
-})
+@Table(name = "telemetry")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,6 +17,14 @@ import java.time.Instant;
 @Builder
 public class Telemetry {
 
+    // Fixed width of the vehicleId slot in the local telemetry journal. FleetStateStore refuses to
+    // register longer ids, so every registered vehicle's readings fit the journal.
+    public static final int MAX_VEHICLE_ID_BYTES = 32;
+
+    public static boolean fitsVehicleId(String vehicleId) {
+        return vehicleId.getBytes(StandardCharsets.UTF_8).length <= MAX_VEHICLE_ID_BYTES;
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
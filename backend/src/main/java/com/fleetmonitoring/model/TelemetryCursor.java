@@ -0,0 +1,30 @@
+package com.fleetmonitoring.model;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+// Keyset position in (timestamp, id) order, written as "<ISO-8601 timestamp>,<id>".
+public record TelemetryCursor(Instant timestamp, long id) {
+
+    public static TelemetryCursor parse(String value) {
+        int comma = value.lastIndexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("Cursor must be <timestamp>,<id>: " + value);
+        }
+        try {
+            return new TelemetryCursor(Instant.parse(value.substring(0, comma).trim()),
+                    Long.parseLong(value.substring(comma + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor must be <timestamp>,<id>: " + value);
+        }
+    }
+
+    public static TelemetryCursor of(Telemetry telemetry) {
+        return new TelemetryCursor(telemetry.getTimestamp(), telemetry.getId());
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "," + id;
+    }
+}
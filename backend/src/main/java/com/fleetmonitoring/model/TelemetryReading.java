@@ -0,0 +1,9 @@
+package com.fleetmonitoring.model;
+
+import java.time.Instant;
+
+// Body of a device reading on the ingest API. Kept apart from the Telemetry entity so a request
+// cannot set persistence fields; measurements are boxed so a missing one is a 400, not a zero.
+public record TelemetryReading(String vehicleId, Double latitude, Double longitude, Double speed,
+                               Double fuelLevel, Double engineTemp, Instant timestamp) {
+}
@@ -0,0 +1,32 @@
+package com.fleetmonitoring.model;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TelemetryRollup {
+
+    private String vehicleId;
+    private RollupResolution resolution;
+    private Instant bucket;
+    private int samples;
+
+    private double minSpeed;
+    private double maxSpeed;
+    private double avgSpeed;
+    private double minFuelLevel;
+    private double maxFuelLevel;
+    private double avgFuelLevel;
+    private double minEngineTemp;
+    private double maxEngineTemp;
+    private double avgEngineTemp;
+
+    private double lastLatitude;
+    private double lastLongitude;
+    private Instant lastTimestamp;
+}
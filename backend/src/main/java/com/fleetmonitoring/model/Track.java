@@ -0,0 +1,20 @@
+package com.fleetmonitoring.model;
+
+import java.time.Instant;
+
+/**
+ * A simplified vehicle track. {@code polyline} is a standard encoded polyline (precision 5) of the
+ * kept positions; {@code times} encodes their epoch seconds and {@code speeds} their speed in
+ * tenths of km/h with the same delta scheme, one value per position.
+ */
+public record Track(String vehicleId,
+                    Instant from,
+                    Instant to,
+                    double toleranceMeters,
+                    int rawPoints,
+                    int points,
+                    double distanceKm,
+                    String polyline,
+                    String times,
+                    String speeds) {
+}
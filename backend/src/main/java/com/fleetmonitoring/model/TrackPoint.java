@@ -0,0 +1,6 @@
+package com.fleetmonitoring.model;
+
+import java.time.Instant;
+
+public record TrackPoint(double latitude, double longitude, double speed, Instant timestamp) {
+}
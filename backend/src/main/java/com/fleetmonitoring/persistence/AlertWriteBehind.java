@@ -0,0 +1,173 @@
+package com.fleetmonitoring.persistence;
+
+import com.fleetmonitoring.metrics.TickMetrics;
+import com.fleetmonitoring.metrics.TickMetrics.Stage;
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.service.AlertService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Alerts are written on their own thread, so an alert storm or a slow alerts table never holds up
+// the persistence stage. Every batch queued within one flush interval goes out in a single insert.
+// A failed insert keeps its alerts and is retried with backoff, taking on newly queued alerts up to
+// max-retained; beyond that the queue fills. The queue never blocks the caller: when it is full the
+// newest batch is dropped and counted. Ids are assigned before alerts get here, so a retry of an
+// insert that did commit is a no-op.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AlertWriteBehind implements MeterBinder {
+
+    private final AlertService alertService;
+    private final TickMetrics tickMetrics;
+
+    @Value("${fleet.persistence.alerts.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${fleet.persistence.alerts.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${fleet.persistence.alerts.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${fleet.persistence.alerts.max-retained:50000}")
+    private int maxRetained;
+
+    @Value("${fleet.persistence.alerts.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${fleet.persistence.alerts.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    private BlockingQueue<List<Alert>> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final AtomicLong writtenAlerts = new AtomicLong();
+    private final AtomicLong droppedAlerts = new AtomicLong();
+    private final AtomicLong failedAlerts = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private volatile int retained;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::runFlusher, "alert-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public void submit(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        if (!running || !queue.offer(alerts)) {
+            droppedAlerts.addAndGet(alerts.size());
+            log.warn("Dropped {} alerts: {}", alerts.size(), running ? "queue full" : "write-behind is shut down");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fleet.persistence.alerts", writtenAlerts, AtomicLong::get)
+                .tag("result", "written").register(registry);
+        FunctionCounter.builder("fleet.persistence.alerts", droppedAlerts, AtomicLong::get)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("fleet.persistence.alerts", failedAlerts, AtomicLong::get)
+                .tag("result", "failed").register(registry);
+        FunctionCounter.builder("fleet.persistence.alerts.flush.failures", failedAttempts, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("fleet.persistence.alerts.retained", this, w -> w.retained)
+                .description("Alerts held for retry after a failed insert")
+                .register(registry);
+        Gauge.builder("fleet.persistence.alerts.queued.batches", queue, BlockingQueue::size)
+                .register(registry);
+    }
+
+    private void runFlusher() {
+        List<Alert> buffer = new ArrayList<>();
+        long backoffMs = retryBackoffMs;
+        long retryInMs = 0;
+        while (running || !queue.isEmpty() || !buffer.isEmpty()) {
+            try {
+                if (buffer.isEmpty()) {
+                    List<Alert> first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    buffer.addAll(first);
+                    // Give a storm a moment to accumulate, then take everything queued behind it.
+                    if (running) {
+                        Thread.sleep(flushIntervalMs);
+                    }
+                } else if (running) {
+                    Thread.sleep(retryInMs);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown signal; the loop condition decides whether anything is left to drain.
+            }
+            List<Alert> next;
+            while (buffer.size() < maxRetained && (next = queue.poll()) != null) {
+                buffer.addAll(next);
+            }
+            if (flush(buffer)) {
+                backoffMs = retryBackoffMs;
+            } else if (running) {
+                log.warn("Retrying {} alerts in {}ms", buffer.size(), backoffMs);
+                retryInMs = backoffMs;
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            } else {
+                failedAlerts.addAndGet(buffer.size());
+                log.error("Gave up on {} alerts at shutdown", buffer.size());
+                buffer.clear();
+            }
+            retained = buffer.size();
+        }
+    }
+
+    // Clears the buffer only once the alerts are written.
+    private boolean flush(List<Alert> buffer) {
+        if (buffer.isEmpty()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            writtenAlerts.addAndGet(alertService.saveAll(buffer));
+            buffer.clear();
+            return true;
+        } catch (RuntimeException e) {
+            failedAttempts.incrementAndGet();
+            log.warn("Failed to save {} alerts: {}", buffer.size(), e.getMessage());
+            return false;
+        } finally {
+            tickMetrics.record(Stage.ALERT_SAVE, start, System.nanoTime());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(shutdownTimeoutMs);
+        if (flusher.isAlive()) {
+            log.warn("Alert write-behind did not drain within {}ms, {} batches left",
+                    shutdownTimeoutMs, queue.size());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.fleetmonitoring.persistence;
+
+public enum BackpressurePolicy {
+    BLOCK,
+    DROP_NEWEST,
+    DROP_OLDEST
+}
@@ -0,0 +1,109 @@
+package com.fleetmonitoring.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+// Schema changes that Hibernate's ddl-auto=update cannot make on an existing database.
+// Depends on the EntityManagerFactory so it always runs after Hibernate has updated the schema.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaMigrations {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void migrate() {
+        // Hibernate pins enum columns with a CHECK constraint that is never widened when AlertType grows.
+        jdbcTemplate.execute("ALTER TABLE alerts DROP CONSTRAINT IF EXISTS alerts_alert_type_check");
+        // Alert pages filter by vehicle or type and walk ids downwards; superseded by (column, id).
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_alerts_vehicle_id");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_alerts_type");
+        partitionTelemetry();
+        createRollupTables();
+        log.info("Schema migrations applied");
+    }
+
+    // Hibernate creates telemetry as a plain table; swap it for one range-partitioned by day.
+    // Existing rows stay where they are and become a single partition covering everything up to the
+    // end of the day of the newest row.
+    private void partitionTelemetry() {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT coalesce((SELECT relkind::text FROM pg_class WHERE oid = to_regclass('telemetry')), '')",
+                String.class);
+        if (!"r".equals(kind)) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Timestamp newest = jdbcTemplate.queryForObject("SELECT max(timestamp) FROM telemetry", Timestamp.class);
+
+            jdbcTemplate.execute("ALTER TABLE telemetry RENAME TO telemetry_legacy");
+            jdbcTemplate.execute("ALTER TABLE telemetry_legacy DROP CONSTRAINT telemetry_pkey");
+            jdbcTemplate.execute("ALTER TABLE telemetry_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_telemetry_vehicle_id");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_telemetry_vehicle_ts");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_telemetry_timestamp");
+
+            // Partitioned tables cannot carry identity columns before PostgreSQL 17, and every
+            // unique constraint must include the partition key.
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS telemetry_id_seq");
+            jdbcTemplate.execute("SELECT setval('telemetry_id_seq', " +
+                    "(SELECT coalesce(max(id), 0) + 1 FROM telemetry_legacy), false)");
+            jdbcTemplate.execute("""
+                    CREATE TABLE telemetry (
+                        id bigint NOT NULL DEFAULT nextval('telemetry_id_seq'),
+                        vehicle_id varchar(255) NOT NULL,
+                        latitude float(53) NOT NULL,
+                        longitude float(53) NOT NULL,
+                        speed float(53) NOT NULL,
+                        fuel_level float(53) NOT NULL,
+                        engine_temp float(53) NOT NULL,
+                        timestamp timestamp(6) with time zone NOT NULL,
+                        PRIMARY KEY (id, timestamp)
+                    ) PARTITION BY RANGE (timestamp)""");
+            jdbcTemplate.execute("ALTER SEQUENCE telemetry_id_seq OWNED BY telemetry.id");
+            jdbcTemplate.execute("CREATE INDEX idx_telemetry_vehicle_ts ON telemetry (vehicle_id, timestamp)");
+            jdbcTemplate.execute("CREATE INDEX idx_telemetry_timestamp ON telemetry (timestamp)");
+            jdbcTemplate.execute("CREATE TABLE telemetry_default PARTITION OF telemetry DEFAULT");
+
+            if (newest == null) {
+                jdbcTemplate.execute("DROP TABLE telemetry_legacy");
+            } else {
+                LocalDate end = LocalDate.ofInstant(newest.toInstant(), ZoneOffset.UTC).plusDays(1);
+                jdbcTemplate.execute("ALTER TABLE telemetry ATTACH PARTITION telemetry_legacy " +
+                        "FOR VALUES FROM (MINVALUE) TO ('" + end + " 00:00:00+00')");
+            }
+        });
+        log.info("Converted telemetry to a daily range-partitioned table");
+    }
+
+    private void createRollupTables() {
+        for (String table : new String[]{"telemetry_rollup_1m", "telemetry_rollup_1h"}) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                    "vehicle_id varchar(255) NOT NULL, " +
+                    "bucket timestamp(6) with time zone NOT NULL, " +
+                    "samples integer NOT NULL, " +
+                    "min_speed float(53) NOT NULL, max_speed float(53) NOT NULL, avg_speed float(53) NOT NULL, " +
+                    "min_fuel_level float(53) NOT NULL, max_fuel_level float(53) NOT NULL, " +
+                    "avg_fuel_level float(53) NOT NULL, " +
+                    "min_engine_temp float(53) NOT NULL, max_engine_temp float(53) NOT NULL, " +
+                    "avg_engine_temp float(53) NOT NULL, " +
+                    "last_latitude float(53) NOT NULL, last_longitude float(53) NOT NULL, " +
+                    "last_timestamp timestamp(6) with time zone NOT NULL, " +
+                    "PRIMARY KEY (vehicle_id, bucket))");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_bucket ON " + table + " (bucket)");
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.fleetmonitoring.persistence;
+
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.spatial.GeoMath;
+import com.fleetmonitoring.state.FleetSnapshot;
+import com.fleetmonitoring.state.FleetStateStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Dead-band and heartbeat filter in front of telemetry persistence. A reading is stored only when
+ * the vehicle moved more than {@code position-meters} from its last stored position, a value moved
+ * more than its tolerance from its last stored value, the vehicle raised an alert in the same
+ * batch, or {@code max-silence} has passed since its last stored reading. Every suppressed reading
+ * is therefore within tolerance of the stored reading before it, which is what {@link #fillForward}
+ * relies on to rebuild the full series for history queries. The filter also tracks how often each
+ * vehicle actually reports, so the rebuilt series has the vehicle's own cadence rather than one
+ * reading per {@code fill-interval}, which is only the fallback for vehicles not seen since startup.
+ * <p>
+ * {@link #filter} runs on the persistence stage thread only and owns the per-vehicle state. History
+ * queries read the report intervals without locking; a stale interval only shifts the fill cadence.
+ */
+@Component
+@RequiredArgsConstructor
+public class TelemetryDeadband implements MeterBinder {
+
+    private final FleetStateStore fleetStateStore;
+
+    @Value("${fleet.persistence.deadband.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.persistence.deadband.position-meters:10}")
+    private double positionMeters;
+
+    @Value("${fleet.persistence.deadband.speed:2.0}")
+    private double speedTolerance;
+
+    @Value("${fleet.persistence.deadband.fuel-level:0.5}")
+    private double fuelTolerance;
+
+    @Value("${fleet.persistence.deadband.engine-temp:1.0}")
+    private double tempTolerance;
+
+    @Value("${fleet.persistence.deadband.max-silence:PT60S}")
+    private Duration maxSilence;
+
+    @Value("${fleet.persistence.deadband.fill-interval:PT1S}")
+    private Duration fillInterval;
+
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+    private double[] speeds = new double[0];
+    private double[] fuelLevels = new double[0];
+    private double[] engineTemps = new double[0];
+    private long[] storedMillis = new long[0];
+    private boolean[] stored = new boolean[0];
+    private long[] seenMillis = new long[0];
+    private volatile int[] reportIntervals = new int[0];
+
+    private volatile long readingsIn;
+    private volatile long readingsStored;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Telemetry> filter(List<Telemetry> batch, List<Alert> alerts) {
+        if (!enabled) {
+            return batch;
+        }
+        Set<String> alerted = Set.of();
+        if (!alerts.isEmpty()) {
+            alerted = new HashSet<>();
+            for (Alert alert : alerts) {
+                alerted.add(alert.getVehicleId());
+            }
+        }
+        long maxSilenceMillis = maxSilence.toMillis();
+        double positionKm = positionMeters / 1000;
+        List<Telemetry> kept = new ArrayList<>(batch.size());
+        for (Telemetry t : batch) {
+            int ordinal = fleetStateStore.ordinalOf(t.getVehicleId());
+            if (ordinal < 0) {
+                kept.add(t);
+                continue;
+            }
+            if (ordinal >= stored.length) {
+                grow(ordinal + 1);
+            }
+            long millis = t.getTimestamp().toEpochMilli();
+            observe(ordinal, millis, maxSilenceMillis);
+            boolean store = !stored[ordinal]
+                    || millis - storedMillis[ordinal] >= maxSilenceMillis
+                    || Math.abs(t.getSpeed() - speeds[ordinal]) > speedTolerance
+                    || Math.abs(t.getFuelLevel() - fuelLevels[ordinal]) > fuelTolerance
+                    || Math.abs(t.getEngineTemp() - engineTemps[ordinal]) > tempTolerance
+                    || alerted.contains(t.getVehicleId())
+                    || GeoMath.haversineKm(latitudes[ordinal], longitudes[ordinal],
+                            t.getLatitude(), t.getLongitude()) > positionKm;
+            if (store) {
+                stored[ordinal] = true;
+                storedMillis[ordinal] = millis;
+                latitudes[ordinal] = t.getLatitude();
+                longitudes[ordinal] = t.getLongitude();
+                speeds[ordinal] = t.getSpeed();
+                fuelLevels[ordinal] = t.getFuelLevel();
+                engineTemps[ordinal] = t.getEngineTemp();
+                kept.add(t);
+            }
+        }
+        readingsIn += batch.size();
+        readingsStored += kept.size();
+        return kept;
+    }
+
+    /**
+     * Forgets every vehicle's last stored reading, so each vehicle's next reading is stored whatever
+     * its values. For when rows this filter passed never reached the journal or the database: the
+     * suppressed readings after them would otherwise be filled from a row that does not exist. Call
+     * it from the thread that runs {@link #filter}.
+     */
+    public void resync() {
+        Arrays.fill(stored, false);
+    }
+
+    // Smoothed gap between consecutive readings, 1/8 weight per reading like TCP's RTT estimate.
+    // Gaps longer than the heartbeat are silences, not the report rate, and are left out.
+    private void observe(int ordinal, long millis, long maxSilenceMillis) {
+        long gap = millis - seenMillis[ordinal];
+        if (seenMillis[ordinal] != 0 && gap > 0 && gap <= maxSilenceMillis) {
+            int[] intervals = reportIntervals;
+            int interval = intervals[ordinal];
+            intervals[ordinal] = interval == 0 ? (int) gap : interval + (int) ((gap - interval) / 8);
+        }
+        seenMillis[ordinal] = Math.max(seenMillis[ordinal], millis);
+    }
+
+    /**
+     * The interval the vehicle has been reporting at, or {@code fill-interval} if it has not reported
+     * twice since startup.
+     */
+    public long reportIntervalMillis(String vehicleId) {
+        int ordinal = fleetStateStore.ordinalOf(vehicleId);
+        int[] intervals = reportIntervals;
+        if (ordinal < 0 || ordinal >= intervals.length || intervals[ordinal] == 0) {
+            return fillInterval.toMillis();
+        }
+        return intervals[ordinal];
+    }
+
+    /** Every vehicle with an observed report interval, for fills done outside this process. */
+    public void forEachReportInterval(ObjLongConsumer<String> sink) {
+        FleetSnapshot snapshot = fleetStateStore.snapshot();
+        String[] vehicleIds = snapshot.getVehicleIds();
+        int[] intervals = reportIntervals;
+        for (int i = 0; i < Math.min(snapshot.getSize(), intervals.length); i++) {
+            if (intervals[i] != 0) {
+                sink.accept(vehicleIds[i], intervals[i]);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the suppressed readings of one vehicle by repeating each stored row at the vehicle's
+     * report interval until the next one, from {@code from} up to {@code until}. Gaps longer
+     * than the heartbeat are left alone: the vehicle was silent, not steady. {@code previous} is
+     * the last stored row before {@code from}, if any; rows are ascending and synthetic rows have
+     * no id.
+     */
+    public List<Telemetry> fillForward(Telemetry previous, List<Telemetry> ascending, Instant from, Instant until) {
+        if (!enabled) {
+            return ascending;
+        }
+        Telemetry first = previous != null ? previous : ascending.isEmpty() ? null : ascending.get(0);
+        long step = first != null ? reportIntervalMillis(first.getVehicleId()) : fillInterval.toMillis();
+        long maxGap = maxSilence.toMillis() + step;
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        List<Telemetry> filled = new ArrayList<>(ascending.size() * 2);
+        Telemetry last = previous;
+        for (Telemetry next : ascending) {
+            if (last != null) {
+                fill(filled::add, last, next.getTimestamp().toEpochMilli(), fromMillis, step, maxGap);
+            }
+            filled.add(next);
+            last = next;
+        }
+        if (last != null && until != null) {
+            // Inclusive end: the reading at until itself was also suppressed, so fill as if the next
+            // stored row were one step later.
+            fill(filled::add, last, until.toEpochMilli() + step, fromMillis, step, maxGap);
+        }
+        return filled;
+    }
+
+    /**
+     * Streaming form of {@link #fillForward} for rows that arrive one at a time, such as a server-side
+     * cursor that refills the same instance for every row. Each stored row is passed on after the
+     * readings filled in before it; {@link ForwardFill#finish} fills the tail up to {@code until}.
+     */
+    public ForwardFill fillForward(Telemetry previous, Instant from, Consumer<Telemetry> sink) {
+        return new ForwardFill(previous, from, sink);
+    }
+
+    public final class ForwardFill implements Consumer<Telemetry> {
+
+        private final Consumer<Telemetry> sink;
+        private final long fromMillis;
+        private long step;
+        private long maxGap;
+        // A copy, since the caller may reuse the row it passed in.
+        private final Telemetry last = new Telemetry();
+        private boolean hasLast;
+
+        private ForwardFill(Telemetry previous, Instant from, Consumer<Telemetry> sink) {
+            this.sink = sink;
+            this.fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+            if (previous != null) {
+                remember(previous);
+            }
+        }
+
+        @Override
+        public void accept(Telemetry row) {
+            if (enabled && hasLast) {
+                fill(sink, last, row.getTimestamp().toEpochMilli(), fromMillis, step, maxGap);
+            }
+            sink.accept(row);
+            remember(row);
+        }
+
+        public void finish(Instant until) {
+            if (enabled && hasLast && until != null) {
+                fill(sink, last, until.toEpochMilli() + step, fromMillis, step, maxGap);
+            }
+        }
+
+        private void remember(Telemetry row) {
+            if (!hasLast) {
+                step = reportIntervalMillis(row.getVehicleId());
+                maxGap = maxSilence.toMillis() + step;
+            }
+            last.setVehicleId(row.getVehicleId());
+            last.setLatitude(row.getLatitude());
+            last.setLongitude(row.getLongitude());
+            last.setSpeed(row.getSpeed());
+            last.setFuelLevel(row.getFuelLevel());
+            last.setEngineTemp(row.getEngineTemp());
+            last.setTimestamp(row.getTimestamp());
+            hasLast = true;
+        }
+    }
+
+    private static void fill(Consumer<Telemetry> out, Telemetry last, long endMillis, long fromMillis,
+                             long step, long maxGap) {
+        long lastMillis = last.getTimestamp().toEpochMilli();
+        if (endMillis - lastMillis > maxGap) {
+            return;
+        }
+        // Stop half a step short so a reading that arrived slightly early is not doubled.
+        for (long t = lastMillis + step; t < endMillis - step / 2; t += step) {
+            if (t >= fromMillis) {
+                out.accept(Telemetry.builder()
+                        .vehicleId(last.getVehicleId())
+                        .latitude(last.getLatitude())
+                        .longitude(last.getLongitude())
+                        .speed(last.getSpeed())
+                        .fuelLevel(last.getFuelLevel())
+                        .engineTemp(last.getEngineTemp())
+                        .timestamp(Instant.ofEpochMilli(t))
+                        .build());
+            }
+        }
+    }
+
+    public Duration getMaxSilence() {
+        return maxSilence;
+    }
+
+    public Duration getFillInterval() {
+        return fillInterval;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fleet.persistence.deadband.readings", this, d -> d.readingsStored)
+                .tag("result", "stored")
+                .description("Readings that passed the dead-band and were persisted")
+                .register(registry);
+        FunctionCounter.builder("fleet.persistence.deadband.readings", this, d -> d.readingsIn - d.readingsStored)
+                .tag("result", "suppressed")
+                .description("Readings within every tolerance and the heartbeat, not persisted")
+                .register(registry);
+        Gauge.builder("fleet.persistence.deadband.compression.ratio", this,
+                        d -> d.readingsStored == 0 ? 1 : (double) d.readingsIn / d.readingsStored)
+                .description("Readings received per reading persisted since startup")
+                .register(registry);
+    }
+
+    private void grow(int minLength) {
+        int length = Math.max(minLength, Math.max(1024, stored.length * 2));
+        latitudes = Arrays.copyOf(latitudes, length);
+        longitudes = Arrays.copyOf(longitudes, length);
+        speeds = Arrays.copyOf(speeds, length);
+        fuelLevels = Arrays.copyOf(fuelLevels, length);
+        engineTemps = Arrays.copyOf(engineTemps, length);
+        storedMillis = Arrays.copyOf(storedMillis, length);
+        stored = Arrays.copyOf(stored, length);
+        seenMillis = Arrays.copyOf(seenMillis, length);
+        reportIntervals = Arrays.copyOf(reportIntervals, length);
+    }
+}
@@ -0,0 +1,360 @@
+package com.fleetmonitoring.persistence;
+
+import com.fleetmonitoring.model.Telemetry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only telemetry journal on local disk, written before anything touches Postgres.
+ * Records are fixed-width, so a position is simply a record sequence number and segment
+ * {@code n} holds positions {@code [n * segmentRecords, (n + 1) * segmentRecords)}:
+ * <pre>
+ *  0  int32   CRC32C of bytes 4..87
+ *  4  uint8   vehicleId length, then 3 bytes padding
+ *  8  byte[32] vehicleId (UTF-8, zero padded)
+ * 40  float64 latitude, longitude, speed, fuelLevel, engineTemp
+ * 80  int64   timestamp (epoch millis)
+ * </pre>
+ * Little-endian throughout. One thread appends (the persistence stage) and one thread reads and
+ * commits (the replayer); {@code writePosition} is the only hand-off between them. Segments are
+ * memory-mapped, so appended records survive a process crash without an fsync; the CRC lets
+ * recovery stop at a record torn by a power loss.
+ */
+@Component
+@Slf4j
+public class TelemetryJournal implements MeterBinder {
+
+    static final int RECORD_BYTES = 88;
+    // A segment is one mapping with int offsets, so it has to fit in 2 GiB.
+    static final int MAX_SEGMENT_RECORDS = Integer.MAX_VALUE / RECORD_BYTES;
+    private static final int ID_OFFSET = 8;
+    private static final int VALUES_OFFSET = ID_OFFSET + Telemetry.MAX_VEHICLE_ID_BYTES;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    @Value("${fleet.persistence.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.persistence.journal.directory:data/journal}")
+    private String directoryName;
+
+    @Value("${fleet.persistence.journal.segment-records:262144}")
+    private int segmentRecords;
+
+    @Value("${fleet.persistence.journal.max-segments:64}")
+    private int maxSegments;
+
+    @Value("${fleet.persistence.journal.sync-on-append:false}")
+    private boolean syncOnAppend;
+
+    private Path directory;
+    private final CRC32C writeCrc = new CRC32C();
+    private final CRC32C readCrc = new CRC32C();
+    private final byte[] idScratch = new byte[Telemetry.MAX_VEHICLE_ID_BYTES];
+
+    private volatile long writePosition;
+    private volatile long checkpoint;
+    private volatile long firstSegment;
+
+    // Owned by the appending thread.
+    private MappedByteBuffer writeBuffer;
+    private long writeSegment = -1;
+
+    // Owned by the reading thread.
+    private ByteBuffer readBuffer;
+    private long readSegment = -1;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (segmentRecords < 1 || segmentRecords > MAX_SEGMENT_RECORDS) {
+            throw new IllegalStateException("fleet.persistence.journal.segment-records must be between 1 and "
+                    + MAX_SEGMENT_RECORDS + ", was " + segmentRecords);
+        }
+        directory = Path.of(directoryName);
+        Files.createDirectories(directory);
+        long lastSegment = -1;
+        firstSegment = Long.MAX_VALUE;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                long index = segmentIndex(file);
+                if (index >= 0) {
+                    firstSegment = Math.min(firstSegment, index);
+                    lastSegment = Math.max(lastSegment, index);
+                }
+            }
+        }
+        long saved = readCheckpoint();
+        if (lastSegment < 0) {
+            writePosition = saved;
+            firstSegment = saved / segmentRecords;
+        } else {
+            writePosition = Math.max(recover(lastSegment), saved);
+        }
+        checkpoint = Math.max(saved, firstSegment * segmentRecords);
+        log.info("Telemetry journal opened in {} ({} records pending replay)",
+                directory.toAbsolutePath(), writePosition - checkpoint);
+    }
+
+    // The last segment ends at the first record whose CRC does not match: either never written
+    // (zero-filled) or torn by a crash mid-append. A crash before the file was sized leaves it short
+    // or empty; only whole records in it count, and the next append maps it at full size again.
+    private long recover(long segment) throws IOException {
+        ByteBuffer buffer = map(segment, FileChannel.MapMode.READ_ONLY);
+        long base = segment * segmentRecords;
+        int records = Math.min(segmentRecords, buffer.capacity() / RECORD_BYTES);
+        for (int i = 0; i < records; i++) {
+            if (!valid(buffer, i * RECORD_BYTES)) {
+                return base + i;
+            }
+        }
+        return base + records;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void append(List<Telemetry> batch) {
+        long start = writePosition;
+        for (Telemetry t : batch) {
+            byte[] id = t.getVehicleId().getBytes(StandardCharsets.UTF_8);
+            // Unreachable for registered vehicles, which FleetStateStore limits to the slot width.
+            if (id.length > Telemetry.MAX_VEHICLE_ID_BYTES) {
+                rejected.incrementAndGet();
+                continue;
+            }
+            long position = writePosition;
+            if (writeSegment != position / segmentRecords) {
+                rotateTo(position / segmentRecords);
+            }
+            write(writeBuffer, (int) (position % segmentRecords) * RECORD_BYTES, id, t);
+            writePosition = position + 1;
+        }
+        appended.addAndGet(writePosition - start);
+        if (syncOnAppend && writeBuffer != null) {
+            writeBuffer.force();
+        }
+    }
+
+    private void write(ByteBuffer buffer, int offset, byte[] id, Telemetry t) {
+        buffer.put(offset + 4, (byte) id.length);
+        buffer.put(offset + ID_OFFSET, id);
+        for (int i = id.length; i < Telemetry.MAX_VEHICLE_ID_BYTES; i++) {
+            buffer.put(offset + ID_OFFSET + i, (byte) 0);
+        }
+        buffer.putDouble(offset + VALUES_OFFSET, t.getLatitude());
+        buffer.putDouble(offset + VALUES_OFFSET + 8, t.getLongitude());
+        buffer.putDouble(offset + VALUES_OFFSET + 16, t.getSpeed());
+        buffer.putDouble(offset + VALUES_OFFSET + 24, t.getFuelLevel());
+        buffer.putDouble(offset + VALUES_OFFSET + 32, t.getEngineTemp());
+        buffer.putLong(offset + VALUES_OFFSET + 40, t.getTimestamp().toEpochMilli());
+        writeCrc.reset();
+        writeCrc.update(buffer.slice(offset + 4, RECORD_BYTES - 4));
+        buffer.putInt(offset, (int) writeCrc.getValue());
+    }
+
+    private void rotateTo(long segment) {
+        if (writeBuffer != null && syncOnAppend) {
+            writeBuffer.force();
+        }
+        try {
+            writeBuffer = map(segment, FileChannel.MapMode.READ_WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map journal segment " + segment, e);
+        }
+        writeSegment = segment;
+        // During a long outage the journal is bounded on disk: the oldest unreplayed segment goes.
+        long overflow = segment - maxSegments + 1;
+        if (overflow > firstSegment) {
+            long lost = overflow * segmentRecords - Math.max(checkpoint, firstSegment * segmentRecords);
+            dropped.addAndGet(Math.max(0, lost));
+            log.warn("Telemetry journal exceeded {} segments, dropped {} unreplayed records", maxSegments, lost);
+            deleteSegmentsBelow(overflow);
+        }
+    }
+
+    /**
+     * Reads records from {@code from} into {@code out}, never past the end of one segment.
+     * Returns the position after the last record read, which skips ahead when {@code from} was
+     * in a segment that has since been dropped.
+     */
+    public long read(long from, int max, List<Telemetry> out) {
+        long position = Math.max(from, firstSegment * segmentRecords);
+        long segment = position / segmentRecords;
+        long end = Math.min(writePosition, Math.min((segment + 1) * segmentRecords, position + max));
+        if (position >= end) {
+            return position;
+        }
+        // A segment recovered short is mapped at full size by the next append, so a read mapping
+        // taken before that has to be renewed once records are written past its end.
+        long needed = (end - segment * segmentRecords) * RECORD_BYTES;
+        if (segment != readSegment || readBuffer.capacity() < needed) {
+            try {
+                readBuffer = map(segment, FileChannel.MapMode.READ_ONLY);
+            } catch (NoSuchFileException e) {
+                return (segment + 1) * segmentRecords;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map journal segment " + segment, e);
+            }
+            readSegment = segment;
+            long mapped = segment * segmentRecords + readBuffer.capacity() / RECORD_BYTES;
+            end = Math.max(position, Math.min(end, mapped));
+        }
+        byte[] id = idScratch;
+        for (long p = position; p < end; p++) {
+            int offset = (int) (p % segmentRecords) * RECORD_BYTES;
+            int idLength = readBuffer.get(offset + 4) & 0xFF;
+            readBuffer.get(offset + ID_OFFSET, id, 0, idLength);
+            out.add(Telemetry.builder()
+                    .vehicleId(new String(id, 0, idLength, StandardCharsets.UTF_8))
+                    .latitude(readBuffer.getDouble(offset + VALUES_OFFSET))
+                    .longitude(readBuffer.getDouble(offset + VALUES_OFFSET + 8))
+                    .speed(readBuffer.getDouble(offset + VALUES_OFFSET + 16))
+                    .fuelLevel(readBuffer.getDouble(offset + VALUES_OFFSET + 24))
+                    .engineTemp(readBuffer.getDouble(offset + VALUES_OFFSET + 32))
+                    .timestamp(Instant.ofEpochMilli(readBuffer.getLong(offset + VALUES_OFFSET + 40)))
+                    .build());
+        }
+        return end;
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    public long writePosition() {
+        return writePosition;
+    }
+
+    public long getDroppedRecords() {
+        return dropped.get();
+    }
+
+    // Records below the position are in Postgres: persist the offset and delete finished segments.
+    public void commit(long position) {
+        if (position <= checkpoint) {
+            return;
+        }
+        checkpoint = position;
+        try {
+            Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            Files.write(tmp, ByteBuffer.allocate(Long.BYTES).putLong(position).array());
+            Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to persist journal checkpoint {}", position, e);
+        }
+        // The segment being appended to stays even when fully replayed.
+        deleteSegmentsBelow(Math.min(position / segmentRecords, writePosition / segmentRecords));
+    }
+
+    private synchronized void deleteSegmentsBelow(long segment) {
+        for (long index = firstSegment; index < segment; index++) {
+            try {
+                Files.deleteIfExists(segmentPath(index));
+            } catch (IOException e) {
+                log.warn("Failed to delete journal segment {}", index, e);
+            }
+        }
+        firstSegment = Math.max(firstSegment, segment);
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+    }
+
+    private boolean valid(ByteBuffer buffer, int offset) {
+        if (buffer.get(offset + 4) == 0) {
+            return false;
+        }
+        readCrc.reset();
+        readCrc.update(buffer.slice(offset + 4, RECORD_BYTES - 4));
+        return buffer.getInt(offset) == (int) readCrc.getValue();
+    }
+
+    private MappedByteBuffer map(long segment, FileChannel.MapMode mode) throws IOException {
+        Path path = segmentPath(segment);
+        OpenOption[] options = mode == FileChannel.MapMode.READ_WRITE
+                ? new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new OpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long size = mode == FileChannel.MapMode.READ_WRITE
+                    ? (long) segmentRecords * RECORD_BYTES
+                    : Math.min(channel.size(), (long) segmentRecords * RECORD_BYTES);
+            MappedByteBuffer buffer = channel.map(mode, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%016d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder("fleet.persistence.journal.records", appended, AtomicLong::get)
+                .tag("result", "appended").register(registry);
+        FunctionCounter.builder("fleet.persistence.journal.records", rejected, AtomicLong::get)
+                .tag("result", "rejected").register(registry);
+        FunctionCounter.builder("fleet.persistence.journal.records", dropped, AtomicLong::get)
+                .tag("result", "dropped").register(registry);
+        Gauge.builder("fleet.persistence.journal.pending", this, j -> j.writePosition - j.checkpoint)
+                .description("Journaled records not yet replayed into Postgres")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (writeBuffer != null) {
+            writeBuffer.force();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.fleetmonitoring.persistence;
+
+import com.fleetmonitoring.metrics.TickMetrics;
+import com.fleetmonitoring.metrics.TickMetrics.Stage;
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.service.TelemetryService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Drains the telemetry journal into Postgres from its checkpoint. A failed COPY is retried with
+// backoff on the same records, so an outage only grows the journal on disk, never the heap.
+// Delivery is at-least-once: a crash between COPY and checkpoint replays that batch again.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryJournalReplayer implements MeterBinder {
+
+    private final TelemetryJournal journal;
+    private final TelemetryService telemetryService;
+    private final TickMetrics tickMetrics;
+
+    @Value("${fleet.persistence.journal.replay-batch-size:5000}")
+    private int batchSize;
+
+    @Value("${fleet.persistence.journal.idle-ms:200}")
+    private long idleMs;
+
+    @Value("${fleet.persistence.journal.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${fleet.persistence.journal.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    private Thread replayer;
+    private volatile boolean running;
+
+    private final AtomicLong replayedRows = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        running = true;
+        replayer = new Thread(this::run, "telemetry-journal-replayer");
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    private void run() {
+        List<Telemetry> batch = new ArrayList<>(batchSize);
+        long backoffMs = retryBackoffMs;
+        while (running) {
+            long from = journal.checkpoint();
+            long next = journal.read(from, batchSize, batch);
+            if (batch.isEmpty()) {
+                if (next > from) {
+                    journal.commit(next);
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(idleMs));
+                }
+                continue;
+            }
+            try {
+                long start = System.nanoTime();
+                telemetryService.bulkInsert(batch);
+                tickMetrics.record(Stage.COPY, start, System.nanoTime());
+                replayedRows.addAndGet(batch.size());
+                journal.commit(next);
+                backoffMs = retryBackoffMs;
+            } catch (RuntimeException e) {
+                failedAttempts.incrementAndGet();
+                log.warn("Journal replay of {} rows failed, retrying in {}ms ({} records pending): {}",
+                        batch.size(), backoffMs, journal.writePosition() - from, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        FunctionCounter.builder("fleet.persistence.journal.records", replayedRows, AtomicLong::get)
+                .tag("result", "replayed").register(registry);
+        FunctionCounter.builder("fleet.persistence.journal.replay.failures", failedAttempts, AtomicLong::get)
+                .register(registry);
+    }
+
+    // Whatever is not replayed yet stays in the journal for the next start.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (replayer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(replayer);
+        replayer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
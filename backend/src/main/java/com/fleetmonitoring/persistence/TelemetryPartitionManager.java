@@ -0,0 +1,108 @@
+package com.fleetmonitoring.persistence;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Keeps daily telemetry partitions created ahead of the clock and drops whole partitions once they
+// fall out of retention, so expiring old data never turns into a large DELETE.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryPartitionManager {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    // Range bounds of every partition but the default one; MINVALUE lower bounds come back as null.
+    private static final String PARTITION_BOUNDS = """
+            SELECT relname,
+                   (regexp_match(bound, 'FROM \\(''([^'']+)''\\)'))[1]::timestamptz AS lower_bound,
+                   (regexp_match(bound, 'TO \\(''([^'']+)''\\)'))[1]::timestamptz AS upper_bound
+            FROM (SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound
+                  FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                  WHERE i.inhparent = 'telemetry'::regclass) p
+            WHERE bound <> 'DEFAULT'""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchemaMigrations schemaMigrations;
+
+    @Value("${fleet.telemetry.partitions.premake-days:2}")
+    private int premakeDays;
+
+    @Value("${fleet.telemetry.partitions.retention-days:30}")
+    private int retentionDays;
+
+    @PostConstruct
+    public void init() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${fleet.telemetry.partitions.maintenance-cron:0 5 * * * *}", zone = "UTC")
+    public void maintain() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int day = 0; day <= premakeDays; day++) {
+            try {
+                ensurePartition(today.plusDays(day));
+            } catch (RuntimeException e) {
+                log.error("Failed to create telemetry partition for {}", today.plusDays(day), e);
+            }
+        }
+        if (retentionDays > 0) {
+            dropExpired(today.minusDays(retentionDays));
+        }
+    }
+
+    private void ensurePartition(LocalDate day) {
+        String name = "telemetry_p" + SUFFIX.format(day);
+        String from = "'" + day + " 00:00:00+00'";
+        String to = "'" + day.plusDays(1) + " 00:00:00+00'";
+        Boolean covered = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM (" + PARTITION_BOUNDS + ") b " +
+                "WHERE coalesce(lower_bound, '-infinity') < " + to + " AND upper_bound > " + from + ")",
+                Boolean.class);
+        if (Boolean.TRUE.equals(covered)) {
+            return;
+        }
+
+        // A partition cannot be attached while the default partition still holds rows for its range,
+        // so any such rows are moved into the new table before it is attached.
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE telemetry INCLUDING DEFAULTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM telemetry_default " +
+                    "WHERE timestamp >= " + from + " AND timestamp < " + to + " RETURNING *) " +
+                    "INSERT INTO " + name + " SELECT * FROM moved");
+            jdbcTemplate.execute("ALTER TABLE telemetry ATTACH PARTITION " + name +
+                    " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+            if (moved > 0) {
+                log.info("Moved {} rows from telemetry_default into {}", moved, name);
+            }
+        });
+        log.info("Created telemetry partition {}", name);
+    }
+
+    private void dropExpired(LocalDate cutoff) {
+        String cutoffLiteral = cutoff + " 00:00:00+00";
+        List<String> expired = jdbcTemplate.queryForList("SELECT relname FROM (" + PARTITION_BOUNDS + ") b " +
+                "WHERE upper_bound <= ?::timestamptz", String.class, cutoffLiteral);
+        for (String partition : expired) {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Dropped expired telemetry partition {}", partition);
+        }
+
+        int purged = jdbcTemplate.update("DELETE FROM telemetry_default WHERE timestamp < ?::timestamptz",
+                cutoffLiteral);
+        if (purged > 0) {
+            log.info("Purged {} expired rows from telemetry_default", purged);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.fleetmonitoring.persistence;
+
+import com.fleetmonitoring.model.RollupResolution;
+import com.fleetmonitoring.repository.TelemetryRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Folds raw telemetry into 1-minute rollups and those into 1-hour rollups. Stored rows are weighted
+// by the readings the dead-band folded into them, counted at each vehicle's observed report interval. Minutes are only rolled up once they are
+// settle-seconds old so rows still waiting in the write-behind queue are included; the current hour
+// is re-aggregated on every run so hourly history reaches up to the last closed minute.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryRollupJob {
+
+    private final TelemetryRollupRepository rollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaMigrations schemaMigrations;
+    private final TelemetryDeadband deadband;
+
+    @Value("${fleet.telemetry.rollups.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.telemetry.rollups.settle-seconds:120}")
+    private long settleSeconds;
+
+    @Value("${fleet.telemetry.rollups.initial-lookback-hours:24}")
+    private long initialLookbackHours;
+
+    @Value("${fleet.telemetry.rollups.minute-retention-days:90}")
+    private int minuteRetentionDays;
+
+    @Value("${fleet.telemetry.rollups.hour-retention-days:730}")
+    private int hourRetentionDays;
+
+    private Instant watermark;
+
+    @Scheduled(fixedDelayString = "${fleet.telemetry.rollups.interval-ms:60000}",
+            initialDelayString = "${fleet.telemetry.rollups.interval-ms:60000}")
+    public void rollup() {
+        if (!enabled) {
+            return;
+        }
+        Instant to = Instant.now().minusSeconds(settleSeconds).truncatedTo(ChronoUnit.MINUTES);
+        Instant from = watermark != null ? watermark : initialWatermark(to);
+        if (!from.isBefore(to)) {
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            Duration step = deadband.getFillInterval();
+            List<String> vehicleIds = new ArrayList<>();
+            List<Long> intervals = new ArrayList<>();
+            deadband.forEachReportInterval((vehicleId, millis) -> {
+                vehicleIds.add(vehicleId);
+                intervals.add(millis);
+            });
+            int minutes = rollupRepository.rollupMinutes(from, to, deadband.getMaxSilence().plus(step), step,
+                    vehicleIds.toArray(String[]::new), intervals.stream().mapToLong(Long::longValue).toArray(),
+                    deadband.isEnabled());
+            int hours = rollupRepository.rollupHours(from, to);
+            watermark = to;
+            log.debug("Rolled up telemetry [{}, {}): {} minute rows, {} hour rows in {} ms",
+                    from, to, minutes, hours, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException e) {
+            log.error("Telemetry rollup for [{}, {}) failed, will retry", from, to, e);
+        }
+    }
+
+    @Scheduled(cron = "${fleet.telemetry.partitions.maintenance-cron:0 5 * * * *}", zone = "UTC")
+    public void expire() {
+        Instant now = Instant.now();
+        if (minuteRetentionDays > 0) {
+            rollupRepository.deleteOlderThan(RollupResolution.MINUTE, now.minus(minuteRetentionDays, ChronoUnit.DAYS));
+        }
+        if (hourRetentionDays > 0) {
+            rollupRepository.deleteOlderThan(RollupResolution.HOUR, now.minus(hourRetentionDays, ChronoUnit.DAYS));
+        }
+    }
+
+    // Resume from the last rolled-up minute, re-aggregating it, or start a bounded distance back.
+    private Instant initialWatermark(Instant to) {
+        Timestamp last = jdbcTemplate.queryForObject("SELECT max(bucket) FROM telemetry_rollup_1m", Timestamp.class);
+        Instant floor = to.minus(initialLookbackHours, ChronoUnit.HOURS);
+        if (last == null || last.toInstant().isBefore(floor)) {
+            return floor;
+        }
+        return last.toInstant();
+    }
+}
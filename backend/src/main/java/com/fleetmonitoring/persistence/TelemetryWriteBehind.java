@@ -0,0 +1,206 @@
+package com.fleetmonitoring.persistence;
+
+import com.fleetmonitoring.metrics.TickMetrics;
+import com.fleetmonitoring.metrics.TickMetrics.Stage;
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.service.TelemetryService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The persistence path when the journal is disabled; with the journal on, its replayer writes to
+// Postgres instead and this stays idle without a flusher thread.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryWriteBehind implements MeterBinder {
+
+    private final TelemetryService telemetryService;
+    private final TelemetryJournal journal;
+    private final TickMetrics tickMetrics;
+
+    @Value("${fleet.persistence.telemetry.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${fleet.persistence.telemetry.flush-size:5000}")
+    private int flushSize;
+
+    @Value("${fleet.persistence.telemetry.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${fleet.persistence.telemetry.backpressure:BLOCK}")
+    private BackpressurePolicy backpressure;
+
+    @Value("${fleet.persistence.telemetry.block-timeout-ms:500}")
+    private long blockTimeoutMs;
+
+    @Value("${fleet.persistence.telemetry.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<List<Telemetry>> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicLong droppedRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (journal.isEnabled()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::runFlusher, "telemetry-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Telemetry write-behind started (queue={} batches, flushSize={}, interval={}ms, policy={})",
+                queueCapacity, flushSize, flushIntervalMs, backpressure);
+    }
+
+    public void submit(List<Telemetry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!running) {
+            drop(batch, "write-behind is shut down");
+            return;
+        }
+        switch (backpressure) {
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(batch, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        drop(batch, "queue full after " + blockTimeoutMs + "ms");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(batch, "interrupted while waiting for queue space");
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!queue.offer(batch)) {
+                    drop(batch, "queue full");
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(batch)) {
+                    List<Telemetry> evicted = queue.poll();
+                    if (evicted != null) {
+                        drop(evicted, "evicted by newer batch");
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (journal.isEnabled()) {
+            return;
+        }
+        FunctionCounter.builder("fleet.persistence.telemetry.rows", writtenRows, AtomicLong::get)
+                .tag("result", "written").register(registry);
+        FunctionCounter.builder("fleet.persistence.telemetry.rows", droppedRows, AtomicLong::get)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("fleet.persistence.telemetry.rows", failedRows, AtomicLong::get)
+                .tag("result", "failed").register(registry);
+        Gauge.builder("fleet.persistence.telemetry.queued.batches", this, TelemetryWriteBehind::getQueuedBatches)
+                .register(registry);
+    }
+
+    public int getQueuedBatches() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    public long getDroppedRows() {
+        return droppedRows.get();
+    }
+
+    public long getFailedRows() {
+        return failedRows.get();
+    }
+
+    private void drop(List<Telemetry> batch, String reason) {
+        droppedRows.addAndGet(batch.size());
+        log.warn("Dropped {} telemetry rows: {}", batch.size(), reason);
+    }
+
+    private void runFlusher() {
+        List<Telemetry> buffer = new ArrayList<>(flushSize);
+        long nextFlush = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                long waitNanos = Math.max(0, nextFlush - System.nanoTime());
+                List<Telemetry> batch = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                if (batch != null) {
+                    buffer.addAll(batch);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown signal; the loop condition decides whether anything is left to drain.
+            }
+
+            if (buffer.size() >= flushSize || System.nanoTime() >= nextFlush) {
+                flush(buffer);
+                nextFlush = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+            }
+        }
+        flush(buffer);
+    }
+
+    private void flush(List<Telemetry> buffer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        int flushed = 0;
+        try {
+            while (flushed < buffer.size()) {
+                int end = Math.min(flushed + flushSize, buffer.size());
+                long start = System.nanoTime();
+                writtenRows.addAndGet(telemetryService.bulkInsert(buffer.subList(flushed, end)));
+                tickMetrics.record(Stage.COPY, start, System.nanoTime());
+                flushed = end;
+            }
+        } catch (RuntimeException e) {
+            failedRows.addAndGet(buffer.size() - flushed);
+            log.error("Failed to flush {} telemetry rows", buffer.size() - flushed, e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join(shutdownTimeoutMs);
+        if (flusher.isAlive()) {
+            log.warn("Telemetry write-behind did not drain within {}ms, {} batches left",
+                    shutdownTimeoutMs, queue.size());
+        } else {
+            log.info("Telemetry write-behind drained, {} rows written", writtenRows.get());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.fleetmonitoring.repository;
+
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface AlertRepositoryCustom {
+
+    // Inserts with the ids already assigned by the live alert index.
+    int insertAll(List<Alert> alerts);
+
+    // Alerts with fromId <= id < beforeId, newest first; null filters match everything.
+    List<Alert> findPage(String vehicleId, AlertType type, Severity severity, long fromId, long beforeId, int limit);
+
+    long maxId();
+
+    // Alert counts grouped by minute, type and severity since the given instant.
+    void countByMinute(Instant since, Consumer<MinuteCount> sink);
+
+    record MinuteCount(long epochMinute, AlertType type, Severity severity, long count) {
+    }
+}
@@ -7,12 +7,16 @@ import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TelemetryRepository extends JpaRepository<Telemetry, Long> {
+public interface TelemetryRepository extends JpaRepository<Telemetry, Long>, TelemetryRepositoryCustom {
 
     List<Telemetry> findByVehicleIdOrderByTimestampDesc(String vehicleId, Pageable pageable);
 
     List<Telemetry> findByVehicleIdAndTimestampBetweenOrderByTimestampDesc(
             String vehicleId, Instant from, Instant to);
+
+    Optional<Telemetry> findFirstByVehicleIdAndTimestampBetweenOrderByTimestampDesc(
+            String vehicleId, Instant from, Instant to);
 }
@@ -0,0 +1,21 @@
+package com.fleetmonitoring.repository;
+
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.model.TelemetryCursor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface TelemetryRepositoryCustom {
+
+    long copyIn(List<Telemetry> telemetryList);
+
+    /**
+     * Streams matching rows in ascending (timestamp, id) order through a server-side cursor.
+     * The same Telemetry instance is refilled for every row, so the sink must not keep it.
+     * Must be called inside a transaction, otherwise the driver buffers the whole result.
+     */
+    long streamHistory(String vehicleId, Instant from, Instant to, TelemetryCursor after, int limit,
+                       Consumer<Telemetry> sink);
+}
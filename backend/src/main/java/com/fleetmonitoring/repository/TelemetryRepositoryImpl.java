@@ -0,0 +1,148 @@
+package com.fleetmonitoring.repository;
+
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.model.TelemetryCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class TelemetryRepositoryImpl implements TelemetryRepositoryCustom {
+
+    private static final String COPY_SQL =
+            "COPY telemetry (vehicle_id, latitude, longitude, speed, fuel_level, engine_temp, timestamp) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final DataSource dataSource;
+
+    @Value("${fleet.telemetry.stream.fetch-size:2000}")
+    private int fetchSize;
+
+    // Bypasses Hibernate entirely: IDENTITY ids make JPA insert one row per round trip,
+    // while COPY streams the whole batch and lets Postgres assign the ids.
+    @Override
+    public long copyIn(List<Telemetry> telemetryList) {
+        if (telemetryList.isEmpty()) {
+            return 0;
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder chunk = new StringBuilder(CHUNK_BYTES + 256);
+                for (Telemetry t : telemetryList) {
+                    appendRow(chunk, t);
+                    if (chunk.length() >= CHUNK_BYTES) {
+                        writeChunk(copy, chunk);
+                    }
+                }
+                writeChunk(copy, chunk);
+                return copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("COPY into telemetry failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    @Override
+    public long streamHistory(String vehicleId, Instant from, Instant to, TelemetryCursor after, int limit,
+                              Consumer<Telemetry> sink) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, vehicle_id, latitude, longitude, speed, fuel_level, engine_temp, timestamp " +
+                "FROM telemetry WHERE vehicle_id = ?");
+        List<Object> params = new ArrayList<>(6);
+        params.add(vehicleId);
+        if (from != null) {
+            sql.append(" AND timestamp >= ?");
+            params.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND timestamp <= ?");
+            params.add(Timestamp.from(to));
+        }
+        if (after != null) {
+            sql.append(" AND (timestamp, id) > (?, ?)");
+            params.add(Timestamp.from(after.timestamp()));
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY timestamp, id");
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            Telemetry row = new Telemetry();
+            long count = 0;
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    row.setId(rs.getLong(1));
+                    row.setVehicleId(rs.getString(2));
+                    row.setLatitude(rs.getDouble(3));
+                    row.setLongitude(rs.getDouble(4));
+                    row.setSpeed(rs.getDouble(5));
+                    row.setFuelLevel(rs.getDouble(6));
+                    row.setEngineTemp(rs.getDouble(7));
+                    row.setTimestamp(rs.getTimestamp(8).toInstant());
+                    sink.accept(row);
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Streaming telemetry history failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void appendRow(StringBuilder sb, Telemetry t) {
+        sb.append('"');
+        String vehicleId = t.getVehicleId();
+        for (int i = 0; i < vehicleId.length(); i++) {
+            char c = vehicleId.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"').append(',')
+                .append(t.getLatitude()).append(',')
+                .append(t.getLongitude()).append(',')
+                .append(t.getSpeed()).append(',')
+                .append(t.getFuelLevel()).append(',')
+                .append(t.getEngineTemp()).append(',')
+                .append(t.getTimestamp()).append('\n');
+    }
+
+    private static void writeChunk(CopyIn copy, StringBuilder chunk) throws SQLException {
+        if (chunk.length() == 0) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
@@ -0,0 +1,152 @@
+package com.fleetmonitoring.repository;
+
+import com.fleetmonitoring.model.RollupResolution;
+import com.fleetmonitoring.model.TelemetryRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Rollup tables are maintained in SQL by TelemetryRollupJob rather than mapped as JPA entities.
+@Repository
+@RequiredArgsConstructor
+public class TelemetryRollupRepository {
+
+    private static final String COLUMNS =
+            "vehicle_id, bucket, samples, min_speed, max_speed, avg_speed, " +
+            "min_fuel_level, max_fuel_level, avg_fuel_level, " +
+            "min_engine_temp, max_engine_temp, avg_engine_temp, " +
+            "last_latitude, last_longitude, last_timestamp";
+
+    // Raw rows are folded into closed minutes. Late rows for a minute already rolled up re-aggregate
+    // that minute from scratch, so the upsert simply replaces it.
+    //
+    // The dead-band stores a parked vehicle once a minute and a moving one at every report, so rows
+    // are weighted by how long they stood for: until the next stored row, or one report interval when
+    // the gap is longer than the heartbeat, exactly as TelemetryDeadband.fillForward rebuilds them.
+    // Each span is split across the minutes it overlaps, so a row carries into the next minute the way
+    // filled readings do, and `samples` counts the readings the span represents at the vehicle's
+    // report interval (the default step for vehicles without one). Rows up to a heartbeat either side
+    // of the range are read to find those spans.
+    private static final String ROLLUP_MINUTES_SQL =
+            "INSERT INTO telemetry_rollup_1m (" + COLUMNS + ") " +
+            "WITH p AS (SELECT date_trunc('minute', ?::timestamptz) AS lo, ?::timestamptz AS hi, " +
+            "? * interval '1 millisecond' AS max_gap, ? * interval '1 millisecond' AS step, " +
+            "? * interval '1 millisecond' AS reach, ?::boolean AS filled), " +
+            "steps AS (SELECT v.vehicle_id, v.step_ms * interval '1 millisecond' AS step " +
+            "FROM unnest(?::text[], ?::int8[]) AS v(vehicle_id, step_ms)), " +
+            "stored AS (SELECT t.vehicle_id, t.timestamp AS ts, t.speed, t.fuel_level, t.engine_temp, " +
+            "t.latitude, t.longitude, coalesce(v.step, p.step) AS step, " +
+            "lead(t.timestamp) OVER (PARTITION BY t.vehicle_id ORDER BY t.timestamp, t.id) AS next_ts " +
+            "FROM p, telemetry t LEFT JOIN steps v ON v.vehicle_id = t.vehicle_id " +
+            "WHERE t.timestamp >= p.lo - p.reach AND t.timestamp < p.hi + p.reach), " +
+            "spans AS (SELECT s.*, CASE WHEN s.next_ts - s.ts <= p.max_gap - p.step + s.step THEN s.next_ts " +
+            "ELSE s.ts + s.step END AS span_end FROM stored s, p), " +
+            "pieces AS (SELECT s.*, m AS bucket, " +
+            "extract(epoch FROM least(s.span_end, m + interval '1 minute') - greatest(s.ts, m)) AS weight " +
+            "FROM spans s, generate_series(date_trunc('minute', s.ts), s.span_end - interval '1 microsecond', " +
+            "interval '1 minute') AS m WHERE s.span_end > s.ts) " +
+            "SELECT x.vehicle_id, x.bucket, " +
+            "greatest(1, CASE WHEN p.filled THEN round(sum(x.weight / extract(epoch FROM x.step))) " +
+            "ELSE count(*) FILTER (WHERE x.ts >= x.bucket) END), " +
+            "min(x.speed), max(x.speed), sum(x.speed * x.weight) / sum(x.weight), " +
+            "min(x.fuel_level), max(x.fuel_level), sum(x.fuel_level * x.weight) / sum(x.weight), " +
+            "min(x.engine_temp), max(x.engine_temp), sum(x.engine_temp * x.weight) / sum(x.weight), " +
+            "(array_agg(x.latitude ORDER BY x.ts DESC))[1], " +
+            "(array_agg(x.longitude ORDER BY x.ts DESC))[1], max(greatest(x.ts, x.bucket)) " +
+            "FROM pieces x, p WHERE x.bucket >= p.lo AND x.bucket < p.hi " +
+            "GROUP BY x.vehicle_id, x.bucket, p.filled " +
+            "ON CONFLICT (vehicle_id, bucket) DO UPDATE SET " + excludedAssignments();
+
+    private static final String ROLLUP_HOURS_SQL =
+            "INSERT INTO telemetry_rollup_1h (" + COLUMNS + ") " +
+            "SELECT vehicle_id, date_trunc('hour', bucket), sum(samples), " +
+            "min(min_speed), max(max_speed), sum(avg_speed * samples) / sum(samples), " +
+            "min(min_fuel_level), max(max_fuel_level), sum(avg_fuel_level * samples) / sum(samples), " +
+            "min(min_engine_temp), max(max_engine_temp), sum(avg_engine_temp * samples) / sum(samples), " +
+            "(array_agg(last_latitude ORDER BY last_timestamp DESC))[1], " +
+            "(array_agg(last_longitude ORDER BY last_timestamp DESC))[1], max(last_timestamp) " +
+            "FROM telemetry_rollup_1m WHERE bucket >= date_trunc('hour', ?::timestamptz) AND bucket < ? " +
+            "GROUP BY 1, 2 " +
+            "ON CONFLICT (vehicle_id, bucket) DO UPDATE SET " + excludedAssignments();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // {@code maxGap} is the longest gap a stored row is held across and {@code step} the weight of a
+    // row that is not; {@code filled} counts samples as filled readings rather than stored rows.
+    public int rollupMinutes(Instant from, Instant to, Duration maxGap, Duration step, boolean filled) {
+        return rollupMinutes(from, to, maxGap, step, new String[0], new long[0], filled);
+    }
+
+    // As above, with the report interval of each listed vehicle in place of {@code step}; the longest
+    // gap for such a vehicle is the heartbeat plus its own interval.
+    public int rollupMinutes(Instant from, Instant to, Duration maxGap, Duration step, String[] vehicleIds,
+                             long[] stepMillis, boolean filled) {
+        long longestStep = step.toMillis();
+        for (long millis : stepMillis) {
+            longestStep = Math.max(longestStep, millis);
+        }
+        long reach = maxGap.toMillis() - step.toMillis() + longestStep;
+        return jdbcTemplate.update(ROLLUP_MINUTES_SQL, Timestamp.from(from), Timestamp.from(to),
+                maxGap.toMillis(), step.toMillis(), reach, filled, vehicleIds, stepMillis);
+    }
+
+    public int rollupHours(Instant from, Instant to) {
+        return jdbcTemplate.update(ROLLUP_HOURS_SQL, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    public int deleteOlderThan(RollupResolution resolution, Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + resolution.getTable() + " WHERE bucket < ?",
+                Timestamp.from(cutoff));
+    }
+
+    public List<TelemetryRollup> findByVehicleIdBetween(RollupResolution resolution, String vehicleId,
+                                                        Instant from, Instant to) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM " + resolution.getTable() +
+                " WHERE vehicle_id = ? AND bucket >= ? AND bucket <= ? ORDER BY bucket DESC",
+                (rs, rowNum) -> map(rs, resolution),
+                vehicleId, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    private static TelemetryRollup map(ResultSet rs, RollupResolution resolution) throws SQLException {
+        return TelemetryRollup.builder()
+                .vehicleId(rs.getString("vehicle_id"))
+                .resolution(resolution)
+                .bucket(rs.getTimestamp("bucket").toInstant())
+                .samples(rs.getInt("samples"))
+                .minSpeed(rs.getDouble("min_speed"))
+                .maxSpeed(rs.getDouble("max_speed"))
+                .avgSpeed(rs.getDouble("avg_speed"))
+                .minFuelLevel(rs.getDouble("min_fuel_level"))
+                .maxFuelLevel(rs.getDouble("max_fuel_level"))
+                .avgFuelLevel(rs.getDouble("avg_fuel_level"))
+                .minEngineTemp(rs.getDouble("min_engine_temp"))
+                .maxEngineTemp(rs.getDouble("max_engine_temp"))
+                .avgEngineTemp(rs.getDouble("avg_engine_temp"))
+                .lastLatitude(rs.getDouble("last_latitude"))
+                .lastLongitude(rs.getDouble("last_longitude"))
+                .lastTimestamp(rs.getTimestamp("last_timestamp").toInstant())
+                .build();
+    }
+
+    private static String excludedAssignments() {
+        StringBuilder sb = new StringBuilder();
+        for (String column : COLUMNS.split(", ")) {
+            if (column.equals("vehicle_id") || column.equals("bucket")) {
+                continue;
+            }
+            if (!sb.isEmpty()) {
+                sb.append(", ");
+            }
+            sb.append(column).append(" = EXCLUDED.").append(column);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package com.fleetmonitoring.repository;
+
+import java.util.function.ObjLongConsumer;
+
+public interface VehicleRepositoryCustom {
+
+    // Parallel arrays: index i of every array describes the same vehicle.
+    int upsertVehicleStates(String[] vehicleIds, double[] latitudes, double[] longitudes,
+                            double[] speeds, double[] fuelLevels, double[] engineTemps,
+                            long[] updatedMillis);
+
+    // Passes the primary key of each of the given vehicles that has a row.
+    void findIds(String[] vehicleIds, ObjLongConsumer<String> sink);
+}
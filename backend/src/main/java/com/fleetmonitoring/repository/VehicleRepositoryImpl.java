@@ -0,0 +1,48 @@
+package com.fleetmonitoring.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.function.ObjLongConsumer;
+
+@RequiredArgsConstructor
+public class VehicleRepositoryImpl implements VehicleRepositoryCustom {
+
+    // One round trip per tick: the driver ships each column as a single array parameter
+    // and Postgres unnests them back into rows, so cost no longer scales with statement count.
+    private static final String UPSERT_SQL =
+            "INSERT INTO vehicles (vehicle_id, last_latitude, last_longitude, last_speed, " +
+            "last_fuel_level, last_engine_temp, last_updated) " +
+            "SELECT s.vehicle_id, s.lat, s.lng, s.speed, s.fuel, s.temp, to_timestamp(s.updated / 1000.0) " +
+            "FROM unnest(?::text[], ?::float8[], ?::float8[], ?::float8[], ?::float8[], ?::float8[], ?::int8[]) " +
+            "AS s(vehicle_id, lat, lng, speed, fuel, temp, updated) " +
+            "ON CONFLICT (vehicle_id) DO UPDATE SET " +
+            "last_latitude = EXCLUDED.last_latitude, last_longitude = EXCLUDED.last_longitude, " +
+            "last_speed = EXCLUDED.last_speed, last_fuel_level = EXCLUDED.last_fuel_level, " +
+            "last_engine_temp = EXCLUDED.last_engine_temp, last_updated = EXCLUDED.last_updated";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertVehicleStates(String[] vehicleIds, double[] latitudes, double[] longitudes,
+                                   double[] speeds, double[] fuelLevels, double[] engineTemps,
+                                   long[] updatedMillis) {
+        if (vehicleIds.length == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update(UPSERT_SQL,
+                vehicleIds, latitudes, longitudes, speeds, fuelLevels, engineTemps, updatedMillis);
+    }
+
+    @Override
+    public void findIds(String[] vehicleIds, ObjLongConsumer<String> sink) {
+        if (vehicleIds.length == 0) {
+            return;
+        }
+        jdbcTemplate.query("SELECT vehicle_id, id FROM vehicles WHERE vehicle_id = ANY(?::text[])",
+                rs -> {
+                    sink.accept(rs.getString(1), rs.getLong(2));
+                },
+                (Object) vehicleIds);
+    }
+}
@@ -1,13 +1,17 @@
 package com.fleetmonitoring.service;
 
 import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertCounts;
+import com.fleetmonitoring.model.AlertPage;
 import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
 import com.fleetmonitoring.repository.AlertRepository;
+import com.fleetmonitoring.state.RecentAlertIndex;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
 
 @Service
@@ -15,21 +19,23 @@ import java.util.List;
 public class AlertService {
 
     private final AlertRepository alertRepository;
+    private final RecentAlertIndex alertIndex;
 
-    @Transactional
-    public void saveAll(List<Alert> alerts) {
-        alertRepository.saveAll(alerts);
-    }
+    @Value("${fleet.alerts.index.max-page-size:1000}")
+    private int maxPageSize;
 
-    public List<Alert> getRecent(int limit) {
-        return alertRepository.findAllByOrderByTimestampDesc(PageRequest.of(0, limit));
+    public int saveAll(List<Alert> alerts) {
+        return alertRepository.insertAll(alerts);
     }
 
-    public List<Alert> getByType(AlertType type, int limit) {
-        return alertRepository.findByAlertTypeOrderByTimestampDesc(type, PageRequest.of(0, limit));
+    public AlertPage getPage(String vehicleId, AlertType type, Severity severity, Long before, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        return alertIndex.page(vehicleId, type, severity, before, limit);
     }
 
-    public List<Alert> getByVehicleId(String vehicleId) {
-        return alertRepository.findByVehicleIdOrderByTimestampDesc(vehicleId);
+    public AlertCounts getCounts(Duration window) {
+        return alertIndex.counts(window);
     }
 }
@@ -0,0 +1,119 @@
+package com.fleetmonitoring.service;
+
+import com.fleetmonitoring.geofence.GeofenceEngine;
+import com.fleetmonitoring.model.GeoPoint;
+import com.fleetmonitoring.model.Geofence;
+import com.fleetmonitoring.model.GeofenceShape;
+import com.fleetmonitoring.repository.GeofenceRepository;
+import com.fleetmonitoring.spatial.GeoMath;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+// Every change is saved first and then the engine's index is rebuilt from the table, so the
+// live index never holds a fence the database does not. Rebuilds are serialised: each one reads
+// the table after its own change committed, so the last index swapped in is never older than the
+// last change.
+@Service
+@RequiredArgsConstructor
+public class GeofenceService {
+
+    // Circles are tested on a local flat projection whose longitude scale is 1/cos(latitude), which
+    // blows up at the poles; fences there have to be polygons.
+    private static final double MAX_CIRCLE_LATITUDE = 85;
+
+    private final GeofenceRepository geofenceRepository;
+    private final GeofenceEngine geofenceEngine;
+
+    @PostConstruct
+    public synchronized void loadIndex() {
+        geofenceEngine.reload(geofenceRepository.findAll());
+    }
+
+    public List<Geofence> findAll() {
+        return geofenceRepository.findAll();
+    }
+
+    public Optional<Geofence> findById(long id) {
+        return geofenceRepository.findById(id);
+    }
+
+    public Geofence create(Geofence geofence) {
+        validate(geofence);
+        geofence.setId(null);
+        geofence.setUpdatedAt(Instant.now());
+        Geofence saved = geofenceRepository.save(geofence);
+        loadIndex();
+        return saved;
+    }
+
+    public Optional<Geofence> update(long id, Geofence geofence) {
+        validate(geofence);
+        if (!geofenceRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        geofence.setId(id);
+        geofence.setUpdatedAt(Instant.now());
+        Geofence saved = geofenceRepository.save(geofence);
+        loadIndex();
+        return Optional.of(saved);
+    }
+
+    public boolean delete(long id) {
+        if (!geofenceRepository.existsById(id)) {
+            return false;
+        }
+        geofenceRepository.deleteById(id);
+        loadIndex();
+        return true;
+    }
+
+    private static void validate(Geofence fence) {
+        if (fence.getName() == null || fence.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (fence.getCategory() == null || fence.getShape() == null) {
+            throw new IllegalArgumentException("category and shape are required");
+        }
+        if (fence.getDwellLimitSeconds() != null && fence.getDwellLimitSeconds() < 0) {
+            throw new IllegalArgumentException("dwellLimitSeconds must not be negative");
+        }
+        if (fence.getShape() == GeofenceShape.CIRCLE) {
+            if (fence.getCenterLatitude() == null || fence.getCenterLongitude() == null
+                    || fence.getRadiusMeters() == null || !(fence.getRadiusMeters() > 0)
+                    || Double.isInfinite(fence.getRadiusMeters())) {
+                throw new IllegalArgumentException("a circle needs centerLatitude, centerLongitude and a positive radiusMeters");
+            }
+            checkPoint(fence.getCenterLatitude(), fence.getCenterLongitude());
+            double extentDeg = fence.getRadiusMeters() / (GeoMath.KM_PER_DEG_LAT * 1000);
+            if (Math.abs(fence.getCenterLatitude()) + extentDeg > MAX_CIRCLE_LATITUDE) {
+                throw new IllegalArgumentException("a circle must stay within " + MAX_CIRCLE_LATITUDE
+                        + " degrees of latitude; use a polygon nearer the poles");
+            }
+            fence.setVertices(null);
+        } else {
+            if (fence.getVertices() == null || fence.getVertices().size() < 3) {
+                throw new IllegalArgumentException("a polygon needs at least 3 vertices");
+            }
+            for (GeoPoint vertex : fence.getVertices()) {
+                if (vertex == null) {
+                    throw new IllegalArgumentException("polygon vertices must not be null");
+                }
+                checkPoint(vertex.latitude(), vertex.longitude());
+            }
+            fence.setCenterLatitude(null);
+            fence.setCenterLongitude(null);
+            fence.setRadiusMeters(null);
+        }
+    }
+
+    private static void checkPoint(double lat, double lng) {
+        if (!(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)) {
+            throw new IllegalArgumentException("coordinate out of range: " + lat + ", " + lng);
+        }
+    }
+}
@@ -1,33 +1,130 @@
 package com.fleetmonitoring.service;
 
+import com.fleetmonitoring.model.RollupResolution;
 import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.model.TelemetryCursor;
+import com.fleetmonitoring.model.TelemetryRollup;
+import com.fleetmonitoring.model.Vehicle;
+import com.fleetmonitoring.persistence.TelemetryDeadband;
 import com.fleetmonitoring.repository.TelemetryRepository;
+import com.fleetmonitoring.repository.TelemetryRollupRepository;
+import com.fleetmonitoring.state.FleetStateStore;
+import com.fleetmonitoring.state.RecentTelemetryCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class TelemetryService {
 
     private final TelemetryRepository telemetryRepository;
+    private final TelemetryRollupRepository rollupRepository;
+    private final RecentTelemetryCache recentTelemetry;
+    private final TelemetryDeadband deadband;
+    private final FleetStateStore fleetStateStore;
+
+    @Value("${fleet.telemetry.rollups.raw-max-range:PT6H}")
+    private Duration rawMaxRange;
+
+    @Value("${fleet.telemetry.rollups.minute-max-range:P7D}")
+    private Duration minuteMaxRange;
 
     @Transactional
     public void saveAll(List<Telemetry> telemetryList) {
         telemetryRepository.saveAll(telemetryList);
     }
 
+    @Transactional
+    public long bulkInsert(List<Telemetry> telemetryList) {
+        return telemetryRepository.copyIn(telemetryList);
+    }
+
+    // The cache holds every reading; Postgres only holds what passed the dead-band, so rows read
+    // from it are filled forward to the same series.
     public List<Telemetry> getHistory(String vehicleId, int limit) {
-        return telemetryRepository.findByVehicleIdOrderByTimestampDesc(
-                vehicleId, PageRequest.of(0, limit));
+        return recentTelemetry.latest(vehicleId, limit).orElseGet(() -> {
+            List<Telemetry> rows = telemetryRepository.findByVehicleIdOrderByTimestampDesc(
+                    vehicleId, PageRequest.of(0, limit));
+            List<Telemetry> filled = fillForward(vehicleId, null, rows, null, null);
+            return filled.size() > limit ? new ArrayList<>(filled.subList(0, limit)) : filled;
+        });
     }
 
     public List<Telemetry> getHistoryBetween(String vehicleId, Instant from, Instant to) {
-        return telemetryRepository.findByVehicleIdAndTimestampBetweenOrderByTimestampDesc(
-                vehicleId, from, to);
+        return recentTelemetry.between(vehicleId, from, to).orElseGet(() -> {
+            List<Telemetry> rows = telemetryRepository.findByVehicleIdAndTimestampBetweenOrderByTimestampDesc(
+                    vehicleId, from, to);
+            if (!deadband.isEnabled()) {
+                return rows;
+            }
+            Telemetry previous = telemetryRepository.findFirstByVehicleIdAndTimestampBetweenOrderByTimestampDesc(
+                    vehicleId, from.minus(deadband.getMaxSilence()), from.minusMillis(1)).orElse(null);
+            return fillForward(vehicleId, previous, rows, from, to);
+        });
+    }
+
+    // Takes and returns newest-first rows. The series is filled up to the vehicle's live reading,
+    // since everything between its last stored row and that reading was suppressed.
+    private List<Telemetry> fillForward(String vehicleId, Telemetry previous, List<Telemetry> newestFirst,
+                                        Instant from, Instant to) {
+        if (!deadband.isEnabled()) {
+            return newestFirst;
+        }
+        Instant until = fillUntil(vehicleId, to);
+        List<Telemetry> ascending = new ArrayList<>(newestFirst);
+        Collections.reverse(ascending);
+        List<Telemetry> filled = deadband.fillForward(previous, ascending, from, until);
+        Collections.reverse(filled);
+        return filled;
+    }
+
+    private Instant fillUntil(String vehicleId, Instant to) {
+        Instant until = fleetStateStore.findVehicle(vehicleId).map(Vehicle::getLastUpdated).orElse(null);
+        return until != null && to != null && to.isBefore(until) ? to : until;
+    }
+
+    // Stored rows are filled forward like getHistoryBetween, seeded from the row the cursor points
+    // at or the last one before from. The limit counts stored rows so the cursor always names a real
+    // row; the tail up to the live reading is only filled once the last page is reached.
+    @Transactional(readOnly = true)
+    public long streamHistory(String vehicleId, Instant from, Instant to, TelemetryCursor after, int limit,
+                              Consumer<Telemetry> sink) {
+        if (!deadband.isEnabled()) {
+            return telemetryRepository.streamHistory(vehicleId, from, to, after, limit, sink);
+        }
+        Instant seedEnd = after != null ? after.timestamp() : from != null ? from.minusMillis(1) : null;
+        Telemetry previous = seedEnd == null ? null
+                : telemetryRepository.findFirstByVehicleIdAndTimestampBetweenOrderByTimestampDesc(
+                        vehicleId, seedEnd.minus(deadband.getMaxSilence()), seedEnd).orElse(null);
+        TelemetryDeadband.ForwardFill filled = deadband.fillForward(previous, from, sink);
+        long rows = telemetryRepository.streamHistory(vehicleId, from, to, after, limit, filled);
+        if (limit <= 0 || rows < limit) {
+            filled.finish(fillUntil(vehicleId, to));
+        }
+        return rows;
+    }
+
+    // Null means the range is short enough to be served from raw telemetry.
+    public RollupResolution resolutionFor(Instant from, Instant to) {
+        Duration range = Duration.between(from, to);
+        if (range.compareTo(rawMaxRange) <= 0) {
+            return null;
+        }
+        return range.compareTo(minuteMaxRange) <= 0 ? RollupResolution.MINUTE : RollupResolution.HOUR;
+    }
+
+    public List<TelemetryRollup> getRollupsBetween(RollupResolution resolution, String vehicleId,
+                                                   Instant from, Instant to) {
+        return rollupRepository.findByVehicleIdBetween(resolution, vehicleId, from, to);
     }
 }
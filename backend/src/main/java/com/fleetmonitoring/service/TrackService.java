@@ -0,0 +1,123 @@
+package com.fleetmonitoring.service;
+
+import com.fleetmonitoring.model.Track;
+import com.fleetmonitoring.model.TrackPoint;
+import com.fleetmonitoring.repository.TelemetryRepository;
+import com.fleetmonitoring.spatial.GeoMath;
+import com.fleetmonitoring.track.PolylineEncoder;
+import com.fleetmonitoring.track.TrackPoints;
+import com.fleetmonitoring.track.TrackSimplifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class TrackService {
+
+    // Web Mercator ground resolution at the equator for zoom 0, in metres per pixel.
+    private static final double METERS_PER_PIXEL_ZOOM_0 = 156_543.03392;
+
+    private final TelemetryRepository telemetryRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fleet.track.max-range:P2D}")
+    private Duration maxRange;
+
+    @Value("${fleet.track.default-tolerance-meters:5}")
+    private double defaultToleranceMeters;
+
+    @Value("${fleet.track.tolerance-pixels:1.0}")
+    private double tolerancePixels;
+
+    private Counter rawPoints;
+    private Counter keptPoints;
+
+    @PostConstruct
+    public void init() {
+        rawPoints = Counter.builder("fleet.track.points").tag("result", "raw")
+                .description("Telemetry readings loaded for track requests")
+                .register(meterRegistry);
+        keptPoints = Counter.builder("fleet.track.points").tag("result", "kept")
+                .description("Track points left after simplification")
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    public Track getTrack(String vehicleId, Instant from, Instant to, Integer zoom, Double toleranceMeters) {
+        TrackPoints track = load(vehicleId, from, to);
+        double tolerance = tolerance(track, zoom, toleranceMeters);
+        int[] kept = simplify(track, tolerance);
+
+        long[] times = new long[kept.length];
+        long[] speeds = new long[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            times[i] = Math.floorDiv(track.timeMillis(kept[i]), 1000);
+            speeds[i] = Math.round(track.speed(kept[i]) * 10);
+        }
+        return new Track(vehicleId, from, to, tolerance, track.size(), kept.length, distanceKm(track),
+                PolylineEncoder.positions(track, kept, PolylineEncoder.PRECISION_5),
+                PolylineEncoder.deltas(times), PolylineEncoder.deltas(speeds));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TrackPoint> getTrackPoints(String vehicleId, Instant from, Instant to,
+                                           Integer zoom, Double toleranceMeters) {
+        TrackPoints track = load(vehicleId, from, to);
+        return track.toList(simplify(track, tolerance(track, zoom, toleranceMeters)));
+    }
+
+    private TrackPoints load(String vehicleId, Instant from, Instant to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from and to are required and from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("A track may span at most " + maxRange);
+        }
+        TrackPoints track = new TrackPoints();
+        telemetryRepository.streamHistory(vehicleId, from, to, null, 0, track::add);
+        return track;
+    }
+
+    private int[] simplify(TrackPoints track, double tolerance) {
+        int[] kept = TrackSimplifier.simplify(track, tolerance);
+        rawPoints.increment(track.size());
+        keptPoints.increment(kept.length);
+        return kept;
+    }
+
+    // An explicit tolerance wins; otherwise a zoom level maps to tolerance-pixels at that zoom.
+    private double tolerance(TrackPoints track, Integer zoom, Double toleranceMeters) {
+        if (toleranceMeters != null) {
+            if (!(toleranceMeters >= 0)) {
+                throw new IllegalArgumentException("toleranceMeters must not be negative");
+            }
+            return toleranceMeters;
+        }
+        if (zoom == null) {
+            return defaultToleranceMeters;
+        }
+        if (zoom < 0 || zoom > 22) {
+            throw new IllegalArgumentException("zoom must be between 0 and 22");
+        }
+        double lat = track.size() > 0 ? track.latitude(0) : 0;
+        return tolerancePixels * METERS_PER_PIXEL_ZOOM_0 * Math.cos(Math.toRadians(lat)) / (1 << zoom);
+    }
+
+    private static double distanceKm(TrackPoints track) {
+        double km = 0;
+        for (int i = 1; i < track.size(); i++) {
+            km += GeoMath.haversineKm(track.latitude(i - 1), track.longitude(i - 1),
+                    track.latitude(i), track.longitude(i));
+        }
+        return km;
+    }
+}
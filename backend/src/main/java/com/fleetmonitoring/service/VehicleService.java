@@ -1,12 +1,17 @@
 package com.fleetmonitoring.service;
 
+import com.fleetmonitoring.model.NearbyVehicle;
 import com.fleetmonitoring.model.Vehicle;
 import com.fleetmonitoring.repository.VehicleRepository;
+import com.fleetmonitoring.spatial.LiveVehicleIndex;
+import com.fleetmonitoring.state.FleetSnapshot;
+import com.fleetmonitoring.state.FleetStateStore;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,11 +20,50 @@ import java.util.Optional;
 public class VehicleService {
 
     private final VehicleRepository vehicleRepository;
+    private final FleetStateStore fleetStateStore;
+    private final LiveVehicleIndex liveVehicleIndex;
+
+    @Value("${fleet.vehicles.search.max-results:1000}")
+    private int maxSearchResults;
+
+    @Value("${fleet.vehicles.search.max-radius-km:500}")
+    private double maxSearchRadiusKm;
 
     public List<Vehicle> findAll() {
         return vehicleRepository.findAll();
     }
 
+    public List<Vehicle> getLiveVehicles() {
+        FleetSnapshot snapshot = fleetStateStore.snapshot();
+        return snapshot.isEmpty() ? vehicleRepository.findAll() : snapshot.toVehicles();
+    }
+
+    public Optional<Vehicle> findLiveVehicle(String vehicleId) {
+        if (fleetStateStore.snapshot().isEmpty()) {
+            return vehicleRepository.findByVehicleId(vehicleId);
+        }
+        return fleetStateStore.findVehicle(vehicleId);
+    }
+
+    public List<NearbyVehicle> findNearest(double lat, double lng, int k) {
+        checkPoint(lat, lng);
+        if (k < 1 || k > maxSearchResults) {
+            throw new IllegalArgumentException("k must be between 1 and " + maxSearchResults);
+        }
+        return liveVehicleIndex.nearest(lat, lng, k);
+    }
+
+    public List<NearbyVehicle> findWithin(double lat, double lng, double radiusKm, int limit) {
+        checkPoint(lat, lng);
+        if (!(radiusKm > 0 && radiusKm <= maxSearchRadiusKm)) {
+            throw new IllegalArgumentException("radiusKm must be greater than 0 and at most " + maxSearchRadiusKm);
+        }
+        if (limit < 1 || limit > maxSearchResults) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxSearchResults);
+        }
+        return liveVehicleIndex.within(lat, lng, radiusKm, limit);
+    }
+
     public Optional<Vehicle> findByVehicleId(String vehicleId) {
         return vehicleRepository.findByVehicleId(vehicleId);
     }
@@ -33,9 +77,27 @@ public class VehicleService {
         return vehicleRepository.saveAll(vehicles);
     }
 
+    // Vehicles the store registered since the last mirror learn their row id here, so the live
+    // views report the same id as the table.
     @Transactional
-    public void updateVehicleState(String vehicleId, double lat, double lng,
-                                   double speed, double fuel, double temp) {
-        vehicleRepository.updateVehicleState(vehicleId, lat, lng, speed, fuel, temp, Instant.now());
+    public int updateVehicleStates(FleetSnapshot snapshot) {
+        int rows = vehicleRepository.upsertVehicleStates(snapshot.getVehicleIds(),
+                snapshot.getLatitudes(), snapshot.getLongitudes(), snapshot.getSpeeds(),
+                snapshot.getFuelLevels(), snapshot.getEngineTemps(), snapshot.getUpdatedMillis());
+        List<String> unassigned = new ArrayList<>();
+        long[] databaseIds = snapshot.getDatabaseIds();
+        for (int i = 0; i < snapshot.getSize(); i++) {
+            if (databaseIds[i] == 0) {
+                unassigned.add(snapshot.getVehicleIds()[i]);
+            }
+        }
+        vehicleRepository.findIds(unassigned.toArray(String[]::new), fleetStateStore::assignDatabaseId);
+        return rows;
+    }
+
+    private static void checkPoint(double lat, double lng) {
+        if (!(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)) {
+            throw new IllegalArgumentException("lat must be within [-90, 90] and lng within [-180, 180]");
+        }
     }
 }
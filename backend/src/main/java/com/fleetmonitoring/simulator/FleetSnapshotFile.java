@@ -0,0 +1,130 @@
+package com.fleetmonitoring.simulator;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary checkpoint of the simulator fleet, little-endian:
+ * <pre>
+ * int32   magic "FLTS", int32 version, int32 vehicle count, int64 saved at (epoch millis)
+ * repeated:
+ *   float64 latitude, longitude, speed, fuelLevel, engineTemp, heading, targetSpeed
+ *   int32   stopTicks
+ *   uint16  vehicleId length, followed by that many UTF-8 bytes (a uint8 length in version 1)
+ * </pre>
+ * Encoding happens on the tick thread between ticks, so the state is consistent; writing the
+ * encoded bytes can then happen anywhere. Files are replaced atomically, never edited in place.
+ */
+final class FleetSnapshotFile {
+
+    private static final int MAGIC = 0x464C5453;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES;
+    private static final int FIXED_RECORD_BYTES = 7 * Double.BYTES + Integer.BYTES + Short.BYTES;
+    private static final int MAX_ID_BYTES = 0xFFFF;
+
+    private FleetSnapshotFile() {
+    }
+
+    static ByteBuffer encode(List<VehicleState> states, long savedAtMillis) {
+        byte[][] ids = new byte[states.size()][];
+        int size = HEADER_BYTES;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = states.get(i).vehicleId.getBytes(StandardCharsets.UTF_8);
+            if (ids[i].length > MAX_ID_BYTES) {
+                throw new IllegalArgumentException("vehicleId of " + ids[i].length + " bytes does not fit a fleet snapshot");
+            }
+            size += FIXED_RECORD_BYTES + ids[i].length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(ids.length).putLong(savedAtMillis);
+        for (int i = 0; i < ids.length; i++) {
+            VehicleState s = states.get(i);
+            buf.putDouble(s.latitude).putDouble(s.longitude).putDouble(s.speed)
+                    .putDouble(s.fuelLevel).putDouble(s.engineTemp)
+                    .putDouble(s.heading).putDouble(s.targetSpeed)
+                    .putInt(s.stopTicks)
+                    .putShort((short) ids[i].length).put(ids[i]);
+        }
+        return buf.flip();
+    }
+
+    static void write(Path path, ByteBuffer encoded) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = parent.resolve(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+            channel.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps and decodes the whole file. Nothing is registered here, so a file that turns out to be
+     * truncated leaves no trace in the fleet state store.
+     * Throws {@link IOException} for a missing, foreign or truncated file.
+     */
+    static List<Entry> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+                throw new IOException("Not a fleet snapshot: " + path);
+            }
+            int version = buf.getInt();
+            if (version != 1 && version != VERSION) {
+                throw new IOException("Unsupported fleet snapshot version " + version + ": " + path);
+            }
+            // Version 1 stored the id length in one byte.
+            int recordBytes = version == 1 ? FIXED_RECORD_BYTES - 1 : FIXED_RECORD_BYTES;
+            int count = buf.getInt();
+            buf.getLong();
+            if (count < 0 || (long) count * recordBytes > buf.remaining()) {
+                throw new IOException("Fleet snapshot declares " + count + " vehicles but is " + channel.size() + " bytes");
+            }
+            List<Entry> entries = new ArrayList<>(count);
+            byte[] id = new byte[version == 1 ? 0xFF : MAX_ID_BYTES];
+            for (int i = 0; i < count; i++) {
+                double lat = buf.getDouble();
+                double lng = buf.getDouble();
+                double speed = buf.getDouble();
+                double fuel = buf.getDouble();
+                double temp = buf.getDouble();
+                double heading = buf.getDouble();
+                double targetSpeed = buf.getDouble();
+                int stopTicks = buf.getInt();
+                int idLength = version == 1 ? buf.get() & 0xFF : buf.getShort() & 0xFFFF;
+                buf.get(id, 0, idLength);
+                String vehicleId = new String(id, 0, idLength, StandardCharsets.UTF_8);
+                entries.add(new Entry(vehicleId, lat, lng, speed, fuel, temp, heading, targetSpeed, stopTicks));
+            }
+            return entries;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated fleet snapshot: " + path, e);
+        }
+    }
+
+    record Entry(String vehicleId, double latitude, double longitude, double speed, double fuelLevel,
+                 double engineTemp, double heading, double targetSpeed, int stopTicks) {
+
+        VehicleState toState(int ordinal) {
+            return new VehicleState(ordinal, vehicleId, latitude, longitude, speed, fuelLevel, engineTemp,
+                    heading, targetSpeed, stopTicks);
+        }
+    }
+}
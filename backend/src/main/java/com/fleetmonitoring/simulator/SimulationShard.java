@@ -0,0 +1,43 @@
+package com.fleetmonitoring.simulator;
+
+import com.fleetmonitoring.model.Telemetry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Owns a contiguous slice of the fleet and its own RNG, so shards never contend with each other.
+class SimulationShard {
+
+    private final List<VehicleState> states;
+    private final int from;
+    private final int to;
+    private final SplittableRandom rng;
+
+    SimulationShard(List<VehicleState> states, int from, int to, SplittableRandom rng) {
+        this.states = states;
+        this.from = from;
+        this.to = to;
+        this.rng = rng;
+    }
+
+    List<Telemetry> run(Instant now) {
+        List<Telemetry> telemetry = new ArrayList<>(to - from);
+
+        for (int i = from; i < to; i++) {
+            VehicleState state = states.get(i);
+            state.evolve(rng);
+            telemetry.add(Telemetry.builder()
+                    .vehicleId(state.vehicleId)
+                    .latitude(state.latitude)
+                    .longitude(state.longitude)
+                    .speed(state.speed)
+                    .fuelLevel(state.fuelLevel)
+                    .engineTemp(state.engineTemp)
+                    .timestamp(now)
+                    .build());
+        }
+        return telemetry;
+    }
+}
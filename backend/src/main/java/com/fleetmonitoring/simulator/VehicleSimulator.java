@@ -1,24 +1,30 @@
 package com.fleetmonitoring.simulator;
 
-import com.fleetmonitoring.alert.AlertEngine;
-import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.ingest.TelemetryIngest;
+import com.fleetmonitoring.metrics.TickMetrics;
+import com.fleetmonitoring.metrics.TickMetrics.Stage;
 import com.fleetmonitoring.model.Telemetry;
 import com.fleetmonitoring.model.Vehicle;
-import com.fleetmonitoring.service.AlertService;
-import com.fleetmonitoring.service.TelemetryService;
 import com.fleetmonitoring.service.VehicleService;
-import com.fleetmonitoring.websocket.WebSocketBroadcaster;
+import com.fleetmonitoring.state.FleetSnapshot;
+import com.fleetmonitoring.state.FleetStateStore;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @RequiredArgsConstructor
@@ -26,14 +32,16 @@ import java.util.concurrent.ThreadLocalRandom;
 public class VehicleSimulator {
 
     private final VehicleService vehicleService;
-    private final TelemetryService telemetryService;
-    private final AlertService alertService;
-    private final AlertEngine alertEngine;
-    private final WebSocketBroadcaster broadcaster;
+    private final FleetStateStore fleetStateStore;
+    private final TelemetryIngest ingest;
+    private final TickMetrics tickMetrics;
 
     @Value("${fleet.simulator.vehicle-count:500}")
     private int vehicleCount;
 
+    @Value("${fleet.simulator.shards:0}")
+    private int shardCount;
+
     @Value("${fleet.simulator.region.center-lat:-26.20}")
     private double centerLat;
 
@@ -46,60 +54,201 @@ public class VehicleSimulator {
     @Value("${fleet.simulator.region.spread-lng:0.18}")
     private double spreadLng;
 
-    private final Map<String, VehicleState> vehicleStates = new ConcurrentHashMap<>();
+    @Value("${fleet.simulator.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${fleet.simulator.snapshot.path:data/fleet.snapshot}")
+    private String snapshotFile;
+
+    @Value("${fleet.simulator.snapshot.interval-ms:30000}")
+    private long snapshotIntervalMs;
+
+    private final List<VehicleState> vehicleStates = new ArrayList<>();
+    private final List<SimulationShard> shards = new ArrayList<>();
+    private ExecutorService shardPool;
+    private ExecutorService snapshotWriter;
+    private final AtomicBoolean snapshotIdle = new AtomicBoolean(true);
+    private long nextSnapshotNanos;
+    // Held for a whole tick, so shutdown can wait out the one in flight before its final snapshot.
+    private final Object tickLock = new Object();
+    private boolean stopped;
 
     private static final String[] PROVINCE_CODES = {"GP", "NW", "MP", "LP", "KZN", "WC", "EC", "FS", "NC"};
     private static final double[] PROVINCE_WEIGHTS = {0.70, 0.05, 0.05, 0.03, 0.05, 0.04, 0.03, 0.03, 0.02};
+    private static final int LETTER_COMBINATIONS = 26 * 26 * 26;
+    private static final long PLATE_COMBINATIONS = 900L * LETTER_COMBINATIONS;
 
     @PostConstruct
     public void init() {
-        List<Vehicle> existing = vehicleService.findAll();
-        if (existing.size() >= vehicleCount) {
-            existing.forEach(v -> vehicleStates.put(v.getVehicleId(), new VehicleState(
-                    v.getVehicleId(), v.getLastLatitude(), v.getLastLongitude(),
-                    v.getLastSpeed(), v.getLastFuelLevel(), v.getLastEngineTemp())));
-            log.info("Loaded {} existing vehicles from database", existing.size());
-            return;
+        long started = System.nanoTime();
+        if (!restoreSnapshot() && !loadFromDatabase()) {
+            seedFleet();
+        }
+        createShards();
+        log.info("Fleet of {} vehicles ready in {} ms", vehicleStates.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private boolean restoreSnapshot() {
+        if (!snapshotEnabled || !Files.exists(snapshotPath())) {
+            return false;
+        }
+        try {
+            List<FleetSnapshotFile.Entry> restored = FleetSnapshotFile.read(snapshotPath()).stream()
+                    .filter(entry -> registrable(entry.vehicleId()))
+                    .toList();
+            if (restored.size() < vehicleCount) {
+                log.info("Fleet snapshot has {} vehicles, fewer than the configured {}", restored.size(), vehicleCount);
+                return false;
+            }
+            // Only a complete, accepted snapshot reaches the store.
+            for (FleetSnapshotFile.Entry entry : restored) {
+                vehicleStates.add(entry.toState(fleetStateStore.register(entry.vehicleId())));
+            }
+            publishStates(System.currentTimeMillis());
+            log.info("Restored {} vehicles from {}", restored.size(), snapshotPath());
+            return true;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable fleet snapshot {}: {}", snapshotPath(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean loadFromDatabase() {
+        List<Vehicle> existing = vehicleService.findAll().stream()
+                .filter(v -> registrable(v.getVehicleId()))
+                .toList();
+        if (existing.size() < vehicleCount) {
+            return false;
+        }
+        existing.forEach(v -> {
+            vehicleStates.add(new VehicleState(
+                    fleetStateStore.register(v.getVehicleId()), v.getVehicleId(),
+                    v.getLastLatitude(), v.getLastLongitude(),
+                    v.getLastSpeed(), v.getLastFuelLevel(), v.getLastEngineTemp()));
+            fleetStateStore.assignDatabaseId(v.getVehicleId(), v.getId());
+        });
+        publishStates(System.currentTimeMillis());
+        log.info("Loaded {} existing vehicles from database", existing.size());
+        return true;
+    }
+
+    // Ids too long for the telemetry journal are left out rather than simulated and never stored.
+    private static boolean registrable(String vehicleId) {
+        if (Telemetry.fitsVehicleId(vehicleId)) {
+            return true;
         }
+        log.warn("Skipping vehicle {}: its id is longer than {} bytes", vehicleId, Telemetry.MAX_VEHICLE_ID_BYTES);
+        return false;
+    }
 
+    // First boot: plates come from a random permutation of the plate number space, so they are
+    // unique without a retry set, and the whole fleet reaches the vehicles table in one upsert.
+    private void seedFleet() {
         log.info("Initializing {} vehicles in the Gauteng region", vehicleCount);
+        if (vehicleCount > PLATE_COMBINATIONS) {
+            throw new IllegalStateException("Cannot generate " + vehicleCount + " unique plates");
+        }
         ThreadLocalRandom rng = ThreadLocalRandom.current();
-        List<Vehicle> vehicles = new ArrayList<>(vehicleCount);
-        Set<String> usedPlates = new HashSet<>();
+        long stride;
+        do {
+            stride = rng.nextLong(1, PLATE_COMBINATIONS);
+        } while (gcd(stride, PLATE_COMBINATIONS) != 1);
+        long offset = rng.nextLong(PLATE_COMBINATIONS);
 
         for (int i = 0; i < vehicleCount; i++) {
-            String plate = generatePlate(rng, usedPlates);
+            String plate = plate(pickProvince(rng), (int) ((offset + i * stride) % PLATE_COMBINATIONS));
             double lat = centerLat + (rng.nextDouble() - 0.5) * 2 * spreadLat;
             double lng = centerLng + (rng.nextDouble() - 0.5) * 2 * spreadLng;
             double speed = 30 + rng.nextDouble() * 70;
             double fuel = 40 + rng.nextDouble() * 60;
             double temp = 75 + rng.nextDouble() * 15;
-
-            vehicleStates.put(plate, new VehicleState(plate, lat, lng, speed, fuel, temp));
-            vehicles.add(Vehicle.builder()
-                    .vehicleId(plate)
-                    .lastLatitude(lat).lastLongitude(lng)
-                    .lastSpeed(speed).lastFuelLevel(fuel).lastEngineTemp(temp)
-                    .lastUpdated(Instant.now())
-                    .build());
+            vehicleStates.add(new VehicleState(
+                    fleetStateStore.register(plate), plate, lat, lng, speed, fuel, temp));
         }
 
-        vehicleService.saveAll(vehicles);
+        vehicleService.updateVehicleStates(publishStates(System.currentTimeMillis()));
         log.info("Saved {} vehicles to database", vehicleCount);
     }
 
-    private String generatePlate(ThreadLocalRandom rng, Set<String> used) {
-        String plate;
-        do {
-            String province = pickProvince(rng);
-            int digits = rng.nextInt(100, 1000);
-            char c1 = (char) ('A' + rng.nextInt(26));
-            char c2 = (char) ('A' + rng.nextInt(26));
-            char c3 = (char) ('A' + rng.nextInt(26));
-            plate = String.format("%s %03d %c%c%c", province, digits, c1, c2, c3);
-        } while (used.contains(plate));
-        used.add(plate);
-        return plate;
+    private void createShards() {
+        int shardTotal = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        shardTotal = Math.max(1, Math.min(shardTotal, vehicleStates.size()));
+        SplittableRandom seed = new SplittableRandom();
+        int perShard = (vehicleStates.size() + shardTotal - 1) / shardTotal;
+        for (int from = 0; from < vehicleStates.size(); from += perShard) {
+            int to = Math.min(from + perShard, vehicleStates.size());
+            shards.add(new SimulationShard(vehicleStates, from, to, seed.split()));
+        }
+
+        if (snapshotEnabled) {
+            snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "simulator-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            nextSnapshotNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(snapshotIntervalMs);
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        shardPool = Executors.newFixedThreadPool(shards.size(), r -> {
+            Thread thread = new Thread(r, "simulator-shard-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Simulating {} vehicles across {} shards", vehicleStates.size(), shards.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ByteBuffer encoded = null;
+        synchronized (tickLock) {
+            stopped = true;
+            if (snapshotWriter != null) {
+                encoded = FleetSnapshotFile.encode(vehicleStates, System.currentTimeMillis());
+            }
+        }
+        if (shardPool != null) {
+            shardPool.shutdownNow();
+        }
+        if (snapshotWriter != null) {
+            snapshotWriter.shutdown();
+            try {
+                snapshotWriter.awaitTermination(5, TimeUnit.SECONDS);
+                FleetSnapshotFile.write(snapshotPath(), encoded);
+            } catch (IOException e) {
+                log.error("Failed to write fleet snapshot on shutdown", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // "GP 482 BKT": combination / 26^3 picks the digits, the remainder the three letters.
+    private static String plate(String province, int combination) {
+        int digits = 100 + combination / LETTER_COMBINATIONS;
+        int letters = combination % LETTER_COMBINATIONS;
+        int p = province.length();
+        char[] plate = new char[p + 8];
+        province.getChars(0, p, plate, 0);
+        plate[p] = ' ';
+        plate[p + 1] = (char) ('0' + digits / 100);
+        plate[p + 2] = (char) ('0' + digits / 10 % 10);
+        plate[p + 3] = (char) ('0' + digits % 10);
+        plate[p + 4] = ' ';
+        plate[p + 5] = (char) ('A' + letters / (26 * 26));
+        plate[p + 6] = (char) ('A' + letters / 26 % 26);
+        plate[p + 7] = (char) ('A' + letters % 26);
+        return new String(plate);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
     }
 
     private String pickProvince(ThreadLocalRandom rng) {
@@ -114,115 +263,74 @@ public class VehicleSimulator {
 
     @Scheduled(fixedRateString = "${fleet.simulator.tick-interval-ms:1000}")
     public void simulateTick() {
-        Instant now = Instant.now();
-        List<Telemetry> telemetryBatch = new ArrayList<>(vehicleStates.size());
-        List<Alert> alertBatch = new ArrayList<>();
-
-        for (VehicleState state : vehicleStates.values()) {
-            state.evolve();
-
-            Telemetry t = Telemetry.builder()
-                    .vehicleId(state.vehicleId)
-                    .latitude(state.latitude)
-                    .longitude(state.longitude)
-                    .speed(state.speed)
-                    .fuelLevel(state.fuelLevel)
-                    .engineTemp(state.engineTemp)
-                    .timestamp(now)
-                    .build();
-
-            telemetryBatch.add(t);
-            alertBatch.addAll(alertEngine.evaluate(t));
+        synchronized (tickLock) {
+            if (!stopped) {
+                tick();
+            }
         }
+    }
 
-        telemetryService.saveAll(telemetryBatch);
-
-        for (VehicleState state : vehicleStates.values()) {
-            vehicleService.updateVehicleState(
-                    state.vehicleId, state.latitude, state.longitude,
-                    state.speed, state.fuelLevel, state.engineTemp);
+    private void tick() {
+        long start = System.nanoTime();
+        tickMetrics.simulatorTickStarted(start);
+        Instant now = Instant.now();
+        List<Callable<List<Telemetry>>> tasks = new ArrayList<>(shards.size());
+        for (SimulationShard shard : shards) {
+            tasks.add(() -> shard.run(now));
         }
 
-        if (!alertBatch.isEmpty()) {
-            alertService.saveAll(alertBatch);
+        List<Telemetry> telemetryBatch = new ArrayList<>(vehicleStates.size());
+        try {
+            for (Future<List<Telemetry>> future : shardPool.invokeAll(tasks)) {
+                telemetryBatch.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            log.error("Simulation shard failed, skipping tick", e.getCause());
+            return;
         }
+        long simulated = System.nanoTime();
+        tickMetrics.record(Stage.SIMULATE, start, simulated);
 
-        broadcaster.broadcastTelemetryBatch(telemetryBatch);
-        alertBatch.forEach(broadcaster::broadcastAlert);
+        if (!ingest.publishAll(telemetryBatch, TelemetryIngest.SOURCE_SIMULATOR)) {
+            log.warn("Ingest buffer full ({} queued), dropped simulated tick of {} readings",
+                    ingest.queueDepth(), telemetryBatch.size());
+        }
+        long end = System.nanoTime();
+        tickMetrics.record(Stage.INGEST, simulated, end);
+        checkpoint(start, now);
+        tickMetrics.finished(TickMetrics.Component.SIMULATOR, start, end);
     }
 
-    static class VehicleState {
-        final String vehicleId;
-        double latitude;
-        double longitude;
-        double speed;
-        double fuelLevel;
-        double engineTemp;
-        double heading;
-        double targetSpeed;
-        int stopTicks;
-
-        VehicleState(String vehicleId, double lat, double lng,
-                     double speed, double fuel, double temp) {
-            this.vehicleId = vehicleId;
-            this.latitude = lat;
-            this.longitude = lng;
-            this.speed = speed;
-            this.fuelLevel = fuel;
-            this.engineTemp = temp;
-            this.heading = ThreadLocalRandom.current().nextDouble() * 2 * Math.PI;
-            this.targetSpeed = speed;
-            this.stopTicks = 0;
-        }
-
-        void evolve() {
-            ThreadLocalRandom rng = ThreadLocalRandom.current();
-
-            if (stopTicks > 0) {
-                stopTicks--;
-                speed = Math.max(0, speed * 0.7);
-                engineTemp += (75 - engineTemp) * 0.1 + (rng.nextDouble() - 0.5) * 0.5;
-                engineTemp = Math.max(60, Math.min(125, engineTemp));
-                fuelLevel -= 0.005 + rng.nextDouble() * 0.01;
-                if (fuelLevel < 5) fuelLevel = 80 + rng.nextDouble() * 20;
-                return;
-            }
-            if (rng.nextDouble() < 0.03) {
-                stopTicks = 5 + rng.nextInt(11);
-                return;
-            }
-
-            double steerAmount = 0.15 / (1 + speed * 0.01);
-            heading += (rng.nextDouble() - 0.5) * 2 * steerAmount;
-
-            if (rng.nextDouble() < 0.05) {
-                heading += (rng.nextDouble() - 0.5) * Math.PI * 0.5;
+    // Encoded here, while no shard is running, so the snapshot is consistent; the disk write is async.
+    private void checkpoint(long tickNanos, Instant now) {
+        if (snapshotWriter == null || tickNanos - nextSnapshotNanos < 0 || !snapshotIdle.compareAndSet(true, false)) {
+            return;
+        }
+        nextSnapshotNanos = tickNanos + TimeUnit.MILLISECONDS.toNanos(snapshotIntervalMs);
+        ByteBuffer encoded = FleetSnapshotFile.encode(vehicleStates, now.toEpochMilli());
+        snapshotWriter.execute(() -> {
+            try {
+                FleetSnapshotFile.write(snapshotPath(), encoded);
+            } catch (IOException e) {
+                log.error("Failed to write fleet snapshot to {}", snapshotPath(), e);
+            } finally {
+                snapshotIdle.set(true);
             }
+        });
+    }
 
-            double speedKmH = Math.max(speed, 0);
-            double distanceDeg = (speedKmH / 3600.0) * 0.009;
-            latitude += Math.cos(heading) * distanceDeg;
-            longitude += Math.sin(heading) * distanceDeg;
-
-            if (rng.nextDouble() < 0.1) {
-                targetSpeed = 20 + rng.nextDouble() * 120;
-            }
-            speed += (targetSpeed - speed) * (0.05 + rng.nextDouble() * 0.1);
-            speed += (rng.nextDouble() - 0.5) * 3;
-            speed = Math.max(0, Math.min(160, speed));
-
-            double consumption = 0.01 + (speed / 160.0) * 0.07 + rng.nextDouble() * 0.02;
-            fuelLevel -= consumption;
-            if (fuelLevel < 5) {
-                fuelLevel = 80 + rng.nextDouble() * 20;
-            }
+    private Path snapshotPath() {
+        return Path.of(snapshotFile);
+    }
 
-            double baseTemp = 72 + (speed / 160.0) * 25;
-            engineTemp += (baseTemp - engineTemp) * 0.08 + (rng.nextDouble() - 0.5) * 2;
-            if (rng.nextDouble() < 0.015) {
-                engineTemp += 12 + rng.nextDouble() * 10;
-            }
-            engineTemp = Math.max(60, Math.min(125, engineTemp));
+    private FleetSnapshot publishStates(long updatedMillis) {
+        for (VehicleState state : vehicleStates) {
+            fleetStateStore.update(state.ordinal, state.latitude, state.longitude,
+                    state.speed, state.fuelLevel, state.engineTemp, updatedMillis);
         }
+        return fleetStateStore.publish();
     }
 }
@@ -0,0 +1,87 @@
+package com.fleetmonitoring.simulator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+class VehicleState {
+    final int ordinal;
+    final String vehicleId;
+    double latitude;
+    double longitude;
+    double speed;
+    double fuelLevel;
+    double engineTemp;
+    double heading;
+    double targetSpeed;
+    int stopTicks;
+
+    VehicleState(int ordinal, String vehicleId, double lat, double lng,
+                 double speed, double fuel, double temp) {
+        this.ordinal = ordinal;
+        this.vehicleId = vehicleId;
+        this.latitude = lat;
+        this.longitude = lng;
+        this.speed = speed;
+        this.fuelLevel = fuel;
+        this.engineTemp = temp;
+        this.heading = ThreadLocalRandom.current().nextDouble() * 2 * Math.PI;
+        this.targetSpeed = speed;
+        this.stopTicks = 0;
+    }
+
+    VehicleState(int ordinal, String vehicleId, double lat, double lng, double speed, double fuel,
+                 double temp, double heading, double targetSpeed, int stopTicks) {
+        this(ordinal, vehicleId, lat, lng, speed, fuel, temp);
+        this.heading = heading;
+        this.targetSpeed = targetSpeed;
+        this.stopTicks = stopTicks;
+    }
+
+    void evolve(SplittableRandom rng) {
+        if (stopTicks > 0) {
+            stopTicks--;
+            speed = Math.max(0, speed * 0.7);
+            engineTemp += (75 - engineTemp) * 0.1 + (rng.nextDouble() - 0.5) * 0.5;
+            engineTemp = Math.max(60, Math.min(125, engineTemp));
+            fuelLevel -= 0.005 + rng.nextDouble() * 0.01;
+            if (fuelLevel < 5) fuelLevel = 80 + rng.nextDouble() * 20;
+            return;
+        }
+        if (rng.nextDouble() < 0.03) {
+            stopTicks = 5 + rng.nextInt(11);
+            return;
+        }
+
+        double steerAmount = 0.15 / (1 + speed * 0.01);
+        heading += (rng.nextDouble() - 0.5) * 2 * steerAmount;
+
+        if (rng.nextDouble() < 0.05) {
+            heading += (rng.nextDouble() - 0.5) * Math.PI * 0.5;
+        }
+
+        double speedKmH = Math.max(speed, 0);
+        double distanceDeg = (speedKmH / 3600.0) * 0.009;
+        latitude += Math.cos(heading) * distanceDeg;
+        longitude += Math.sin(heading) * distanceDeg;
+
+        if (rng.nextDouble() < 0.1) {
+            targetSpeed = 20 + rng.nextDouble() * 120;
+        }
+        speed += (targetSpeed - speed) * (0.05 + rng.nextDouble() * 0.1);
+        speed += (rng.nextDouble() - 0.5) * 3;
+        speed = Math.max(0, Math.min(160, speed));
+
+        double consumption = 0.01 + (speed / 160.0) * 0.07 + rng.nextDouble() * 0.02;
+        fuelLevel -= consumption;
+        if (fuelLevel < 5) {
+            fuelLevel = 80 + rng.nextDouble() * 20;
+        }
+
+        double baseTemp = 72 + (speed / 160.0) * 25;
+        engineTemp += (baseTemp - engineTemp) * 0.08 + (rng.nextDouble() - 0.5) * 2;
+        if (rng.nextDouble() < 0.015) {
+            engineTemp += 12 + rng.nextDouble() * 10;
+        }
+        engineTemp = Math.max(60, Math.min(125, engineTemp));
+    }
+}
@@ -0,0 +1,25 @@
+package com.fleetmonitoring.spatial;
+
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    public static final double KM_PER_DEG_LAT = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private GeoMath() {
+    }
+
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        return haversineKm(lat1, Math.cos(Math.toRadians(lat1)), lng1, lat2, lng2);
+    }
+
+    // For one origin against many points: the caller computes cos(lat1) once.
+    public static double haversineKm(double lat1, double cosLat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLng = Math.sin(dLng / 2);
+        double a = sinLat * sinLat
+                + cosLat1 * Math.cos(Math.toRadians(lat2)) * sinLng * sinLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,165 @@
+package com.fleetmonitoring.spatial;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform lat/lng grid over vehicle ordinals, updated incrementally: a vehicle only touches the
+ * index when it crosses into a different cell. Not thread-safe; owned by a single writer thread.
+ */
+public class GridIndex {
+
+    private final double cellSizeDeg;
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    private Cell[] cellOf = new Cell[0];
+    private int[] slotOf = new int[0];
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+
+    public GridIndex(double cellSizeDeg) {
+        this.cellSizeDeg = cellSizeDeg;
+    }
+
+    public void update(int ordinal, double lat, double lng) {
+        ensureCapacity(ordinal + 1);
+        latitudes[ordinal] = lat;
+        longitudes[ordinal] = lng;
+
+        int row = row(lat);
+        int col = col(lng);
+        Cell current = cellOf[ordinal];
+        if (current != null && current.row == row && current.col == col) {
+            return;
+        }
+        if (current != null) {
+            remove(current, ordinal);
+        }
+        Cell target = cells.computeIfAbsent(key(row, col), k -> new Cell(row, col));
+        slotOf[ordinal] = target.size;
+        target.add(ordinal);
+        cellOf[ordinal] = target;
+    }
+
+    public void query(double minLat, double minLng, double maxLat, double maxLng, IntConsumer consumer) {
+        forEachCell(minLat, minLng, maxLat, maxLng, cell -> {
+            for (int i = 0; i < cell.size; i++) {
+                int ordinal = cell.ordinals[i];
+                double lat = latitudes[ordinal];
+                double lng = longitudes[ordinal];
+                if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                    consumer.accept(ordinal);
+                }
+            }
+        });
+    }
+
+    public void forEachCell(double minLat, double minLng, double maxLat, double maxLng,
+                            Consumer<Cell> consumer) {
+        int minRow = row(minLat);
+        int maxRow = row(maxLat);
+        int minCol = col(minLng);
+        int maxCol = col(maxLng);
+        long span = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+        // Wide viewports cover far more cells than are occupied, so walk the occupied ones instead.
+        if (span > cells.size()) {
+            for (Cell cell : cells.values()) {
+                if (cell.size > 0 && cell.row >= minRow && cell.row <= maxRow
+                        && cell.col >= minCol && cell.col <= maxCol) {
+                    consumer.accept(cell);
+                }
+            }
+            return;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Cell cell = cells.get(key(row, col));
+                if (cell != null && cell.size > 0) {
+                    consumer.accept(cell);
+                }
+            }
+        }
+    }
+
+    public double latitude(int ordinal) {
+        return latitudes[ordinal];
+    }
+
+    public double longitude(int ordinal) {
+        return longitudes[ordinal];
+    }
+
+    public double getCellSizeDeg() {
+        return cellSizeDeg;
+    }
+
+    private void remove(Cell cell, int ordinal) {
+        int slot = slotOf[ordinal];
+        int last = cell.ordinals[--cell.size];
+        cell.ordinals[slot] = last;
+        slotOf[last] = slot;
+        cellOf[ordinal] = null;
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat + 90) / cellSizeDeg);
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor((lng + 180) / cellSizeDeg);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= cellOf.length) {
+            return;
+        }
+        int capacity = Math.max(n, Math.max(16, cellOf.length * 2));
+        cellOf = Arrays.copyOf(cellOf, capacity);
+        slotOf = Arrays.copyOf(slotOf, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+    }
+
+    public static final class Cell {
+        private final int row;
+        private final int col;
+        private int[] ordinals = new int[8];
+        private int size;
+
+        private Cell(int row, int col) {
+            this.row = row;
+            this.col = col;
+        }
+
+        private void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        public int row() {
+            return row;
+        }
+
+        public int col() {
+            return col;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int ordinalAt(int index) {
+            return ordinals[index];
+        }
+    }
+}
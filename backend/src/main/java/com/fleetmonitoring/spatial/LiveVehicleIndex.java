@@ -0,0 +1,172 @@
+package com.fleetmonitoring.spatial;
+
+import com.fleetmonitoring.model.NearbyVehicle;
+import com.fleetmonitoring.state.FleetSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live vehicle positions in a {@link GridIndex} for nearest and radius queries from request
+ * threads. The broadcast stage calls {@link #publish} once per batch under the write lock with the
+ * ordinals of the vehicles that reported since the last snapshot it saw; only those are updated,
+ * and only the ones that changed cell move in the grid. If the snapshot versions show a batch never
+ * reached it, the whole fleet is updated instead. Queries take the read lock, so they always see
+ * the grid and the snapshot it was built from together. The grid prefilters by bounding box and
+ * haversine distance is exact.
+ */
+@Component
+public class LiveVehicleIndex {
+
+    private static final double HALF_CIRCUMFERENCE_KM = Math.PI * GeoMath.EARTH_RADIUS_KM;
+
+    private final GridIndex grid;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FleetSnapshot snapshot;
+
+    public LiveVehicleIndex(@Value("${fleet.vehicles.search.cell-size-deg:0.01}") double cellSizeDeg) {
+        this.grid = new GridIndex(cellSizeDeg);
+    }
+
+    public void publish(FleetSnapshot next) {
+        publish(next, null, 0);
+    }
+
+    // {@code moved} holds the vehicles that reported in snapshots {@code sinceVersion} to next's.
+    public void publish(FleetSnapshot next, int[] moved, long sinceVersion) {
+        double[] lats = next.getLatitudes();
+        double[] lngs = next.getLongitudes();
+        lock.writeLock().lock();
+        try {
+            if (moved != null && snapshot != null && sinceVersion == snapshot.getVersion() + 1) {
+                for (int ordinal : moved) {
+                    grid.update(ordinal, lats[ordinal], lngs[ordinal]);
+                }
+            } else {
+                for (int i = 0; i < next.getSize(); i++) {
+                    grid.update(i, lats[i], lngs[i]);
+                }
+            }
+            snapshot = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<NearbyVehicle> within(double lat, double lng, double radiusKm, int limit) {
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) {
+                return List.of();
+            }
+            Hits hits = new Hits();
+            collect(lat, lng, radiusKm, hits);
+            return hits.closest(limit, snapshot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Radius search with a doubling radius until at least k vehicles are inside it. Anything
+    // outside the final radius is farther than everything inside, so the k closest hits are exact.
+    // The first radius is sized from the density of the query's own cell to expect about k hits.
+    public List<NearbyVehicle> nearest(double lat, double lng, int k) {
+        lock.readLock().lock();
+        try {
+            if (snapshot == null || snapshot.isEmpty()) {
+                return List.of();
+            }
+            double radiusKm = initialRadiusKm(lat, lng, k);
+            Hits hits = new Hits();
+            while (true) {
+                collect(lat, lng, radiusKm, hits);
+                if (hits.size >= k || radiusKm >= HALF_CIRCUMFERENCE_KM) {
+                    return hits.closest(k, snapshot);
+                }
+                hits.size = 0;
+                radiusKm *= 2;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double initialRadiusKm(double lat, double lng, int k) {
+        double cellKm = grid.getCellSizeDeg() * GeoMath.KM_PER_DEG_LAT;
+        int[] local = new int[1];
+        grid.forEachCell(lat, lng, lat, lng, cell -> local[0] += cell.size());
+        if (local[0] == 0) {
+            return cellKm;
+        }
+        double cellAreaKm2 = cellKm * cellKm * Math.max(0.01, Math.cos(Math.toRadians(lat)));
+        return Math.min(cellKm, Math.sqrt(k * cellAreaKm2 / (Math.PI * local[0])));
+    }
+
+    private void collect(double lat, double lng, double radiusKm, Hits hits) {
+        double dLat = radiusKm / GeoMath.KM_PER_DEG_LAT;
+        double minLat = Math.max(-90, lat - dLat);
+        double maxLat = Math.min(90, lat + dLat);
+        double minLng = -180;
+        double maxLng = 180;
+        // Near the poles, or for radii that wrap the antimeridian, fall back to the full longitude band.
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        if (maxLat < 90 && minLat > -90 && cosLat > 0) {
+            double dLng = radiusKm / (GeoMath.KM_PER_DEG_LAT * cosLat);
+            if (dLng < 180 && lng - dLng >= -180 && lng + dLng <= 180) {
+                minLng = lng - dLng;
+                maxLng = lng + dLng;
+            }
+        }
+        double cosQueryLat = Math.cos(Math.toRadians(lat));
+        grid.query(minLat, minLng, maxLat, maxLng, ordinal -> {
+            double distance = GeoMath.haversineKm(lat, cosQueryLat, lng, grid.latitude(ordinal), grid.longitude(ordinal));
+            if (distance <= radiusKm) {
+                hits.add(ordinal, distance);
+            }
+        });
+    }
+
+    private static final class Hits {
+        int[] ordinals = new int[64];
+        double[] distances = new double[64];
+        int size;
+
+        void add(int ordinal, double distance) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            ordinals[size] = ordinal;
+            distances[size] = distance;
+            size++;
+        }
+
+        // Non-negative float bits order like the floats, so one primitive sort of (distance, hit)
+        // pairs orders the hits without boxing.
+        List<NearbyVehicle> closest(int limit, FleetSnapshot snapshot) {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (long) Float.floatToIntBits((float) distances[i]) << 32 | i;
+            }
+            Arrays.sort(order);
+            int n = Math.min(limit, size);
+            List<NearbyVehicle> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int hit = (int) order[i];
+                int ordinal = ordinals[hit];
+                result.add(new NearbyVehicle(snapshot.getVehicleIds()[ordinal],
+                        snapshot.getLatitudes()[ordinal], snapshot.getLongitudes()[ordinal],
+                        snapshot.getSpeeds()[ordinal], snapshot.getFuelLevels()[ordinal],
+                        snapshot.getEngineTemps()[ordinal],
+                        Instant.ofEpochMilli(snapshot.getUpdatedMillis()[ordinal]),
+                        distances[hit]));
+            }
+            return result;
+        }
+    }
+}
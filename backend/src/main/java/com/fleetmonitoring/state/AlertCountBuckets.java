@@ -0,0 +1,105 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
+
+import java.util.Arrays;
+
+/**
+ * Alert counts per minute for the last day, by type and by severity, in a ring of 1,440 buckets.
+ * Running totals for the last hour and the last day are adjusted as minutes roll over, so reading
+ * either is a copy of a few longs. Any other window of whole minutes sums its buckets.
+ * Windows end with the current, partial minute. Callers synchronise.
+ */
+final class AlertCountBuckets {
+
+    static final int MINUTES = 24 * 60;
+    static final int HOUR = 60;
+
+    private static final int TYPES = AlertType.values().length;
+    private static final int SEVERITIES = Severity.values().length;
+    private static final int WIDTH = TYPES + SEVERITIES;
+
+    private final long[][] buckets = new long[MINUTES][WIDTH];
+    private final long[] hour = new long[WIDTH];
+    private final long[] day = new long[WIDTH];
+    private long currentMinute = Long.MIN_VALUE;
+
+    void add(AlertType type, Severity severity, long epochMinute, long count) {
+        if (epochMinute > currentMinute) {
+            advance(epochMinute);
+        }
+        long age = currentMinute - epochMinute;
+        if (age >= MINUTES) {
+            return;
+        }
+        long[] bucket = buckets[slot(epochMinute)];
+        bucket[type.ordinal()] += count;
+        bucket[TYPES + severity.ordinal()] += count;
+        day[type.ordinal()] += count;
+        day[TYPES + severity.ordinal()] += count;
+        if (age < HOUR) {
+            hour[type.ordinal()] += count;
+            hour[TYPES + severity.ordinal()] += count;
+        }
+    }
+
+    // [types..., severities...] over the last {@code minutes} minutes.
+    long[] counts(long nowMinute, int minutes) {
+        if (nowMinute > currentMinute) {
+            advance(nowMinute);
+        }
+        if (minutes == HOUR) {
+            return hour.clone();
+        }
+        if (minutes == MINUTES) {
+            return day.clone();
+        }
+        long[] sum = new long[WIDTH];
+        for (int m = 0; m < minutes; m++) {
+            long[] bucket = buckets[slot(currentMinute - m)];
+            for (int i = 0; i < WIDTH; i++) {
+                sum[i] += bucket[i];
+            }
+        }
+        return sum;
+    }
+
+    static int typeIndex(AlertType type) {
+        return type.ordinal();
+    }
+
+    static int severityIndex(Severity severity) {
+        return TYPES + severity.ordinal();
+    }
+
+    private void advance(long nowMinute) {
+        if (currentMinute == Long.MIN_VALUE || nowMinute - currentMinute >= MINUTES) {
+            for (long[] bucket : buckets) {
+                Arrays.fill(bucket, 0);
+            }
+            Arrays.fill(hour, 0);
+            Arrays.fill(day, 0);
+            currentMinute = nowMinute;
+            return;
+        }
+        while (currentMinute < nowMinute) {
+            currentMinute++;
+            // The minute that just left the hour window, and the one a day ago whose slot is reused.
+            subtract(hour, buckets[slot(currentMinute - HOUR)]);
+            long[] reused = buckets[slot(currentMinute)];
+            subtract(day, reused);
+            Arrays.fill(reused, 0);
+        }
+    }
+
+    private static void subtract(long[] total, long[] bucket) {
+        for (int i = 0; i < WIDTH; i++) {
+            total[i] -= bucket[i];
+        }
+    }
+
+    private static int slot(long epochMinute) {
+        return (int) Math.floorMod(epochMinute, (long) MINUTES);
+    }
+}
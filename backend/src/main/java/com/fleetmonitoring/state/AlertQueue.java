@@ -0,0 +1,61 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.Alert;
+
+// Growable FIFO of alerts in ascending id order with random access, so a page can binary-search
+// its cursor instead of walking from the newest alert.
+final class AlertQueue {
+
+    private Alert[] items = new Alert[16];
+    private int head;
+    private int size;
+
+    void addLast(Alert alert) {
+        if (size == items.length) {
+            Alert[] grown = new Alert[items.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = get(i);
+            }
+            items = grown;
+            head = 0;
+        }
+        items[(head + size) % items.length] = alert;
+        size++;
+    }
+
+    Alert peekFirst() {
+        return size == 0 ? null : items[head];
+    }
+
+    Alert removeFirst() {
+        Alert first = items[head];
+        items[head] = null;
+        head = (head + 1) % items.length;
+        size--;
+        return first;
+    }
+
+    // 0 is the oldest.
+    Alert get(int i) {
+        return items[(head + i) % items.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Number of alerts with an id below {@code id}, which is the index of the first one at or above it.
+    int countBefore(long id) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (get(mid).getId() < id) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
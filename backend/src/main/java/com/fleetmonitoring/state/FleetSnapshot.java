@@ -0,0 +1,68 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.Vehicle;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Immutable once published; the arrays are exposed directly and must be treated as read-only.
+@Getter
+public class FleetSnapshot {
+
+    static final FleetSnapshot EMPTY = new FleetSnapshot(0, 0, new String[0], new double[0], new double[0],
+            new double[0], new double[0], new double[0], new long[0], new long[0]);
+
+    private final long version;
+    private final int size;
+    private final String[] vehicleIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] speeds;
+    private final double[] fuelLevels;
+    private final double[] engineTemps;
+    private final long[] updatedMillis;
+    // Primary key of the vehicles row, 0 until the vehicle has been mirrored there.
+    private final long[] databaseIds;
+
+    FleetSnapshot(long version, int size, String[] vehicleIds, double[] latitudes, double[] longitudes,
+                  double[] speeds, double[] fuelLevels, double[] engineTemps, long[] updatedMillis,
+                  long[] databaseIds) {
+        this.version = version;
+        this.size = size;
+        this.vehicleIds = vehicleIds;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.speeds = speeds;
+        this.fuelLevels = fuelLevels;
+        this.engineTemps = engineTemps;
+        this.updatedMillis = updatedMillis;
+        this.databaseIds = databaseIds;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Vehicle toVehicle(int ordinal) {
+        return Vehicle.builder()
+                .id(databaseIds[ordinal] != 0 ? databaseIds[ordinal] : null)
+                .vehicleId(vehicleIds[ordinal])
+                .lastLatitude(latitudes[ordinal])
+                .lastLongitude(longitudes[ordinal])
+                .lastSpeed(speeds[ordinal])
+                .lastFuelLevel(fuelLevels[ordinal])
+                .lastEngineTemp(engineTemps[ordinal])
+                .lastUpdated(Instant.ofEpochMilli(updatedMillis[ordinal]))
+                .build();
+    }
+
+    public List<Vehicle> toVehicles() {
+        List<Vehicle> vehicles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            vehicles.add(toVehicle(i));
+        }
+        return vehicles;
+    }
+}
@@ -0,0 +1,123 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.model.Vehicle;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authoritative last-known state of every vehicle, held in primitive arrays indexed by vehicle ordinal.
+ * <p>
+ * Writers (the simulator tick or the ingest consumer) update the working arrays and then call
+ * {@link #publish()}, which copies them into an immutable {@link FleetSnapshot} behind a volatile
+ * reference. Readers only ever see whole published snapshots, so they never lock and never observe
+ * a half-applied tick. Updates to distinct ordinals may run in parallel, but registration and
+ * publishing must not overlap with them.
+ */
+@Component
+public class FleetStateStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+
+    private volatile int size;
+    private long version;
+    private String[] vehicleIds = new String[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private double[] speeds = new double[INITIAL_CAPACITY];
+    private double[] fuelLevels = new double[INITIAL_CAPACITY];
+    private double[] engineTemps = new double[INITIAL_CAPACITY];
+    private long[] updatedMillis = new long[INITIAL_CAPACITY];
+    private long[] databaseIds = new long[INITIAL_CAPACITY];
+
+    private volatile FleetSnapshot snapshot = FleetSnapshot.EMPTY;
+
+    public synchronized int register(String vehicleId) {
+        Integer existing = ordinals.get(vehicleId);
+        if (existing != null) {
+            return existing;
+        }
+        if (!Telemetry.fitsVehicleId(vehicleId)) {
+            throw new IllegalArgumentException("vehicleId is longer than " + Telemetry.MAX_VEHICLE_ID_BYTES
+                    + " bytes: " + vehicleId);
+        }
+        if (size == vehicleIds.length) {
+            grow(size * 2);
+        }
+        int ordinal = size++;
+        vehicleIds[ordinal] = vehicleId;
+        ordinals.put(vehicleId, ordinal);
+        return ordinal;
+    }
+
+    public int ordinalOf(String vehicleId) {
+        Integer ordinal = ordinals.get(vehicleId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void update(int ordinal, double lat, double lng, double speed,
+                       double fuel, double temp, long updated) {
+        latitudes[ordinal] = lat;
+        longitudes[ordinal] = lng;
+        speeds[ordinal] = speed;
+        fuelLevels[ordinal] = fuel;
+        engineTemps[ordinal] = temp;
+        updatedMillis[ordinal] = updated;
+    }
+
+    // Records the vehicles row of a registered vehicle; it shows in the next published snapshot.
+    public synchronized void assignDatabaseId(String vehicleId, long id) {
+        Integer ordinal = ordinals.get(vehicleId);
+        if (ordinal != null) {
+            databaseIds[ordinal] = id;
+        }
+    }
+
+    public synchronized FleetSnapshot publish() {
+        int n = size;
+        FleetSnapshot published = new FleetSnapshot(++version, n,
+                Arrays.copyOf(vehicleIds, n),
+                Arrays.copyOf(latitudes, n),
+                Arrays.copyOf(longitudes, n),
+                Arrays.copyOf(speeds, n),
+                Arrays.copyOf(fuelLevels, n),
+                Arrays.copyOf(engineTemps, n),
+                Arrays.copyOf(updatedMillis, n),
+                Arrays.copyOf(databaseIds, n));
+        snapshot = published;
+        return published;
+    }
+
+    public FleetSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public Optional<Vehicle> findVehicle(String vehicleId) {
+        FleetSnapshot current = snapshot;
+        int ordinal = ordinalOf(vehicleId);
+        return ordinal >= 0 && ordinal < current.getSize()
+                ? Optional.of(current.toVehicle(ordinal))
+                : Optional.empty();
+    }
+
+    private void grow(int capacity) {
+        vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        fuelLevels = Arrays.copyOf(fuelLevels, capacity);
+        engineTemps = Arrays.copyOf(engineTemps, capacity);
+        updatedMillis = Arrays.copyOf(updatedMillis, capacity);
+        databaseIds = Arrays.copyOf(databaseIds, capacity);
+    }
+}
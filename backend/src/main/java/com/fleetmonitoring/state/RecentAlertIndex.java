@@ -0,0 +1,240 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertCounts;
+import com.fleetmonitoring.model.AlertPage;
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
+import com.fleetmonitoring.repository.AlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The most recent alerts, at most {@code capacity} and no older than {@code max-age}, in one queue
+ * for the whole fleet plus one per vehicle, per type and per severity. It also keeps per-minute
+ * counts for the last day. The telemetry pipeline thread assigns every alert its id here, before
+ * the alert is broadcast or persisted. Ids are the raise time in milliseconds shifted left 10 bits,
+ * plus a sequence, so they increase with time, are unique without a database round trip and
+ * order the same way in memory and in Postgres. They also stay below 2^53, so JavaScript clients
+ * read them exactly. Pages therefore use a single {@code before=<id>} cursor.
+ * <p>
+ * The index holds every alert with an id at or above {@code floorId}. A page is served from memory
+ * until the cursor passes the floor; only the rest of that page is read from Postgres. Reads and
+ * writes take a read-write lock, because writers only touch the lock once per pipeline batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecentAlertIndex {
+
+    static final int SEQUENCE_BITS = 10;
+
+    private final AlertRepository alertRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fleet.alerts.index.capacity:100000}")
+    private int capacity;
+
+    @Value("${fleet.alerts.index.max-age:PT6H}")
+    private Duration maxAge;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AlertQueue all = new AlertQueue();
+    private final Map<String, AlertQueue> byVehicle = new HashMap<>();
+    private final Map<AlertType, AlertQueue> byType = new EnumMap<>(AlertType.class);
+    private final Map<Severity, AlertQueue> bySeverity = new EnumMap<>(Severity.class);
+    private final AlertCountBuckets counts = new AlertCountBuckets();
+    private long lastId;
+    private long floorId;
+
+    private Counter memoryPages;
+    private Counter databasePages;
+
+    @PostConstruct
+    public void init() {
+        for (AlertType type : AlertType.values()) {
+            byType.put(type, new AlertQueue());
+        }
+        for (Severity severity : Severity.values()) {
+            bySeverity.put(severity, new AlertQueue());
+        }
+        warm();
+        memoryPages = Counter.builder("fleet.alerts.index.pages").tag("source", "memory")
+                .description("Alert pages answered entirely from the in-memory index")
+                .register(meterRegistry);
+        databasePages = Counter.builder("fleet.alerts.index.pages").tag("source", "database")
+                .description("Alert pages that read older alerts from Postgres")
+                .register(meterRegistry);
+        Gauge.builder("fleet.alerts.index.size", this, RecentAlertIndex::size)
+                .description("Alerts held in the in-memory index")
+                .register(meterRegistry);
+    }
+
+    // Reload the recent window and the day's counts, so a restart neither sends the dashboard to
+    // Postgres nor resets the counters.
+    private void warm() {
+        long started = System.nanoTime();
+        Instant now = Instant.now();
+        lastId = Math.max(alertRepository.maxId(), 0);
+        // By id, like eviction: an alert timed by an old reading but raised recently must still be
+        // loaded, or it would sit above floorId without being in memory.
+        List<Alert> recent = alertRepository.findPage(null, null, null, idAt(now.minus(maxAge).toEpochMilli()),
+                Long.MAX_VALUE, capacity);
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            add(recent.get(i));
+        }
+        floorId = recent.isEmpty() ? lastId + 1 : recent.get(recent.size() - 1).getId();
+        long nowMinute = TimeUnit.MILLISECONDS.toMinutes(now.toEpochMilli());
+        synchronized (counts) {
+            alertRepository.countByMinute(now.minus(Duration.ofMinutes(AlertCountBuckets.MINUTES)),
+                    c -> counts.add(c.type(), c.severity(), Math.min(c.epochMinute(), nowMinute), c.count()));
+        }
+        log.info("Alert index warmed with {} alerts in {} ms", recent.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Pipeline thread only: assigns ids, then indexes and counts the batch.
+    public void record(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        long nowMillis = System.currentTimeMillis();
+        for (Alert alert : alerts) {
+            lastId = Math.max(lastId + 1, idAt(nowMillis));
+            alert.setId(lastId);
+        }
+        lock.writeLock().lock();
+        try {
+            for (Alert alert : alerts) {
+                add(alert);
+            }
+            // Ids follow raise time while timestamps follow reading time, so age is judged by id to
+            // keep eviction in queue order.
+            long oldestId = idAt(nowMillis - maxAge.toMillis());
+            while (all.size() > capacity || (all.size() > 0 && all.peekFirst().getId() < oldestId)) {
+                evictOldest();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // A reading can be slightly ahead of the server clock; counting it in a future minute would
+        // advance the buckets past the present.
+        long nowMinute = TimeUnit.MILLISECONDS.toMinutes(nowMillis);
+        synchronized (counts) {
+            for (Alert alert : alerts) {
+                counts.add(alert.getAlertType(), alert.getSeverity(),
+                        Math.min(TimeUnit.MILLISECONDS.toMinutes(alert.getTimestamp().toEpochMilli()), nowMinute), 1);
+            }
+        }
+    }
+
+    static long idAt(long epochMillis) {
+        return epochMillis << SEQUENCE_BITS;
+    }
+
+    private void add(Alert alert) {
+        all.addLast(alert);
+        byVehicle.computeIfAbsent(alert.getVehicleId(), id -> new AlertQueue()).addLast(alert);
+        byType.get(alert.getAlertType()).addLast(alert);
+        bySeverity.get(alert.getSeverity()).addLast(alert);
+    }
+
+    // The oldest alert overall is also the oldest in each of its own queues.
+    private void evictOldest() {
+        Alert oldest = all.removeFirst();
+        AlertQueue vehicle = byVehicle.get(oldest.getVehicleId());
+        vehicle.removeFirst();
+        if (vehicle.size() == 0) {
+            byVehicle.remove(oldest.getVehicleId());
+        }
+        byType.get(oldest.getAlertType()).removeFirst();
+        bySeverity.get(oldest.getSeverity()).removeFirst();
+        floorId = oldest.getId() + 1;
+    }
+
+    public AlertPage page(String vehicleId, AlertType type, Severity severity, Long before, int limit) {
+        long beforeId = before != null ? before : Long.MAX_VALUE;
+        List<Alert> page = new ArrayList<>(Math.min(limit, 1024));
+        long floor;
+        lock.readLock().lock();
+        try {
+            floor = floorId;
+            AlertQueue source = vehicleId != null ? byVehicle.get(vehicleId)
+                    : type != null ? byType.get(type)
+                    : severity != null ? bySeverity.get(severity)
+                    : all;
+            if (source != null) {
+                for (int i = source.countBefore(beforeId) - 1; i >= 0 && page.size() < limit; i--) {
+                    Alert alert = source.get(i);
+                    if ((type == null || alert.getAlertType() == type)
+                            && (severity == null || alert.getSeverity() == severity)) {
+                        page.add(alert);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (page.size() < limit) {
+            long olderThan = page.isEmpty() ? Math.min(beforeId, floor) : Math.min(page.get(page.size() - 1).getId(), floor);
+            page.addAll(alertRepository.findPage(vehicleId, type, severity, 0, olderThan, limit - page.size()));
+            databasePages.increment();
+        } else {
+            memoryPages.increment();
+        }
+        Long next = page.size() == limit ? page.get(page.size() - 1).getId() : null;
+        return new AlertPage(page, next);
+    }
+
+    public AlertCounts counts(Duration window) {
+        int minutes = (int) window.toMinutes();
+        if (minutes < 1 || minutes > AlertCountBuckets.MINUTES || !window.equals(Duration.ofMinutes(minutes))) {
+            throw new IllegalArgumentException("window must be whole minutes between PT1M and P1D: " + window);
+        }
+        Instant now = Instant.now();
+        long nowMinute = TimeUnit.MILLISECONDS.toMinutes(now.toEpochMilli());
+        long[] totals;
+        synchronized (counts) {
+            totals = counts.counts(nowMinute, minutes);
+        }
+        Map<AlertType, Long> types = new EnumMap<>(AlertType.class);
+        long total = 0;
+        for (AlertType type : AlertType.values()) {
+            long count = totals[AlertCountBuckets.typeIndex(type)];
+            types.put(type, count);
+            total += count;
+        }
+        Map<Severity, Long> severities = new EnumMap<>(Severity.class);
+        for (Severity severity : Severity.values()) {
+            severities.put(severity, totals[AlertCountBuckets.severityIndex(severity)]);
+        }
+        Instant from = Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(nowMinute - minutes + 1));
+        return new AlertCounts(from, now, total, types, severities);
+    }
+
+    private double size() {
+        lock.readLock().lock();
+        try {
+            return all.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
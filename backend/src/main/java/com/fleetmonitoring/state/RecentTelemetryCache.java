@@ -0,0 +1,118 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.Telemetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The last {@code capacity} readings of every vehicle, no older than {@code window-seconds}, kept
+ * in per-vehicle primitive rings indexed by fleet ordinal. Filled by the telemetry pipeline thread
+ * only; history requests read it lock-free and fall back to Postgres whenever it cannot prove it
+ * holds the complete answer. Cached readings carry no id because ids are assigned by the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecentTelemetryCache {
+
+    private final FleetStateStore fleetStateStore;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fleet.telemetry.recent.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.telemetry.recent.capacity:300}")
+    private int capacity;
+
+    @Value("${fleet.telemetry.recent.window-seconds:300}")
+    private long windowSeconds;
+
+    private volatile TelemetryHistoryRing[] rings = new TelemetryHistoryRing[0];
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder("fleet.telemetry.cache.requests").tag("result", "hit")
+                .description("History requests answered from the recent telemetry cache")
+                .register(meterRegistry);
+        misses = Counter.builder("fleet.telemetry.cache.requests").tag("result", "miss")
+                .description("History requests that fell back to Postgres")
+                .register(meterRegistry);
+        Gauge.builder("fleet.telemetry.cache.readings", this, RecentTelemetryCache::cachedReadings)
+                .register(meterRegistry);
+    }
+
+    public void record(int ordinal, Telemetry t) {
+        if (!enabled) {
+            return;
+        }
+        TelemetryHistoryRing[] current = rings;
+        if (ordinal >= current.length) {
+            current = Arrays.copyOf(current, Math.max(ordinal + 1, current.length * 2));
+            rings = current;
+        }
+        TelemetryHistoryRing ring = current[ordinal];
+        if (ring == null) {
+            ring = new TelemetryHistoryRing(t.getVehicleId(), capacity);
+            current[ordinal] = ring;
+        }
+        ring.add(t);
+    }
+
+    public Optional<List<Telemetry>> latest(String vehicleId, int limit) {
+        TelemetryHistoryRing ring = ringOf(vehicleId);
+        List<Telemetry> readings = ring != null && limit <= capacity
+                ? ring.newest(limit, windowStartMillis(), false)
+                : null;
+        return count(readings != null && readings.size() == limit ? readings : null);
+    }
+
+    public Optional<List<Telemetry>> between(String vehicleId, Instant from, Instant to) {
+        TelemetryHistoryRing ring = ringOf(vehicleId);
+        List<Telemetry> readings = ring != null && from.toEpochMilli() >= windowStartMillis()
+                ? ring.newest(Integer.MAX_VALUE, from.toEpochMilli(), true)
+                : null;
+        if (readings != null) {
+            readings.removeIf(t -> t.getTimestamp().isAfter(to));
+        }
+        return count(readings);
+    }
+
+    private TelemetryHistoryRing ringOf(String vehicleId) {
+        if (!enabled) {
+            return null;
+        }
+        int ordinal = fleetStateStore.ordinalOf(vehicleId);
+        TelemetryHistoryRing[] current = rings;
+        return ordinal >= 0 && ordinal < current.length ? current[ordinal] : null;
+    }
+
+    private long windowStartMillis() {
+        return System.currentTimeMillis() - windowSeconds * 1000;
+    }
+
+    private Optional<List<Telemetry>> count(List<Telemetry> readings) {
+        (readings != null ? hits : misses).increment();
+        return Optional.ofNullable(readings);
+    }
+
+    private double cachedReadings() {
+        long total = 0;
+        for (TelemetryHistoryRing ring : rings) {
+            if (ring != null) {
+                total += ring.size();
+            }
+        }
+        return total;
+    }
+}
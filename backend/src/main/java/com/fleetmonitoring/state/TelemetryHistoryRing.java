@@ -0,0 +1,95 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.Telemetry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of one vehicle's most recent readings, one primitive array per field.
+ * <p>
+ * Single writer, any number of readers. The writer fills a slot and only then advances the volatile
+ * {@code written} counter. Readers copy optimistically and re-read the counter afterwards, then
+ * discard anything the writer may have lapped in the meantime, so they never lock and never
+ * return a torn reading.
+ */
+final class TelemetryHistoryRing {
+
+    private final String vehicleId;
+    private final int capacity;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] speeds;
+    private final double[] fuelLevels;
+    private final double[] engineTemps;
+    private final long[] timestamps;
+
+    private volatile long written;
+
+    TelemetryHistoryRing(String vehicleId, int capacity) {
+        this.vehicleId = vehicleId;
+        this.capacity = capacity;
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.speeds = new double[capacity];
+        this.fuelLevels = new double[capacity];
+        this.engineTemps = new double[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    void add(Telemetry t) {
+        long index = written;
+        int slot = (int) (index % capacity);
+        latitudes[slot] = t.getLatitude();
+        longitudes[slot] = t.getLongitude();
+        speeds[slot] = t.getSpeed();
+        fuelLevels[slot] = t.getFuelLevel();
+        engineTemps[slot] = t.getEngineTemp();
+        timestamps[slot] = t.getTimestamp().toEpochMilli();
+        written = index + 1;
+    }
+
+    /**
+     * Readings newest first, down to {@code minMillis} and at most {@code limit} of them. With
+     * {@code requireOlder} it returns null unless the ring still holds a reading older than
+     * {@code minMillis}, which is the only proof that nothing in the range is missing from it.
+     */
+    List<Telemetry> newest(int limit, long minMillis, boolean requireOlder) {
+        long end = written;
+        long start = Math.max(0, end - capacity);
+        List<Telemetry> result = new ArrayList<>((int) Math.min(limit, end - start));
+        long olderIndex = -1;
+        for (long index = end - 1; index >= start && result.size() < limit; index--) {
+            int slot = (int) (index % capacity);
+            long millis = timestamps[slot];
+            if (millis < minMillis) {
+                olderIndex = index;
+                break;
+            }
+            result.add(Telemetry.builder()
+                    .vehicleId(vehicleId)
+                    .latitude(latitudes[slot])
+                    .longitude(longitudes[slot])
+                    .speed(speeds[slot])
+                    .fuelLevel(fuelLevels[slot])
+                    .engineTemp(engineTemps[slot])
+                    .timestamp(Instant.ofEpochMilli(millis))
+                    .build());
+        }
+
+        // The writer may have lapped the oldest slots while they were copied, including the one
+        // it is filling right now.
+        long validFrom = written - capacity + 1;
+        int valid = (int) Math.max(0, Math.min(result.size(), end - validFrom));
+        result.subList(valid, result.size()).clear();
+        if (requireOlder && (olderIndex < 0 || olderIndex < validFrom)) {
+            return null;
+        }
+        return result;
+    }
+
+    long size() {
+        return Math.min(written, capacity);
+    }
+}
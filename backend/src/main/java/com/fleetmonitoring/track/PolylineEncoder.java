@@ -0,0 +1,50 @@
+package com.fleetmonitoring.track;
+
+/**
+ * Google's encoded polyline algorithm: each value is quantised, delta-coded against the previous
+ * one, zigzag-mapped and written as 5-bit groups in printable ASCII. Decoders for every map library
+ * handle the positions; the same scheme carries the time and speed columns.
+ */
+public final class PolylineEncoder {
+
+    public static final double PRECISION_5 = 1e5;
+
+    private PolylineEncoder() {
+    }
+
+    /** Positions as one standard polyline string of interleaved latitude and longitude deltas. */
+    public static String positions(TrackPoints track, int[] indices, double scale) {
+        StringBuilder out = new StringBuilder(indices.length * 6);
+        long lat = 0;
+        long lng = 0;
+        for (int i : indices) {
+            long qLat = Math.round(track.latitude(i) * scale);
+            long qLng = Math.round(track.longitude(i) * scale);
+            append(out, qLat - lat);
+            append(out, qLng - lng);
+            lat = qLat;
+            lng = qLng;
+        }
+        return out.toString();
+    }
+
+    /** Already quantised values, each written as the delta from the one before (the first from 0). */
+    public static String deltas(long[] values) {
+        StringBuilder out = new StringBuilder(values.length * 2);
+        long previous = 0;
+        for (long value : values) {
+            append(out, value - previous);
+            previous = value;
+        }
+        return out.toString();
+    }
+
+    static void append(StringBuilder out, long value) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+}
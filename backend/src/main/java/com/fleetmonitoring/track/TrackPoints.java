@@ -0,0 +1,66 @@
+package com.fleetmonitoring.track;
+
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.model.TrackPoint;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// One vehicle's raw readings in ascending time order, as growable primitive columns.
+public final class TrackPoints {
+
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    private double[] speeds = new double[1024];
+    private long[] timesMillis = new long[1024];
+    private int size;
+
+    public void add(Telemetry t) {
+        add(t.getLatitude(), t.getLongitude(), t.getSpeed(), t.getTimestamp().toEpochMilli());
+    }
+
+    public void add(double lat, double lng, double speed, long timeMillis) {
+        if (size == latitudes.length) {
+            int length = size * 2;
+            latitudes = Arrays.copyOf(latitudes, length);
+            longitudes = Arrays.copyOf(longitudes, length);
+            speeds = Arrays.copyOf(speeds, length);
+            timesMillis = Arrays.copyOf(timesMillis, length);
+        }
+        latitudes[size] = lat;
+        longitudes[size] = lng;
+        speeds[size] = speed;
+        timesMillis[size] = timeMillis;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double latitude(int i) {
+        return latitudes[i];
+    }
+
+    public double longitude(int i) {
+        return longitudes[i];
+    }
+
+    public double speed(int i) {
+        return speeds[i];
+    }
+
+    public long timeMillis(int i) {
+        return timesMillis[i];
+    }
+
+    public List<TrackPoint> toList(int[] indices) {
+        List<TrackPoint> points = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            points.add(new TrackPoint(latitudes[i], longitudes[i], speeds[i], Instant.ofEpochMilli(timesMillis[i])));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,89 @@
+package com.fleetmonitoring.track;
+
+import com.fleetmonitoring.spatial.GeoMath;
+
+import java.util.Arrays;
+
+/**
+ * Douglas-Peucker over a vehicle track using the synchronized Euclidean distance: a point is
+ * compared with where the vehicle would be on the candidate segment at the same instant, not with
+ * the nearest point of the segment. Stops, slowdowns and U-turns therefore survive simplification,
+ * so a replay interpolated between the kept points stays within the tolerance in space and time.
+ * Distances use an equirectangular projection around the first point, which is well under a
+ * metre off over the extent of one vehicle's day.
+ */
+public final class TrackSimplifier {
+
+    private TrackSimplifier() {
+    }
+
+    /** Indices of the points to keep, ascending; always includes the first and last point. */
+    public static int[] simplify(TrackPoints track, double toleranceMeters) {
+        int n = track.size();
+        if (n <= 2 || toleranceMeters <= 0) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        double metersPerDeg = GeoMath.KM_PER_DEG_LAT * 1000;
+        double xScale = metersPerDeg * Math.cos(Math.toRadians(track.latitude(0)));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = track.longitude(i) * xScale;
+            y[i] = track.latitude(i) * metersPerDeg;
+        }
+
+        double toleranceSq = toleranceMeters * toleranceMeters;
+        boolean[] keep = new boolean[n];
+        keep[0] = keep[n - 1] = true;
+        int kept = 2;
+        // Explicit stack of [first, last] ranges; recursion would overflow on long tracks.
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            long t0 = track.timeMillis(first);
+            double span = track.timeMillis(last) - t0;
+            double dx = x[last] - x[first];
+            double dy = y[last] - y[first];
+            int farthest = -1;
+            double farthestSq = toleranceSq;
+            for (int i = first + 1; i < last; i++) {
+                double ratio = span > 0 ? (track.timeMillis(i) - t0) / span : 0;
+                double ex = x[i] - (x[first] + ratio * dx);
+                double ey = y[i] - (y[first] + ratio * dy);
+                double distSq = ex * ex + ey * ey;
+                if (distSq > farthestSq) {
+                    farthestSq = distSq;
+                    farthest = i;
+                }
+            }
+            if (farthest < 0) {
+                continue;
+            }
+            keep[farthest] = true;
+            kept++;
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = first;
+            stack[top++] = farthest;
+            stack[top++] = farthest;
+            stack[top++] = last;
+        }
+
+        int[] indices = new int[kept];
+        for (int i = 0, j = 0; i < n; i++) {
+            if (keep[i]) {
+                indices[j++] = i;
+            }
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,239 @@
+package com.fleetmonitoring.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends the alerts of one pipeline batch to {@code /topic/alerts} as a single {@link Batch} frame,
+ * serialised once and written to every subscription that has not muted alerts with
+ * {@code /app/toggleAlerts}. Each alert type and severity pair has a token bucket
+ * ({@code fleet.alerts.fanout.rate-per-second}, {@code burst}); alerts beyond it are folded into one
+ * {@link Summary} per pair instead of being sent individually, so an overheat storm across the fleet
+ * costs one frame and a line saying how many vehicles are affected.
+ * <p>
+ * {@link #publish} runs on the broadcast stage thread, which owns the buckets. Subscriptions and
+ * mute preferences are updated from the inbound channel threads.
+ */
+@Service
+@Slf4j
+public class AlertFanout {
+
+    public static final String TOPIC = "/topic/alerts";
+
+    private static final int SEVERITIES = Severity.values().length;
+
+    private final MessageChannel clientOutboundChannel;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final double ratePerSecond;
+    private final double burst;
+    private final int summarySampleSize;
+
+    private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+    private final Set<String> muted = ConcurrentHashMap.newKeySet();
+
+    private final double[] tokens = new double[AlertType.values().length * SEVERITIES];
+    private long lastRefillNanos;
+    private Counter sent;
+    private Counter summarized;
+
+    // Lazy for the same reason as in ConflatingVehicleStream.
+    public AlertFanout(@Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                       ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       @Value("${fleet.alerts.fanout.rate-per-second:5}") double ratePerSecond,
+                       @Value("${fleet.alerts.fanout.burst:20}") double burst,
+                       @Value("${fleet.alerts.fanout.summary-sample-size:5}") int summarySampleSize) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.summarySampleSize = summarySampleSize;
+    }
+
+    @PostConstruct
+    public void init() {
+        Arrays.fill(tokens, burst);
+        lastRefillNanos = System.nanoTime();
+        sent = Counter.builder("fleet.alerts.fanout").tag("result", "sent")
+                .description("Alerts sent to dashboards individually")
+                .register(meterRegistry);
+        summarized = Counter.builder("fleet.alerts.fanout").tag("result", "summarized")
+                .description("Alerts over the per-type rate limit, sent only as part of a summary")
+                .register(meterRegistry);
+        Gauge.builder("fleet.alerts.fanout.muted.sessions", muted, Set::size)
+                .description("Sessions that switched live alerts off")
+                .register(meterRegistry);
+    }
+
+    public void publish(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        Batch batch = limit(alerts);
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(batch);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode alert batch of {} alerts", alerts.size(), e);
+            return;
+        }
+        subscriptions.forEach((sessionId, subscriptionId) -> {
+            if (!muted.contains(sessionId)) {
+                try {
+                    clientOutboundChannel.send(SessionMessages.json(sessionId, subscriptionId, TOPIC, payload));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to send alert batch to session {}", sessionId, e);
+                }
+            }
+        });
+    }
+
+    // Buckets advance even without subscribers, so the first dashboard to connect during a storm
+    // sees the same rate as everyone else.
+    private Batch limit(List<Alert> alerts) {
+        long now = System.nanoTime();
+        if (ratePerSecond > 0) {
+            double refill = (now - lastRefillNanos) / 1e9 * ratePerSecond;
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = Math.min(burst, tokens[i] + refill);
+            }
+        }
+        lastRefillNanos = now;
+
+        List<Alert> individual = new ArrayList<>(Math.min(alerts.size(), 64));
+        Summary.Builder[] overflow = null;
+        for (Alert alert : alerts) {
+            int key = alert.getAlertType().ordinal() * SEVERITIES + alert.getSeverity().ordinal();
+            if (ratePerSecond <= 0 || tokens[key] >= 1) {
+                tokens[key]--;
+                individual.add(alert);
+                continue;
+            }
+            if (overflow == null) {
+                overflow = new Summary.Builder[tokens.length];
+            }
+            if (overflow[key] == null) {
+                overflow[key] = new Summary.Builder(alert.getAlertType(), alert.getSeverity());
+            }
+            overflow[key].add(alert, summarySampleSize);
+        }
+
+        List<Summary> summaries = new ArrayList<>();
+        if (overflow != null) {
+            for (Summary.Builder builder : overflow) {
+                if (builder != null) {
+                    summaries.add(builder.build());
+                }
+            }
+        }
+        sent.increment(individual.size());
+        summarized.increment(alerts.size() - individual.size());
+        return new Batch(Instant.now(), individual, summaries);
+    }
+
+    public void setEnabled(String sessionId, boolean enabled) {
+        if (enabled) {
+            muted.remove(sessionId);
+        } else {
+            muted.add(sessionId);
+        }
+        log.debug("Alerts {} for session {}", enabled ? "enabled" : "disabled", sessionId);
+    }
+
+    public boolean isEnabled(String sessionId) {
+        return !muted.contains(sessionId);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        if (TOPIC.equals(headers.getDestination()) && headers.getSessionId() != null) {
+            subscriptions.put(headers.getSessionId(), headers.getSubscriptionId());
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String sessionId = headers.getSessionId();
+        if (sessionId != null && Objects.equals(subscriptions.get(sessionId), headers.getSubscriptionId())) {
+            subscriptions.remove(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        subscriptions.remove(event.getSessionId());
+        muted.remove(event.getSessionId());
+    }
+
+    // One frame per pipeline batch: alerts within the rate limit, and a summary per type and
+    // severity for the rest.
+    public record Batch(Instant timestamp, List<Alert> alerts, List<Summary> summaries) {
+    }
+
+    // count = alerts folded in; vehicleIds = the first few of them.
+    public record Summary(AlertType alertType, Severity severity, int count, List<String> vehicleIds,
+                          String message, Instant timestamp) {
+
+        private static final class Builder {
+            private final AlertType alertType;
+            private final Severity severity;
+            private final List<String> vehicleIds = new ArrayList<>();
+            private int count;
+            private Instant latest;
+
+            Builder(AlertType alertType, Severity severity) {
+                this.alertType = alertType;
+                this.severity = severity;
+            }
+
+            void add(Alert alert, int sampleSize) {
+                if (vehicleIds.size() < sampleSize) {
+                    vehicleIds.add(alert.getVehicleId());
+                }
+                if (latest == null || alert.getTimestamp().isAfter(latest)) {
+                    latest = alert.getTimestamp();
+                }
+                count++;
+            }
+
+            Summary build() {
+                String level = severity == Severity.CRITICAL ? "critical " : "";
+                return new Summary(alertType, severity, count, List.copyOf(vehicleIds),
+                        String.format("%d similar %s%s alerts", count, level, alertType), latest);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.fleetmonitoring.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetmonitoring.state.FleetSnapshot;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in compact alternative to {@code /topic/vehicles}.
+ * <p>
+ * A client first subscribes to {@code /app/vehicles.dictionary} and receives a {@link Keyframe}: the
+ * ordinal-to-vehicleId dictionary plus the current quantised value of every field. It then follows
+ * {@code /topic/vehicles.compact}, where each {@link DeltaFrame} only carries fields that moved past
+ * their threshold since they were last sent, as fixed-point integer deltas in one flat array:
+ * {@code [ordinalGap, fieldMask, delta...]} per changed vehicle. Frames are numbered; a client that
+ * sees a gap in {@code s} re-requests the keyframe.
+ * <p>
+ * Nothing is encoded while the topic has no subscribers. The sent values then simply stay where
+ * they were, so the next keyframe and the deltas after it remain consistent with each other.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CompactVehicleStream {
+
+    public static final String TOPIC = "/topic/vehicles.compact";
+
+    static final int FIELD_LAT = 1;
+    static final int FIELD_LNG = 1 << 1;
+    static final int FIELD_SPEED = 1 << 2;
+    static final int FIELD_FUEL = 1 << 3;
+    static final int FIELD_TEMP = 1 << 4;
+
+    private static final double POSITION_SCALE = 1e5;
+    private static final double READING_SCALE = 10;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fleet.stream.compact.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.stream.compact.position-threshold-deg:0.00005}")
+    private double positionThresholdDeg;
+
+    @Value("${fleet.stream.compact.speed-threshold:1.0}")
+    private double speedThreshold;
+
+    @Value("${fleet.stream.compact.fuel-threshold:0.5}")
+    private double fuelThreshold;
+
+    @Value("${fleet.stream.compact.temp-threshold:0.5}")
+    private double tempThreshold;
+
+    private int positionThresholdQ;
+    private int speedThresholdQ;
+    private int fuelThresholdQ;
+    private int tempThresholdQ;
+
+    // sessionId -> subscriptionId on TOPIC.
+    private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+    private long sequence;
+    private int knownSize;
+    private String[] vehicleIds = new String[0];
+    private int[] sentLat = new int[0];
+    private int[] sentLng = new int[0];
+    private int[] sentSpeed = new int[0];
+    private int[] sentFuel = new int[0];
+    private int[] sentTemp = new int[0];
+    private int[] scratch = new int[0];
+
+    private DistributionSummary frameBytes;
+
+    @PostConstruct
+    public void init() {
+        positionThresholdQ = Math.max(1, (int) Math.round(positionThresholdDeg * POSITION_SCALE));
+        speedThresholdQ = Math.max(1, (int) Math.round(speedThreshold * READING_SCALE));
+        fuelThresholdQ = Math.max(1, (int) Math.round(fuelThreshold * READING_SCALE));
+        tempThresholdQ = Math.max(1, (int) Math.round(tempThreshold * READING_SCALE));
+        frameBytes = DistributionSummary.builder("fleet.stream.compact.frame.bytes")
+                .baseUnit("bytes")
+                .description("Size of each compact vehicle delta frame")
+                .register(meterRegistry);
+    }
+
+    public synchronized void publish(FleetSnapshot snapshot) {
+        if (!enabled || subscriptions.isEmpty()) {
+            return;
+        }
+        int n = snapshot.getSize();
+        int previousSize = knownSize;
+        ensureCapacity(n);
+        String[] added = Arrays.copyOfRange(snapshot.getVehicleIds(), previousSize, n);
+        System.arraycopy(snapshot.getVehicleIds(), previousSize, vehicleIds, previousSize, n - previousSize);
+        knownSize = n;
+
+        int len = 0;
+        int lastOrdinal = -1;
+        for (int i = 0; i < n; i++) {
+            int lat = quantize(snapshot.getLatitudes()[i], POSITION_SCALE);
+            int lng = quantize(snapshot.getLongitudes()[i], POSITION_SCALE);
+            int speed = quantize(snapshot.getSpeeds()[i], READING_SCALE);
+            int fuel = quantize(snapshot.getFuelLevels()[i], READING_SCALE);
+            int temp = quantize(snapshot.getEngineTemps()[i], READING_SCALE);
+
+            int mask = 0;
+            if (Math.abs(lat - sentLat[i]) >= positionThresholdQ || Math.abs(lng - sentLng[i]) >= positionThresholdQ) {
+                mask |= FIELD_LAT | FIELD_LNG;
+            }
+            if (Math.abs(speed - sentSpeed[i]) >= speedThresholdQ) mask |= FIELD_SPEED;
+            if (Math.abs(fuel - sentFuel[i]) >= fuelThresholdQ) mask |= FIELD_FUEL;
+            if (Math.abs(temp - sentTemp[i]) >= tempThresholdQ) mask |= FIELD_TEMP;
+            if (mask == 0) {
+                continue;
+            }
+
+            scratch[len++] = i - lastOrdinal;
+            scratch[len++] = mask;
+            lastOrdinal = i;
+            if ((mask & FIELD_LAT) != 0) {
+                scratch[len++] = lat - sentLat[i];
+                scratch[len++] = lng - sentLng[i];
+                sentLat[i] = lat;
+                sentLng[i] = lng;
+            }
+            if ((mask & FIELD_SPEED) != 0) {
+                scratch[len++] = speed - sentSpeed[i];
+                sentSpeed[i] = speed;
+            }
+            if ((mask & FIELD_FUEL) != 0) {
+                scratch[len++] = fuel - sentFuel[i];
+                sentFuel[i] = fuel;
+            }
+            if ((mask & FIELD_TEMP) != 0) {
+                scratch[len++] = temp - sentTemp[i];
+                sentTemp[i] = temp;
+            }
+        }
+
+        if (len == 0 && added.length == 0) {
+            return;
+        }
+        DeltaFrame frame = new DeltaFrame(++sequence, snapshot.getVersion(), n, List.of(added),
+                Arrays.copyOf(scratch, len));
+        try {
+            String payload = objectMapper.writeValueAsString(frame);
+            frameBytes.record(payload.length());
+            messagingTemplate.convertAndSend(TOPIC, payload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode compact vehicle frame", e);
+        }
+    }
+
+    public synchronized Keyframe keyframe() {
+        int n = knownSize;
+        int[] values = new int[n * 5];
+        for (int i = 0, j = 0; i < n; i++) {
+            values[j++] = sentLat[i];
+            values[j++] = sentLng[i];
+            values[j++] = sentSpeed[i];
+            values[j++] = sentFuel[i];
+            values[j++] = sentTemp[i];
+        }
+        return new Keyframe(sequence, POSITION_SCALE, READING_SCALE,
+                List.of(Arrays.copyOf(vehicleIds, n)), values);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        if (TOPIC.equals(headers.getDestination()) && headers.getSessionId() != null) {
+            subscriptions.put(headers.getSessionId(), headers.getSubscriptionId());
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String sessionId = headers.getSessionId();
+        if (sessionId != null && Objects.equals(subscriptions.get(sessionId), headers.getSubscriptionId())) {
+            subscriptions.remove(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        subscriptions.remove(event.getSessionId());
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= sentLat.length) {
+            return;
+        }
+        int capacity = Math.max(n, sentLat.length * 2);
+        vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+        sentLat = Arrays.copyOf(sentLat, capacity);
+        sentLng = Arrays.copyOf(sentLng, capacity);
+        sentSpeed = Arrays.copyOf(sentSpeed, capacity);
+        sentFuel = Arrays.copyOf(sentFuel, capacity);
+        sentTemp = Arrays.copyOf(sentTemp, capacity);
+        scratch = new int[capacity * 7];
+    }
+
+    private static int quantize(double value, double scale) {
+        return (int) Math.round(value * scale);
+    }
+
+    // s = frame sequence, v = fleet snapshot version, n = dictionary size,
+    // a = vehicleIds appended to the dictionary, d = packed deltas.
+    public record DeltaFrame(long s, long v, int n, List<String> a, int[] d) {
+    }
+
+    // s = sequence of the last frame folded into the values; v = [lat, lng, speed, fuel, temp] per ordinal.
+    public record Keyframe(long s, double positionScale, double readingScale, List<String> ids, int[] v) {
+    }
+}
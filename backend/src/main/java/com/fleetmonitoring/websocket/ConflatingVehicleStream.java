@@ -0,0 +1,230 @@
+package com.fleetmonitoring.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetmonitoring.model.Telemetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivers {@code /topic/vehicles} to each subscription directly instead of through the simple
+ * broker, so every session is paced by its own {@link SessionBacklog}. Chunks go out only while a
+ * session has at most {@code max-in-flight-frames} queued but unwritten frames. Everything else is
+ * merged into a per-session buffer keyed by vehicle, where the newest reading replaces an unsent
+ * one. Each frame written to the socket drains the buffer again, oldest vehicles first, so a fast
+ * client streams every reading and a slow one gets the newest state of each vehicle at the rate it
+ * can absorb. The buffer holds at most {@code max-pending-vehicles} entries and evicts the oldest
+ * beyond that.
+ * <p>
+ * {@link #publish} runs on the broadcast stage thread and drains run on the outbound writer
+ * threads; each subscriber's buffer is guarded by the subscriber's monitor.
+ */
+@Service
+@Slf4j
+public class ConflatingVehicleStream {
+
+    public static final String TOPIC = "/topic/vehicles";
+    private static final int BATCH_SIZE = 50;
+
+    private final MessageChannel clientOutboundChannel;
+    private final SessionBacklog sessionBacklog;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlightFrames;
+    private final int maxPendingVehicles;
+
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private Counter conflated;
+    private Counter dropped;
+
+    // The outbound channel is lazy because the broker configuration that creates it also
+    // depends on the WebSocketConfig that registers our SessionBacklog.
+    public ConflatingVehicleStream(@Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                                   SessionBacklog sessionBacklog, ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${fleet.stream.session.max-in-flight-frames:32}") int maxInFlightFrames,
+                                   @Value("${fleet.stream.session.max-pending-vehicles:20000}") int maxPendingVehicles) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.sessionBacklog = sessionBacklog;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlightFrames = maxInFlightFrames;
+        this.maxPendingVehicles = maxPendingVehicles;
+    }
+
+    @PostConstruct
+    public void init() {
+        conflated = Counter.builder("fleet.stream.session.updates").tag("result", "conflated")
+                .description("Vehicle updates replaced by a newer one before a slow session received them")
+                .register(meterRegistry);
+        dropped = Counter.builder("fleet.stream.session.updates").tag("result", "dropped")
+                .description("Vehicle updates evicted from a full slow-session buffer")
+                .register(meterRegistry);
+        Gauge.builder("fleet.stream.session.slow", subscribers,
+                        s -> s.values().stream().filter(sub -> !sub.pending.isEmpty()).count())
+                .description("Sessions currently receiving conflated vehicle updates")
+                .register(meterRegistry);
+        Gauge.builder("fleet.stream.session.pending", subscribers,
+                        s -> s.values().stream().mapToInt(sub -> sub.pending.size()).sum())
+                .description("Vehicle updates buffered for slow sessions")
+                .register(meterRegistry);
+        sessionBacklog.onWritten(this::drain);
+    }
+
+    public void publish(List<Telemetry> batch) {
+        if (subscribers.isEmpty() || batch.isEmpty()) {
+            return;
+        }
+        List<byte[]> shared = null;
+        for (Subscriber subscriber : subscribers.values()) {
+            try {
+                synchronized (subscriber) {
+                    if (!subscriber.pending.isEmpty()) {
+                        merge(subscriber, batch);
+                        drain(subscriber);
+                        continue;
+                    }
+                    if (shared == null) {
+                        shared = serialize(batch);
+                    }
+                    int sent = 0;
+                    while (sent < shared.size() && hasCredit(subscriber)) {
+                        send(subscriber, shared.get(sent++));
+                    }
+                    if (sent < shared.size()) {
+                        merge(subscriber, batch.subList(sent * BATCH_SIZE, batch.size()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to send vehicle batch to session {}", subscriber.sessionId, e);
+            }
+        }
+    }
+
+    // A stale isEmpty() here only delays the drain to the next write or the next tick.
+    private void drain(String sessionId) {
+        Subscriber subscriber = subscribers.get(sessionId);
+        if (subscriber == null || subscriber.pending.isEmpty()) {
+            return;
+        }
+        try {
+            synchronized (subscriber) {
+                drain(subscriber);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to send vehicle batch to session {}", sessionId, e);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        Iterator<Telemetry> oldest = subscriber.pending.values().iterator();
+        while (oldest.hasNext() && hasCredit(subscriber)) {
+            List<Telemetry> chunk = new ArrayList<>(BATCH_SIZE);
+            while (oldest.hasNext() && chunk.size() < BATCH_SIZE) {
+                chunk.add(oldest.next());
+                oldest.remove();
+            }
+            send(subscriber, serialize(chunk).get(0));
+        }
+    }
+
+    private boolean hasCredit(Subscriber subscriber) {
+        return sessionBacklog.backlog(subscriber.sessionId) < maxInFlightFrames;
+    }
+
+    private void merge(Subscriber subscriber, List<Telemetry> batch) {
+        LinkedHashMap<String, Telemetry> pending = subscriber.pending;
+        int replaced = 0;
+        for (Telemetry t : batch) {
+            // Remove first so a re-inserted vehicle moves to the newest end of the drain order.
+            if (pending.remove(t.getVehicleId()) != null) {
+                replaced++;
+            }
+            pending.put(t.getVehicleId(), t);
+        }
+        conflated.increment(replaced);
+        int overflow = pending.size() - maxPendingVehicles;
+        if (overflow > 0) {
+            Iterator<Telemetry> oldest = pending.values().iterator();
+            for (int i = 0; i < overflow; i++) {
+                oldest.next();
+                oldest.remove();
+            }
+            dropped.increment(overflow);
+        }
+    }
+
+    private List<byte[]> serialize(List<Telemetry> readings) {
+        List<byte[]> chunks = new ArrayList<>((readings.size() + BATCH_SIZE - 1) / BATCH_SIZE);
+        try {
+            for (int i = 0; i < readings.size(); i += BATCH_SIZE) {
+                chunks.add(objectMapper.writeValueAsBytes(readings.subList(i, Math.min(i + BATCH_SIZE, readings.size()))));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise vehicle batch", e);
+        }
+        return chunks;
+    }
+
+    private void send(Subscriber subscriber, byte[] chunk) {
+        clientOutboundChannel.send(SessionMessages.json(subscriber.sessionId, subscriber.subscriptionId, TOPIC, chunk));
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        if (TOPIC.equals(headers.getDestination()) && headers.getSessionId() != null) {
+            subscribers.put(headers.getSessionId(), new Subscriber(headers.getSessionId(), headers.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Subscriber subscriber = headers.getSessionId() != null ? subscribers.get(headers.getSessionId()) : null;
+        if (subscriber != null && Objects.equals(subscriber.subscriptionId, headers.getSubscriptionId())) {
+            subscribers.remove(headers.getSessionId(), subscriber);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        subscribers.remove(event.getSessionId());
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private static final class Subscriber {
+        final String sessionId;
+        final String subscriptionId;
+        final LinkedHashMap<String, Telemetry> pending = new LinkedHashMap<>();
+
+        Subscriber(String sessionId, String subscriptionId) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+        }
+    }
+}
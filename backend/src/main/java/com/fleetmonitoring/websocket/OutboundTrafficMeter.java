@@ -0,0 +1,54 @@
+package com.fleetmonitoring.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counts the frames and payload bytes actually handed to client sessions, after broker fan-out,
+// per destination. Per-session user destinations are folded back to their shared queue name.
+@Component
+@RequiredArgsConstructor
+public class OutboundTrafficMeter implements ChannelInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent || !(message.getPayload() instanceof byte[] payload)) {
+            return;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return;
+        }
+        Counter[] meters = counters.computeIfAbsent(normalize(destination), this::register);
+        meters[0].increment();
+        meters[1].increment(payload.length);
+    }
+
+    private Counter[] register(String destination) {
+        return new Counter[]{
+                Counter.builder("fleet.stream.messages").tag("destination", destination)
+                        .description("STOMP frames sent to client sessions")
+                        .register(meterRegistry),
+                Counter.builder("fleet.stream.bytes").tag("destination", destination)
+                        .description("STOMP payload bytes sent to client sessions")
+                        .baseUnit("bytes")
+                        .register(meterRegistry)
+        };
+    }
+
+    private static String normalize(String destination) {
+        int user = destination.indexOf("-user");
+        return user > 0 ? destination.substring(0, user) : destination;
+    }
+}
@@ -0,0 +1,95 @@
+package com.fleetmonitoring.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Frames queued for each session on the client outbound channel versus frames actually written to
+ * its socket. The difference is what sits in the outbound executor and in Spring's per-session send
+ * buffer. It stays near zero for a healthy client and grows while a slow one blocks its writes.
+ * Registered as an outbound channel interceptor and as a transport decorator in
+ * {@link com.fleetmonitoring.config.WebSocketConfig}.
+ */
+@Component
+public class SessionBacklog implements ChannelInterceptor {
+
+    private final Map<String, Counts> sessions = new ConcurrentHashMap<>();
+    private volatile Consumer<String> writeListener = sessionId -> { };
+
+    public long backlog(String sessionId) {
+        Counts counts = sessions.get(sessionId);
+        return counts == null ? 0 : counts.queued.get() - counts.written.get();
+    }
+
+    // Called on the writing thread after every frame written to a session's socket.
+    public void onWritten(Consumer<String> listener) {
+        writeListener = listener;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            Counts counts = sessions.get(sessionId);
+            if (counts != null) {
+                counts.queued.incrementAndGet();
+            }
+        }
+        return message;
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                Counts counts = new Counts();
+                sessions.put(session.getId(), counts);
+                super.afterConnectionEstablished(new CountingSession(session, counts, SessionBacklog.this));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private static final class Counts {
+        final AtomicLong queued = new AtomicLong();
+        final AtomicLong written = new AtomicLong();
+    }
+
+    private static final class CountingSession extends WebSocketSessionDecorator {
+        private final Counts counts;
+        private final SessionBacklog owner;
+
+        CountingSession(WebSocketSession session, Counts counts, SessionBacklog owner) {
+            super(session);
+            this.counts = counts;
+            this.owner = owner;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            super.sendMessage(message);
+            counts.written.incrementAndGet();
+            owner.writeListener.accept(getId());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.fleetmonitoring.websocket;
+
+import java.time.Instant;
+
+// speed is the replay rate, e.g. 60 plays an hour of track in a minute; zoom and toleranceMeters
+// pick the simplification exactly as on the track endpoint.
+public record TrackReplayRequest(String vehicleId, Instant from, Instant to, double speed,
+                                 Integer zoom, Double toleranceMeters) {
+}
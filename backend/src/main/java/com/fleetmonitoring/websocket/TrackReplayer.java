@@ -0,0 +1,227 @@
+package com.fleetmonitoring.websocket;
+
+import com.fleetmonitoring.model.TrackPoint;
+import com.fleetmonitoring.service.TrackService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-emits a simplified track to one session at N times real speed. Every frame interval the replay
+ * clock advances by interval x speed and the points it passed go out as one {@link ReplayFrame} on
+ * {@code /user/queue/track}; the client interpolates between them. Each session has at most one
+ * replay, a new request replaces it, and disconnecting cancels it. The track is read from Postgres on
+ * a loader thread, so a two-day range never holds up the inbound channel; errors found there are
+ * sent to {@code /user/queue/errors} like the ones rejected up front.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrackReplayer {
+
+    public static final String USER_DESTINATION = "/queue/track";
+    public static final String ERROR_DESTINATION = "/queue/errors";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TrackService trackService;
+
+    @Value("${fleet.track.replay.frame-interval-ms:250}")
+    private long frameIntervalMs;
+
+    @Value("${fleet.track.replay.max-speed:3600}")
+    private double maxSpeed;
+
+    @Value("${fleet.track.replay.max-sessions:64}")
+    private int maxSessions;
+
+    private final Map<String, Replay> replays = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+    private ExecutorService loader;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "track-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "track-replay-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public void start(String sessionId, TrackReplayRequest request) {
+        if (!(request.speed() > 0 && request.speed() <= maxSpeed)) {
+            throw new IllegalArgumentException("Replay speed must be greater than 0 and at most " + maxSpeed);
+        }
+        if (request.vehicleId() == null || request.vehicleId().isBlank()) {
+            throw new IllegalArgumentException("vehicleId is required");
+        }
+        Replay replay = new Replay(sessionId, request.vehicleId(), request.speed());
+        Replay previous;
+        // The slot is reserved before the track is loaded, so the limit holds while loads are in flight.
+        synchronized (replays) {
+            if (!replays.containsKey(sessionId) && replays.size() >= maxSessions) {
+                throw new IllegalArgumentException("Too many concurrent track replays");
+            }
+            previous = replays.put(sessionId, replay);
+        }
+        if (previous != null) {
+            previous.cancel();
+        }
+        loader.execute(() -> load(replay, request));
+    }
+
+    private void load(Replay replay, TrackReplayRequest request) {
+        List<TrackPoint> points;
+        try {
+            points = trackService.getTrackPoints(request.vehicleId(), request.from(), request.to(),
+                    request.zoom(), request.toleranceMeters());
+        } catch (IllegalArgumentException e) {
+            replays.remove(replay.sessionId, replay);
+            send(replay.sessionId, ERROR_DESTINATION, Map.of("error", e.getMessage()));
+            return;
+        } catch (RuntimeException e) {
+            replays.remove(replay.sessionId, replay);
+            log.warn("Failed to load track of {} for replay to session {}", request.vehicleId(), replay.sessionId, e);
+            send(replay.sessionId, ERROR_DESTINATION, Map.of("error", "Track could not be loaded"));
+            return;
+        }
+        if (replay.cancelled) {
+            return;
+        }
+        // Nothing to pace: the whole track goes out as the one and only frame.
+        if (points.size() < 2) {
+            replays.remove(replay.sessionId, replay);
+            Instant clock = points.isEmpty() ? request.from() : points.get(0).timestamp();
+            send(replay.sessionId, USER_DESTINATION, new ReplayFrame(replay.vehicleId, clock, points, true));
+            return;
+        }
+        replay.begin(points);
+        // A non-zero initial delay means future is always set before the first step can finish.
+        replay.future = executor.scheduleAtFixedRate(replay::step, frameIntervalMs, frameIntervalMs,
+                TimeUnit.MILLISECONDS);
+        if (replay.cancelled) {
+            replay.cancel();
+        }
+        log.debug("Replaying {} points of {} for session {} at {}x", points.size(), request.vehicleId(),
+                replay.sessionId, request.speed());
+    }
+
+    public void stop(String sessionId) {
+        Replay replay = replays.remove(sessionId);
+        if (replay != null) {
+            replay.cancel();
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        stop(event.getSessionId());
+    }
+
+    public int getReplayCount() {
+        return replays.size();
+    }
+
+    private void send(String sessionId, String destination, Object payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        MessageHeaders headers = accessor.getMessageHeaders();
+        messagingTemplate.convertAndSendToUser(sessionId, destination, payload, headers);
+    }
+
+    private final class Replay {
+        final String sessionId;
+        final String vehicleId;
+        final double speed;
+        // Set by begin() before the task is scheduled; scheduling publishes them to the replay thread.
+        List<TrackPoint> points;
+        long startMillis;
+        long startedNanos;
+        volatile ScheduledFuture<?> future;
+        volatile boolean cancelled;
+        int next;
+
+        Replay(String sessionId, String vehicleId, double speed) {
+            this.sessionId = sessionId;
+            this.vehicleId = vehicleId;
+            this.speed = speed;
+        }
+
+        // The clock starts at the first point, not at the requested from, so a range that begins
+        // before the vehicle moved does not replay hours of nothing first.
+        void begin(List<TrackPoint> points) {
+            this.points = points;
+            this.startMillis = points.get(0).timestamp().toEpochMilli();
+            this.startedNanos = System.nanoTime();
+        }
+
+        // Runs on the replay thread only, so next needs no synchronisation.
+        void step() {
+            if (cancelled) {
+                cancel();
+                return;
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            long clockMillis = startMillis + (long) (elapsedMillis * speed);
+            int from = next;
+            while (next < points.size() && points.get(next).timestamp().toEpochMilli() <= clockMillis) {
+                next++;
+            }
+            boolean finished = next == points.size();
+            if (next == from && !finished) {
+                return;
+            }
+            try {
+                send(sessionId, USER_DESTINATION, new ReplayFrame(vehicleId, Instant.ofEpochMilli(clockMillis),
+                        List.copyOf(points.subList(from, next)), finished));
+            } catch (RuntimeException e) {
+                log.warn("Failed to send track replay frame to session {}", sessionId, e);
+            }
+            if (finished) {
+                replays.remove(sessionId, this);
+                cancel();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    public record ReplayFrame(String vehicleId, Instant clock, List<TrackPoint> points, boolean finished) {
+    }
+}
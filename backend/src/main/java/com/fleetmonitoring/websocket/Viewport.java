@@ -0,0 +1,11 @@
+package com.fleetmonitoring.websocket;
+
+public record Viewport(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+
+    // Comparisons are false for NaN, so non-finite bounds fail the range checks too.
+    public boolean isValid() {
+        return minLat >= -90 && maxLat <= 90 && minLng >= -180 && maxLng <= 180
+                && minLat <= maxLat && minLng <= maxLng
+                && zoom >= 0 && zoom <= 22;
+    }
+}
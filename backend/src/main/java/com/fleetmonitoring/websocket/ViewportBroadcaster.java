@@ -0,0 +1,217 @@
+package com.fleetmonitoring.websocket;
+
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.spatial.GridIndex;
+import com.fleetmonitoring.state.FleetSnapshot;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sends each session the vehicles inside its registered map viewport that entered it or reported
+// since the last frame, plus enter/leave events; a session whose viewport saw no change gets nothing.
+// Zoomed-out or overcrowded viewports get per-cell clusters instead of individual vehicles.
+// A batch that did not follow the previous one (the broadcast stage skipped some) resends the
+// whole viewport, since which vehicles changed in between is unknown.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ViewportBroadcaster {
+
+    public static final String USER_DESTINATION = "/queue/vehicles";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${fleet.stream.viewport.cell-size-deg:0.01}")
+    private double cellSizeDeg;
+
+    @Value("${fleet.stream.viewport.cluster-below-zoom:10}")
+    private int clusterBelowZoom;
+
+    @Value("${fleet.stream.viewport.max-vehicles:5000}")
+    private int maxVehicles;
+
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private GridIndex grid;
+    private long lastVersion;
+
+    @PostConstruct
+    public void init() {
+        grid = new GridIndex(cellSizeDeg);
+    }
+
+    public void register(String sessionId, Viewport viewport) {
+        if (!viewport.isValid()) {
+            throw new IllegalArgumentException("Invalid viewport " + viewport);
+        }
+        subscriptions.computeIfAbsent(sessionId, id -> new Subscription()).viewport = viewport;
+    }
+
+    public void unregister(String sessionId) {
+        subscriptions.remove(sessionId);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        unregister(event.getSessionId());
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    // Called from the telemetry pipeline thread, which is the only writer of the grid.
+    // {@code moved} holds the vehicles that reported in snapshots {@code sinceVersion} to this one's.
+    public void publish(FleetSnapshot snapshot, int[] moved, long sinceVersion) {
+        double[] lats = snapshot.getLatitudes();
+        double[] lngs = snapshot.getLongitudes();
+        BitSet changed = null;
+        if (sinceVersion == lastVersion + 1) {
+            changed = new BitSet(snapshot.getSize());
+            for (int ordinal : moved) {
+                grid.update(ordinal, lats[ordinal], lngs[ordinal]);
+                changed.set(ordinal);
+            }
+        } else {
+            for (int i = 0; i < snapshot.getSize(); i++) {
+                grid.update(i, lats[i], lngs[i]);
+            }
+        }
+        lastVersion = snapshot.getVersion();
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        Telemetry[] views = new Telemetry[snapshot.getSize()];
+        BitSet changedOrAll = changed;
+        subscriptions.forEach((sessionId, subscription) -> {
+            Viewport viewport = subscription.viewport;
+            if (viewport == null) {
+                return;
+            }
+            try {
+                ViewportFrame frame = buildFrame(snapshot, views, changedOrAll, viewport, subscription);
+                if (frame != null) {
+                    send(sessionId, frame);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to send viewport frame to session {}", sessionId, e);
+            }
+        });
+    }
+
+    // Null when nothing in the viewport changed. The subscription keeps two bit sets and swaps
+    // them, so a frame allocates nothing per session beyond the lists it sends.
+    private ViewportFrame buildFrame(FleetSnapshot snapshot, Telemetry[] views, BitSet changed,
+                                     Viewport viewport, Subscription subscription) {
+        BitSet visible = subscription.scratch;
+        BitSet previous = subscription.visible;
+        visible.clear();
+        List<Telemetry> vehicles = new ArrayList<>();
+        List<String> entered = new ArrayList<>();
+        List<String> left = new ArrayList<>();
+        List<double[]> clusters = List.of();
+
+        if (viewport.zoom() >= clusterBelowZoom) {
+            grid.query(viewport.minLat(), viewport.minLng(), viewport.maxLat(), viewport.maxLng(), visible::set);
+        }
+        if (viewport.zoom() < clusterBelowZoom || visible.cardinality() > maxVehicles) {
+            visible.clear();
+            clusters = buildClusters(viewport);
+        } else {
+            for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+                boolean isNew = !previous.get(i);
+                if (isNew) {
+                    entered.add(snapshot.getVehicleIds()[i]);
+                }
+                if (isNew || changed == null || changed.get(i)) {
+                    vehicles.add(view(snapshot, views, i));
+                }
+            }
+        }
+        for (int i = previous.nextSetBit(0); i >= 0; i = previous.nextSetBit(i + 1)) {
+            if (!visible.get(i)) {
+                left.add(snapshot.getVehicleIds()[i]);
+            }
+        }
+        subscription.visible = visible;
+        subscription.scratch = previous;
+
+        if (vehicles.isEmpty() && left.isEmpty() && clusters.isEmpty()) {
+            return null;
+        }
+        return new ViewportFrame(vehicles, entered, left, clusters);
+    }
+
+    // Each zoom level below the cluster threshold doubles the number of grid cells merged per cluster.
+    private List<double[]> buildClusters(Viewport viewport) {
+        int shift = Math.max(0, Math.min(16, clusterBelowZoom - viewport.zoom()));
+        Map<Long, double[]> buckets = new HashMap<>();
+        grid.forEachCell(viewport.minLat(), viewport.minLng(), viewport.maxLat(), viewport.maxLng(), cell -> {
+            long key = ((long) (cell.row() >> shift) << 32) | ((cell.col() >> shift) & 0xFFFFFFFFL);
+            double[] bucket = buckets.computeIfAbsent(key, k -> new double[3]);
+            for (int i = 0; i < cell.size(); i++) {
+                int ordinal = cell.ordinalAt(i);
+                bucket[0] += grid.latitude(ordinal);
+                bucket[1] += grid.longitude(ordinal);
+            }
+            bucket[2] += cell.size();
+        });
+        List<double[]> clusters = new ArrayList<>(buckets.size());
+        for (double[] bucket : buckets.values()) {
+            clusters.add(new double[]{bucket[0] / bucket[2], bucket[1] / bucket[2], bucket[2]});
+        }
+        return clusters;
+    }
+
+    private static Telemetry view(FleetSnapshot snapshot, Telemetry[] views, int ordinal) {
+        Telemetry view = views[ordinal];
+        if (view == null) {
+            view = Telemetry.builder()
+                    .vehicleId(snapshot.getVehicleIds()[ordinal])
+                    .latitude(snapshot.getLatitudes()[ordinal])
+                    .longitude(snapshot.getLongitudes()[ordinal])
+                    .speed(snapshot.getSpeeds()[ordinal])
+                    .fuelLevel(snapshot.getFuelLevels()[ordinal])
+                    .engineTemp(snapshot.getEngineTemps()[ordinal])
+                    .timestamp(Instant.ofEpochMilli(snapshot.getUpdatedMillis()[ordinal]))
+                    .build();
+            views[ordinal] = view;
+        }
+        return view;
+    }
+
+    private void send(String sessionId, ViewportFrame frame) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        MessageHeaders headers = accessor.getMessageHeaders();
+        messagingTemplate.convertAndSendToUser(sessionId, USER_DESTINATION, frame, headers);
+    }
+
+    private static class Subscription {
+        volatile Viewport viewport;
+        BitSet visible = new BitSet();
+        BitSet scratch = new BitSet();
+    }
+
+    // clusters are [lat, lng, count] per occupied grid cell.
+    public record ViewportFrame(List<Telemetry> vehicles, List<String> entered,
+                                List<String> left, List<double[]> clusters) {
+    }
+}
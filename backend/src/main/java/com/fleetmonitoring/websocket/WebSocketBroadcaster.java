@@ -1,6 +1,7 @@
 package com.fleetmonitoring.websocket;
 
 import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.FleetMetrics;
 import com.fleetmonitoring.model.Telemetry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,38 +9,27 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketBroadcaster {
 
-    private static final int BATCH_SIZE = 50;
-
     private final SimpMessagingTemplate messagingTemplate;
-    private final AtomicBoolean alertsEnabled = new AtomicBoolean(true);
+    private final ConflatingVehicleStream vehicleStream;
+    private final AlertFanout alertFanout;
 
+    // Paced per session; see ConflatingVehicleStream.
     public void broadcastTelemetryBatch(List<Telemetry> telemetryList) {
-        for (int i = 0; i < telemetryList.size(); i += BATCH_SIZE) {
-            int end = Math.min(i + BATCH_SIZE, telemetryList.size());
-            List<Telemetry> chunk = telemetryList.subList(i, end);
-            messagingTemplate.convertAndSend("/topic/vehicles", chunk);
-        }
-    }
-
-    public void broadcastAlert(Alert alert) {
-        if (alertsEnabled.get()) {
-            messagingTemplate.convertAndSend("/topic/alerts", alert);
-        }
+        vehicleStream.publish(telemetryList);
     }
 
-    public void setAlertsEnabled(boolean enabled) {
-        alertsEnabled.set(enabled);
-        log.info("Alert broadcasting {}", enabled ? "enabled" : "disabled");
+    public void broadcastMetrics(FleetMetrics metrics) {
+        messagingTemplate.convertAndSend("/topic/metrics", metrics);
     }
 
-    public boolean isAlertsEnabled() {
-        return alertsEnabled.get();
+    // One frame per batch, rate limited and muted per session; see AlertFanout.
+    public void broadcastAlerts(List<Alert> alerts) {
+        alertFanout.publish(alerts);
     }
 }
@@ -0,0 +1,105 @@
+package com.fleetmonitoring.alert;
+
+import com.fleetmonitoring.alert.AlertRuleProperties.Comparison;
+import com.fleetmonitoring.alert.AlertRuleProperties.Rule;
+import com.fleetmonitoring.alert.AlertRuleProperties.RuleKind;
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AlertEngineTest {
+
+    private static final long T0 = System.currentTimeMillis();
+
+    private final List<Alert> alerts = new ArrayList<>();
+
+    @Test
+    void thresholdRuleRaisesWarningAndCritical() {
+        AlertEngine engine = engine(new Rule(AlertType.ENGINE_OVERHEAT, RuleKind.THRESHOLD,
+                TelemetryField.ENGINE_TEMP, Comparison.ABOVE, 100, 110, "Vehicle %s engine at %.1f°C"));
+
+        engine.evaluate(0, "v0", 50, 50, 90, T0, alerts::add);
+        engine.evaluate(1, "v1", 50, 50, 105, T0, alerts::add);
+        engine.evaluate(2, "v2", 50, 50, 115, T0, alerts::add);
+
+        assertThat(alerts).extracting(Alert::getVehicleId, Alert::getSeverity)
+                .containsExactly(tuple("v1", Severity.WARNING), tuple("v2", Severity.CRITICAL));
+        assertThat(alerts.get(1).getMessage()).isEqualTo(String.format("Vehicle %s engine at %.1f°C", "v2", 115.0));
+        assertThat(alerts.get(1).getTimestamp().toEpochMilli()).isEqualTo(T0);
+    }
+
+    @Test
+    void cooldownRunsOnReadingTimePerVehicleAndType() {
+        AlertEngine engine = engine(new Rule(AlertType.LOW_FUEL, RuleKind.THRESHOLD,
+                TelemetryField.FUEL_LEVEL, Comparison.BELOW, 15, 10, "Vehicle %s fuel low at %.1f%%"));
+
+        engine.evaluate(0, "v0", 50, 5, 90, T0, alerts::add);
+        engine.evaluate(0, "v0", 50, 5, 90, T0 + 29_000, alerts::add);
+        engine.evaluate(1, "v1", 50, 5, 90, T0 + 29_000, alerts::add);
+        engine.evaluate(0, "v0", 50, 5, 90, T0 + 30_000, alerts::add);
+
+        assertThat(alerts).extracting(Alert::getVehicleId).containsExactly("v0", "v1", "v0");
+        assertThat(engine.getEmittedCount()).isEqualTo(3);
+        assertThat(engine.getSuppressedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sustainedRuleIgnoresBreachesShorterThanTheWindow() {
+        AlertEngine engine = engine(new Rule(AlertType.OVERSPEED, RuleKind.SUSTAINED,
+                TelemetryField.SPEED, Comparison.ABOVE, 120, 140, "Vehicle %s speeding at %.1f km/h").window(5));
+
+        engine.evaluate(0, "v0", 130, 50, 90, T0, alerts::add);
+        engine.evaluate(0, "v0", 130, 50, 90, T0 + 4_000, alerts::add);
+        engine.evaluate(0, "v0", 100, 50, 90, T0 + 5_000, alerts::add);
+        engine.evaluate(0, "v0", 130, 50, 90, T0 + 6_000, alerts::add);
+        assertThat(alerts).isEmpty();
+
+        engine.evaluate(0, "v0", 130, 50, 90, T0 + 11_000, alerts::add);
+        assertThat(alerts).singleElement()
+                .extracting(Alert::getAlertType, Alert::getSeverity)
+                .containsExactly(AlertType.OVERSPEED, Severity.WARNING);
+    }
+
+    @Test
+    void rateOfChangeMessageReportsTheRateOfItsOwnVehicle() {
+        String template = "Vehicle %s fuel dropping at %.2f%%/s";
+        AlertEngine engine = engine(new Rule(AlertType.FUEL_DROP, RuleKind.RATE_OF_CHANGE,
+                TelemetryField.FUEL_LEVEL, Comparison.BELOW, -0.15, -0.3, template).window(60));
+
+        engine.evaluate(0, "v0", 50, 50, 90, T0, alerts::add);
+        engine.evaluate(1, "v1", 50, 50, 90, T0, alerts::add);
+        engine.evaluate(0, "v0", 50, 30, 90, T0 + 40_000, alerts::add);
+        engine.evaluate(1, "v1", 50, 42, 90, T0 + 40_000, alerts::add);
+
+        assertThat(alerts).extracting(Alert::getSeverity).containsExactly(Severity.CRITICAL, Severity.WARNING);
+        assertThat(alerts).extracting(Alert::getMessage).containsExactly(
+                String.format(template, "v0", -0.5),
+                String.format(template, "v1", -0.2));
+    }
+
+    @Test
+    void reservedCapacityCoversOrdinalsNotSeenYet() {
+        AlertEngine engine = engine(new Rule(AlertType.OVERSPEED, RuleKind.COUNT_IN_WINDOW,
+                TelemetryField.SPEED, Comparison.ABOVE, 120, 140, "Vehicle %s speeding at %.1f km/h").window(10));
+        engine.ensureCapacity(5000);
+
+        for (int i = 0; i < 3; i++) {
+            engine.evaluate(4999, "v4999", 130, 50, 90, T0 + i * 1000L, alerts::add);
+        }
+
+        assertThat(alerts).singleElement().extracting(Alert::getVehicleId).isEqualTo("v4999");
+    }
+
+    private static AlertEngine engine(Rule rule) {
+        AlertRuleProperties properties = new AlertRuleProperties();
+        properties.setRules(List.of(rule));
+        return new AlertEngine(properties);
+    }
+}
@@ -0,0 +1,143 @@
+package com.fleetmonitoring.geofence;
+
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.GeoPoint;
+import com.fleetmonitoring.model.Geofence;
+import com.fleetmonitoring.model.GeofenceCategory;
+import com.fleetmonitoring.model.GeofenceShape;
+import com.fleetmonitoring.model.Severity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class GeofenceEngineTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final GeofenceEngine engine = new GeofenceEngine(0.0025, 1_000_000);
+    private final List<Alert> alerts = new ArrayList<>();
+
+    @Test
+    void circleContainsPointsWithinItsRadiusOnly() {
+        CompiledFence fence = CompiledFence.compile(circle(1, GeofenceCategory.DEPOT, 52.0, 13.0, 500, null));
+
+        assertThat(fence.contains(52.004, 13.0)).isTrue();    // ~445 m north
+        assertThat(fence.contains(52.0046, 13.0)).isFalse();  // ~512 m north
+        assertThat(fence.contains(52.0, 13.007)).isTrue();    // ~480 m east
+        assertThat(fence.contains(52.0, 13.0075)).isFalse();  // ~514 m east
+        // Inside the bounding box but outside the circle.
+        assertThat(fence.contains(52.004, 13.005)).isFalse();
+    }
+
+    @Test
+    void polygonExcludesItsConcaveNotch() {
+        // An L shape: the square [10, 12] x [20, 22] minus its [11, 12] x [21, 22] corner.
+        CompiledFence fence = CompiledFence.compile(Geofence.builder()
+                .id(1L).name("yard").category(GeofenceCategory.DEPOT).shape(GeofenceShape.POLYGON)
+                .vertices(List.of(new GeoPoint(10, 20), new GeoPoint(10, 22), new GeoPoint(11, 22),
+                        new GeoPoint(11, 21), new GeoPoint(12, 21), new GeoPoint(12, 20)))
+                .build());
+
+        assertThat(fence.contains(10.5, 21.5)).isTrue();
+        assertThat(fence.contains(11.5, 20.5)).isTrue();
+        assertThat(fence.contains(11.5, 21.5)).isFalse();
+        assertThat(fence.contains(12.5, 20.5)).isFalse();
+    }
+
+    @Test
+    void firstReadingOnlySeedsState() {
+        engine.reload(List.of(circle(1, GeofenceCategory.DEPOT, 52.0, 13.0, 500, null)));
+
+        engine.evaluate(0, "v0", 52.0, 13.0, T0, alerts::add);
+        assertThat(alerts).isEmpty();
+
+        engine.evaluate(0, "v0", 52.01, 13.0, T0 + 1_000, alerts::add);
+        assertThat(alerts).extracting(Alert::getAlertType).containsExactly(AlertType.GEOFENCE_EXIT);
+    }
+
+    @Test
+    void reportsEnterAndExit() {
+        engine.reload(List.of(circle(1, GeofenceCategory.RESTRICTED_ZONE, 52.0, 13.0, 500, null)));
+
+        engine.evaluate(0, "v0", 52.01, 13.0, T0, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 1_000, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.001, T0 + 2_000, alerts::add);
+        engine.evaluate(0, "v0", 52.01, 13.0, T0 + 3_000, alerts::add);
+
+        assertThat(alerts).extracting(Alert::getAlertType, Alert::getSeverity).containsExactly(
+                tuple(AlertType.GEOFENCE_ENTER, Severity.CRITICAL),
+                tuple(AlertType.GEOFENCE_EXIT, Severity.WARNING));
+        assertThat(alerts.get(0).getTimestamp().toEpochMilli()).isEqualTo(T0 + 1_000);
+    }
+
+    @Test
+    void reportsDwellOncePerVisit() {
+        engine.reload(List.of(circle(1, GeofenceCategory.CUSTOMER_SITE, 52.0, 13.0, 500, 60)));
+
+        engine.evaluate(0, "v0", 52.01, 13.0, T0, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 1_000, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 60_000, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 61_000, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 600_000, alerts::add);
+
+        assertThat(alerts).extracting(Alert::getAlertType)
+                .containsExactly(AlertType.GEOFENCE_ENTER, AlertType.GEOFENCE_DWELL);
+        assertThat(alerts.get(1).getMessage()).isEqualTo("v0 has been inside site-1 for over 60 s");
+
+        // A new visit may dwell again.
+        engine.evaluate(0, "v0", 52.01, 13.0, T0 + 601_000, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 602_000, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 662_000, alerts::add);
+        assertThat(alerts).extracting(Alert::getAlertType).containsExactly(
+                AlertType.GEOFENCE_ENTER, AlertType.GEOFENCE_DWELL,
+                AlertType.GEOFENCE_EXIT, AlertType.GEOFENCE_ENTER, AlertType.GEOFENCE_DWELL);
+    }
+
+    @Test
+    void deletedFenceDropsSilently() {
+        engine.reload(List.of(circle(1, GeofenceCategory.DEPOT, 52.0, 13.0, 500, 60)));
+        engine.evaluate(0, "v0", 52.01, 13.0, T0, alerts::add);
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 1_000, alerts::add);
+        alerts.clear();
+
+        engine.reload(List.of());
+        engine.evaluate(0, "v0", 52.0, 13.0, T0 + 120_000, alerts::add);
+        engine.evaluate(0, "v0", 52.01, 13.0, T0 + 121_000, alerts::add);
+
+        assertThat(alerts).isEmpty();
+        assertThat(engine.getGeofenceCount()).isZero();
+    }
+
+    @Test
+    void distantFencesKeepTheConfiguredCellSize() {
+        List<CompiledFence> fences = List.of(
+                CompiledFence.compile(circle(1, GeofenceCategory.DEPOT, 52.52, 13.40, 300, null)),
+                CompiledFence.compile(circle(2, GeofenceCategory.DEPOT, -33.87, 151.21, 300, null)));
+        GeofenceIndex index = new GeofenceIndex(fences, 0.0025, 100);
+
+        assertThat(index.cellSizeDeg()).isEqualTo(0.0025);
+        assertThat(index.occupiedCells()).isLessThanOrEqualTo(2 * 3 * 5);
+        assertThat(index.candidates(52.52, 13.40)).extracting(fence -> fence.id).containsExactly(1L);
+        assertThat(index.candidates(-33.87, 151.21)).extracting(fence -> fence.id).containsExactly(2L);
+        assertThat(index.candidates(10.0, 80.0)).isEmpty();
+    }
+
+    private static Geofence circle(long id, GeofenceCategory category, double lat, double lng, double radiusMeters,
+                                   Integer dwellLimitSeconds) {
+        return Geofence.builder()
+                .id(id)
+                .name("site-" + id)
+                .category(category)
+                .shape(GeofenceShape.CIRCLE)
+                .centerLatitude(lat)
+                .centerLongitude(lng)
+                .radiusMeters(radiusMeters)
+                .dwellLimitSeconds(dwellLimitSeconds)
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.fleetmonitoring.ingest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StageWorkerTest {
+
+    private final List<List<Integer>> handled = new CopyOnWriteArrayList<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private StageWorker<List<Integer>> worker;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        release.countDown();
+        if (worker != null) {
+            worker.shutdown(1000);
+        }
+    }
+
+    @Test
+    void coalescesIntoTheNewestPendingItemUpToTheCap() throws InterruptedException {
+        worker = worker(OverrunPolicy.COALESCE, 3, 0);
+        occupy();
+        worker.submit(List.of(2));
+        worker.submit(List.of(3));
+        // 2 pending readings plus 2 would pass the cap of 3, so this one is dropped whole.
+        worker.submit(List.of(4, 5));
+        worker.submit(List.of(4));
+
+        assertThat(worker.depth()).isEqualTo(1);
+        assertThat(worker.dropped()).isEqualTo(1);
+        release.countDown();
+        worker.shutdown(1000);
+        assertThat(handled).containsExactly(List.of(1), List.of(2, 3, 4));
+    }
+
+    @Test
+    void skipDropsAtOnceWhileTheQueueIsFull() throws InterruptedException {
+        worker = worker(OverrunPolicy.SKIP, 100, 0);
+        occupy();
+        worker.submit(List.of(2));
+        worker.submit(List.of(3));
+
+        assertThat(worker.dropped()).isEqualTo(1);
+        release.countDown();
+        worker.shutdown(1000);
+        assertThat(handled).containsExactly(List.of(1), List.of(2));
+    }
+
+    @Test
+    void blockGivesUpAfterTheTimeoutAndDrops() throws InterruptedException {
+        worker = worker(OverrunPolicy.BLOCK, 100, TimeUnit.MILLISECONDS.toNanos(50));
+        occupy();
+        worker.submit(List.of(2));
+
+        long start = System.nanoTime();
+        worker.submit(List.of(3));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(waitedMillis).isGreaterThanOrEqualTo(50);
+        assertThat(worker.dropped()).isEqualTo(1);
+        release.countDown();
+        worker.shutdown(1000);
+        assertThat(handled).containsExactly(List.of(1), List.of(2));
+    }
+
+    @Test
+    void blockEnqueuesOnceSpaceFreesUp() throws InterruptedException {
+        worker = worker(OverrunPolicy.BLOCK, 100, TimeUnit.SECONDS.toNanos(5));
+        occupy();
+        worker.submit(List.of(2));
+
+        Thread releaser = new Thread(() -> {
+            sleep(50);
+            release.countDown();
+        });
+        releaser.start();
+        worker.submit(List.of(3));
+        releaser.join();
+
+        assertThat(worker.dropped()).isZero();
+        worker.shutdown(1000);
+        assertThat(handled).containsExactly(List.of(1), List.of(2), List.of(3));
+    }
+
+    private StageWorker<List<Integer>> worker(OverrunPolicy policy, int maxCoalescedSize, long blockTimeoutNanos) {
+        return new StageWorker<>("test", 1, policy, StageWorkerTest::concat, List::size, maxCoalescedSize,
+                blockTimeoutNanos, this::handle, new SimpleMeterRegistry());
+    }
+
+    // Hands the worker a first item and waits until its thread is stuck handling it, so the next
+    // submission fills the one-slot queue.
+    private void occupy() throws InterruptedException {
+        worker.submit(List.of(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void handle(List<Integer> item) {
+        handled.add(item);
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Integer> concat(List<Integer> older, List<Integer> newer) {
+        List<Integer> merged = new ArrayList<>(older);
+        merged.addAll(newer);
+        return merged;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fleetmonitoring.ingest;
+
+import com.fleetmonitoring.model.Telemetry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TelemetryFrameCodecTest {
+
+    private static final Instant RECEIVED_AT = Instant.parse("2024-01-01T12:00:00Z");
+
+    @Test
+    void decodesEveryFieldAndDefaultsAZeroTimestamp() {
+        ByteBuffer frame = ByteBuffer.allocate(256).putInt(2);
+        record(frame, "truck-7", 52.5, 13.4, 88.5, 41.0, 92.5, 1_700_000_000_123L);
+        record(frame, "lkw-ü", -33.9, 151.2, 0, 100, 20, 0);
+
+        List<Telemetry> readings = TelemetryFrameCodec.decode(bytes(frame), RECEIVED_AT);
+
+        assertThat(readings).hasSize(2);
+        Telemetry first = readings.get(0);
+        assertThat(first.getVehicleId()).isEqualTo("truck-7");
+        assertThat(first.getLatitude()).isEqualTo(52.5);
+        assertThat(first.getLongitude()).isEqualTo(13.4);
+        assertThat(first.getSpeed()).isEqualTo(88.5);
+        assertThat(first.getFuelLevel()).isEqualTo(41.0);
+        assertThat(first.getEngineTemp()).isEqualTo(92.5);
+        assertThat(first.getTimestamp()).isEqualTo(Instant.ofEpochMilli(1_700_000_000_123L));
+        assertThat(readings.get(1).getVehicleId()).isEqualTo("lkw-ü");
+        assertThat(readings.get(1).getTimestamp()).isEqualTo(RECEIVED_AT);
+    }
+
+    @Test
+    void decodesAnEmptyFrame() {
+        assertThat(TelemetryFrameCodec.decode(ByteBuffer.allocate(4).putInt(0).array(), RECEIVED_AT)).isEmpty();
+    }
+
+    @Test
+    void rejectsACountTheFrameCannotHold() {
+        ByteBuffer frame = ByteBuffer.allocate(256).putInt(3);
+        record(frame, "v1", 0, 0, 0, 0, 0, 0);
+        assertBadFrame(bytes(frame), "declares 3 records");
+        assertBadFrame(ByteBuffer.allocate(4).putInt(-1).array(), "declares -1 records");
+    }
+
+    @Test
+    void rejectsATruncatedRecord() {
+        ByteBuffer frame = ByteBuffer.allocate(256).putInt(1);
+        record(frame, "vehicle-with-a-long-id", 0, 0, 0, 0, 0, 0);
+        byte[] full = bytes(frame);
+        assertBadFrame(Arrays.copyOf(full, full.length - 1), "Truncated");
+        assertBadFrame(new byte[2], "Truncated");
+    }
+
+    @Test
+    void rejectsTrailingBytes() {
+        ByteBuffer frame = ByteBuffer.allocate(256).putInt(1);
+        record(frame, "v1", 0, 0, 0, 0, 0, 0);
+        frame.put((byte) 7);
+        assertBadFrame(bytes(frame), "1 trailing bytes");
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedVehicleIds() {
+        ByteBuffer empty = ByteBuffer.allocate(256).putInt(1);
+        record(empty, "", 0, 0, 0, 0, 0, 0);
+        assertBadFrame(bytes(empty), "empty vehicleId");
+
+        ByteBuffer oversized = ByteBuffer.allocate(256).putInt(1);
+        record(oversized, "x".repeat(Telemetry.MAX_VEHICLE_ID_BYTES + 1), 0, 0, 0, 0, 0, 0);
+        assertBadFrame(bytes(oversized), "longer than " + Telemetry.MAX_VEHICLE_ID_BYTES);
+    }
+
+    private static void assertBadFrame(byte[] frame, String message) {
+        assertThatThrownBy(() -> TelemetryFrameCodec.decode(frame, RECEIVED_AT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(message);
+    }
+
+    private static void record(ByteBuffer frame, String vehicleId, double lat, double lng, double speed,
+                               double fuel, double temp, long millis) {
+        byte[] id = vehicleId.getBytes(StandardCharsets.UTF_8);
+        frame.put((byte) id.length).put(id)
+                .putDouble(lat).putDouble(lng).putDouble(speed).putDouble(fuel).putDouble(temp)
+                .putLong(millis);
+    }
+
+    private static byte[] bytes(ByteBuffer frame) {
+        return Arrays.copyOf(frame.array(), frame.position());
+    }
+}
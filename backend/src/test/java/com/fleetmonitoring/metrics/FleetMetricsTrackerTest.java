@@ -0,0 +1,105 @@
+package com.fleetmonitoring.metrics;
+
+import com.fleetmonitoring.model.FleetMetrics;
+import com.fleetmonitoring.model.FleetMetrics.ProvinceMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FleetMetricsTrackerTest {
+
+    private final FleetMetricsTracker tracker = new FleetMetricsTracker();
+
+    @BeforeEach
+    void limits() {
+        ReflectionTestUtils.setField(tracker, "speedLimit", 120.0);
+        ReflectionTestUtils.setField(tracker, "fuelWarning", 15.0);
+        ReflectionTestUtils.setField(tracker, "tempWarning", 100.0);
+    }
+
+    @Test
+    void nextReadingRetractsTheVehiclesPreviousContribution() {
+        tracker.update(0, "B 1", 130, 10, 105);
+        tracker.update(1, "B 2", 50, 80, 90);
+        FleetMetrics before = tracker.publish();
+        assertThat(before.totalOnline()).isEqualTo(2);
+        assertThat(before.averageSpeed()).isEqualTo(90.0);
+        assertThat(before.overspeedCount()).isEqualTo(1);
+        assertThat(before.lowFuelCount()).isEqualTo(1);
+        assertThat(before.overheatCount()).isEqualTo(1);
+
+        tracker.update(0, "B 1", 60, 50, 90);
+        FleetMetrics after = tracker.publish();
+
+        assertThat(after.totalOnline()).isEqualTo(2);
+        assertThat(after.averageSpeed()).isEqualTo(55.0);
+        assertThat(after.overspeedCount()).isZero();
+        assertThat(after.lowFuelCount()).isZero();
+        assertThat(after.overheatCount()).isZero();
+        assertThat(after.provinces().get("B")).isEqualTo(new ProvinceMetrics(2, 55.0, 0, 0, 0));
+    }
+
+    @Test
+    void bucketsVehiclesByPlatePrefix() {
+        tracker.update(0, "B 1", 100, 50, 90);
+        tracker.update(1, "HH 1", 130, 10, 90);
+        tracker.update(2, "B 2", 50, 50, 110);
+        tracker.update(3, "TRUCK7", 20, 50, 90);
+
+        FleetMetrics metrics = tracker.publish();
+
+        assertThat(metrics.provinces()).containsOnlyKeys("B", "HH", "OTHER");
+        assertThat(metrics.provinces().get("B")).isEqualTo(new ProvinceMetrics(2, 75.0, 0, 0, 1));
+        assertThat(metrics.provinces().get("HH")).isEqualTo(new ProvinceMetrics(1, 130.0, 1, 1, 0));
+        assertThat(metrics.provinces().get("OTHER")).isEqualTo(new ProvinceMetrics(1, 20.0, 0, 0, 0));
+        assertThat(metrics.totalOnline()).isEqualTo(4);
+        assertThat(metrics.averageSpeed()).isEqualTo(75.0);
+    }
+
+    @Test
+    void vehicleKeepsTheProvinceItFirstReportedUnder() {
+        tracker.update(0, "B 1", 100, 50, 90);
+        // Only the ordinal identifies the vehicle after its first reading.
+        tracker.update(0, "HH 1", 80, 50, 90);
+
+        assertThat(tracker.publish().provinces()).containsOnlyKeys("B");
+    }
+
+    @Test
+    void runningSpeedTotalsDoNotDrift() {
+        for (int i = 0; i < 100_000; i++) {
+            tracker.update(i % 3, "B " + i % 3, i % 2 == 0 ? 0.1 : 33.3, 50, 90);
+        }
+        tracker.update(0, "B 0", 0.1, 50, 90);
+        tracker.update(1, "B 1", 0.1, 50, 90);
+        tracker.update(2, "B 2", 0.1, 50, 90);
+
+        assertThat(tracker.publish().averageSpeed()).isEqualTo(0.1);
+    }
+
+    @Test
+    void growsPastTheInitialCapacity() {
+        tracker.update(5000, "B 1", 130, 50, 90);
+
+        FleetMetrics metrics = tracker.publish();
+
+        assertThat(metrics.totalOnline()).isEqualTo(1);
+        assertThat(metrics.overspeedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void publishFreezesAVersionedSnapshot() {
+        assertThat(tracker.current()).isSameAs(FleetMetrics.EMPTY);
+        tracker.update(0, "B 1", 100, 50, 90);
+        FleetMetrics first = tracker.publish();
+        tracker.update(1, "B 2", 100, 50, 90);
+
+        assertThat(tracker.current()).isSameAs(first);
+        assertThat(first.totalOnline()).isEqualTo(1);
+        FleetMetrics second = tracker.publish();
+        assertThat(second.version()).isEqualTo(first.version() + 1);
+        assertThat(tracker.current()).isSameAs(second);
+    }
+}
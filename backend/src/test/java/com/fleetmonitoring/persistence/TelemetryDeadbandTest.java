@@ -0,0 +1,172 @@
+package com.fleetmonitoring.persistence;
+
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.Telemetry;
+import com.fleetmonitoring.state.FleetStateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryDeadbandTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final FleetStateStore fleetStateStore = new FleetStateStore();
+    private final TelemetryDeadband deadband = new TelemetryDeadband(fleetStateStore);
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(deadband, "enabled", true);
+        ReflectionTestUtils.setField(deadband, "positionMeters", 10.0);
+        ReflectionTestUtils.setField(deadband, "speedTolerance", 2.0);
+        ReflectionTestUtils.setField(deadband, "fuelTolerance", 0.5);
+        ReflectionTestUtils.setField(deadband, "tempTolerance", 1.0);
+        ReflectionTestUtils.setField(deadband, "maxSilence", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(deadband, "fillInterval", Duration.ofSeconds(1));
+        fleetStateStore.register("v1");
+    }
+
+    @Test
+    void storesOnlyReadingsOutsideTheDeadBand() {
+        List<Telemetry> kept = deadband.filter(List.of(
+                reading(0, 50, 60, 90, 52.0),
+                reading(1, 51.5, 60.4, 90.9, 52.00005),
+                reading(2, 53, 60, 90, 52.0),
+                reading(3, 53, 59.4, 90, 52.0),
+                reading(4, 53, 59.4, 91.1, 52.0),
+                reading(5, 53, 59.4, 91.1, 52.0002)), List.of());
+
+        assertThat(kept).extracting(TelemetryDeadbandTest::second).containsExactly(0L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void storesOnHeartbeatAlertAndUnknownVehicle() {
+        deadband.filter(List.of(reading(0, 50, 60, 90, 52.0)), List.of());
+
+        assertThat(deadband.filter(List.of(reading(59, 50, 60, 90, 52.0)), List.of())).isEmpty();
+        assertThat(deadband.filter(List.of(reading(60, 50, 60, 90, 52.0)), List.of())).hasSize(1);
+        Alert alert = Alert.builder().vehicleId("v1").build();
+        assertThat(deadband.filter(List.of(reading(61, 50, 60, 90, 52.0)), List.of(alert))).hasSize(1);
+
+        Telemetry unknown = reading(62, 50, 60, 90, 52.0);
+        unknown.setVehicleId("v2");
+        assertThat(deadband.filter(List.of(unknown), List.of())).containsExactly(unknown);
+    }
+
+    @Test
+    void resyncForcesTheNextReadingThrough() {
+        deadband.filter(List.of(reading(0, 50, 60, 90, 52.0)), List.of());
+        assertThat(deadband.filter(List.of(reading(1, 50, 60, 90, 52.0)), List.of())).isEmpty();
+
+        deadband.resync();
+
+        assertThat(deadband.filter(List.of(reading(2, 50, 60, 90, 52.0)), List.of())).hasSize(1);
+        assertThat(deadband.filter(List.of(reading(3, 50, 60, 90, 52.0)), List.of())).isEmpty();
+    }
+
+    @Test
+    void fillForwardRepeatsStoredRowsUpToTheNextOneAndUntil() {
+        List<Telemetry> filled = deadband.fillForward(null,
+                List.of(reading(0, 50, 60, 90, 52.0), reading(4, 80, 59, 95, 52.0)), null, T0.plusSeconds(6));
+
+        assertThat(filled).extracting(TelemetryDeadbandTest::second).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(filled).extracting(Telemetry::getSpeed).containsExactly(50.0, 50.0, 50.0, 50.0, 80.0, 80.0, 80.0);
+        assertThat(filled.get(1).getId()).isNull();
+    }
+
+    @Test
+    void fillForwardLeavesGapsLongerThanTheHeartbeatAndStartsAtFrom() {
+        Telemetry previous = reading(0, 50, 60, 90, 52.0);
+        List<Telemetry> filled = deadband.fillForward(previous,
+                List.of(reading(3, 50, 60, 90, 52.0), reading(200, 70, 60, 90, 52.0)),
+                T0.plusSeconds(2), T0.plusSeconds(200));
+
+        assertThat(filled).extracting(TelemetryDeadbandTest::second).containsExactly(2L, 3L, 200L);
+    }
+
+    @Test
+    void streamingFillMatchesTheListFormWhenRowsAreReused() {
+        List<Telemetry> rows = List.of(reading(0, 50, 60, 90, 52.0), reading(3, 60, 60, 90, 52.0),
+                reading(5, 70, 60, 90, 52.0));
+        List<Telemetry> expected = deadband.fillForward(null, rows, null, T0.plusSeconds(7));
+
+        List<Telemetry> streamed = new ArrayList<>();
+        TelemetryDeadband.ForwardFill fill = deadband.fillForward(null, null, row -> streamed.add(copy(row)));
+        Telemetry reused = new Telemetry();
+        for (Telemetry row : rows) {
+            copyInto(row, reused);
+            fill.accept(reused);
+        }
+        fill.finish(T0.plusSeconds(7));
+
+        assertThat(streamed).extracting(TelemetryDeadbandTest::second)
+                .containsExactlyElementsOf(expected.stream().map(TelemetryDeadbandTest::second).toList());
+        assertThat(streamed).extracting(Telemetry::getSpeed)
+                .containsExactlyElementsOf(expected.stream().map(Telemetry::getSpeed).toList());
+    }
+
+    @Test
+    void fillForwardRepeatsRowsAtTheVehiclesOwnReportInterval() {
+        deadband.filter(List.of(reading(0, 50, 60, 90, 52.0), reading(5, 50, 60, 90, 52.0),
+                reading(10, 50, 60, 90, 52.0), reading(200, 50, 60, 90, 52.0)), List.of());
+        fleetStateStore.publish();
+
+        assertThat(deadband.reportIntervalMillis("v1")).isEqualTo(5_000);
+        assertThat(deadband.reportIntervalMillis("v2")).isEqualTo(1_000);
+        List<Telemetry> filled = deadband.fillForward(null,
+                List.of(reading(0, 50, 60, 90, 52.0), reading(20, 80, 59, 95, 52.0)), null, T0.plusSeconds(30));
+        assertThat(filled).extracting(TelemetryDeadbandTest::second).containsExactly(0L, 5L, 10L, 15L, 20L, 25L, 30L);
+
+        List<String> vehicles = new ArrayList<>();
+        deadband.forEachReportInterval((vehicleId, millis) -> vehicles.add(vehicleId + "=" + millis));
+        assertThat(vehicles).containsExactly("v1=5000");
+    }
+
+    @Test
+    void disabledDeadBandPassesEverythingThrough() {
+        ReflectionTestUtils.setField(deadband, "enabled", false);
+        List<Telemetry> batch = List.of(reading(0, 50, 60, 90, 52.0), reading(1, 50, 60, 90, 52.0));
+
+        assertThat(deadband.filter(batch, List.of())).isSameAs(batch);
+        assertThat(deadband.fillForward(null, batch, null, T0.plusSeconds(10))).isSameAs(batch);
+    }
+
+    private static Telemetry reading(long second, double speed, double fuel, double temp, double lat) {
+        return Telemetry.builder()
+                .vehicleId("v1")
+                .latitude(lat)
+                .longitude(13.0)
+                .speed(speed)
+                .fuelLevel(fuel)
+                .engineTemp(temp)
+                .timestamp(T0.plusSeconds(second))
+                .build();
+    }
+
+    private static long second(Telemetry t) {
+        return t.getTimestamp().getEpochSecond() - T0.getEpochSecond();
+    }
+
+    private static Telemetry copy(Telemetry row) {
+        Telemetry copy = new Telemetry();
+        copyInto(row, copy);
+        return copy;
+    }
+
+    private static void copyInto(Telemetry from, Telemetry to) {
+        to.setVehicleId(from.getVehicleId());
+        to.setLatitude(from.getLatitude());
+        to.setLongitude(from.getLongitude());
+        to.setSpeed(from.getSpeed());
+        to.setFuelLevel(from.getFuelLevel());
+        to.setEngineTemp(from.getEngineTemp());
+        to.setTimestamp(from.getTimestamp());
+    }
+}
@@ -0,0 +1,159 @@
+package com.fleetmonitoring.persistence;
+
+import com.fleetmonitoring.model.Telemetry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TelemetryJournalTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsRoundTripAndSurviveReopen() throws IOException {
+        TelemetryJournal journal = open(8);
+        journal.append(readings(0, 5));
+        journal.close();
+
+        TelemetryJournal reopened = open(8);
+        assertThat(reopened.writePosition()).isEqualTo(5);
+        List<Telemetry> out = new ArrayList<>();
+        assertThat(reopened.read(0, 100, out)).isEqualTo(5);
+        assertThat(out).extracting(Telemetry::getVehicleId).containsExactly("v0", "v1", "v2", "v3", "v4");
+        Telemetry last = out.get(4);
+        assertThat(last.getLatitude()).isEqualTo(4.5);
+        assertThat(last.getLongitude()).isEqualTo(-4.25);
+        assertThat(last.getSpeed()).isEqualTo(40);
+        assertThat(last.getFuelLevel()).isEqualTo(96);
+        assertThat(last.getEngineTemp()).isEqualTo(84);
+        assertThat(last.getTimestamp()).isEqualTo(T0.plusSeconds(4));
+    }
+
+    @Test
+    void recoveryStopsAtTheFirstRecordWithABadCrc() throws IOException {
+        TelemetryJournal journal = open(8);
+        journal.append(readings(0, 5));
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(segment(0).toFile(), "rw")) {
+            int offset = 2 * TelemetryJournal.RECORD_BYTES + 50;
+            file.seek(offset);
+            byte b = file.readByte();
+            file.seek(offset);
+            file.writeByte(b ^ 0x01);
+        }
+
+        TelemetryJournal reopened = open(8);
+        assertThat(reopened.writePosition()).isEqualTo(2);
+        reopened.append(readings(10, 1));
+        List<Telemetry> out = new ArrayList<>();
+        reopened.read(0, 100, out);
+        assertThat(out).extracting(Telemetry::getVehicleId).containsExactly("v0", "v1", "v10");
+    }
+
+    @Test
+    void shortSegmentKeepsOnlyWholeRecordsAndGrowsOnTheNextAppend() throws IOException {
+        TelemetryJournal journal = open(8);
+        journal.append(readings(0, 3));
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(segment(0).toFile(), "rw")) {
+            file.setLength(2 * TelemetryJournal.RECORD_BYTES + TelemetryJournal.RECORD_BYTES / 2);
+        }
+
+        TelemetryJournal reopened = open(8);
+        assertThat(reopened.writePosition()).isEqualTo(2);
+        List<Telemetry> out = new ArrayList<>();
+        assertThat(reopened.read(0, 100, out)).isEqualTo(2);
+
+        reopened.append(readings(20, 3));
+        assertThat(reopened.read(2, 100, out)).isEqualTo(5);
+        assertThat(out).extracting(Telemetry::getVehicleId).containsExactly("v0", "v1", "v20", "v21", "v22");
+    }
+
+    @Test
+    void emptySegmentFileRecoversToItsBase() throws IOException {
+        TelemetryJournal journal = open(4);
+        journal.append(readings(0, 6));
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(segment(1).toFile(), "rw")) {
+            file.setLength(0);
+        }
+
+        assertThat(open(4).writePosition()).isEqualTo(4);
+    }
+
+    @Test
+    void readsStopAtSegmentEndsAndCommitDeletesReplayedSegments() throws IOException {
+        TelemetryJournal journal = open(4);
+        journal.append(readings(0, 10));
+        assertThat(segment(2)).exists();
+
+        List<Telemetry> out = new ArrayList<>();
+        assertThat(journal.read(2, 100, out)).isEqualTo(4);
+        assertThat(journal.read(4, 100, out)).isEqualTo(8);
+        journal.commit(8);
+        journal.close();
+
+        assertThat(segment(0)).doesNotExist();
+        assertThat(segment(1)).doesNotExist();
+        TelemetryJournal reopened = open(4);
+        assertThat(reopened.checkpoint()).isEqualTo(8);
+        assertThat(reopened.writePosition()).isEqualTo(10);
+        out.clear();
+        assertThat(reopened.read(0, 100, out)).isEqualTo(10);
+        assertThat(out).extracting(Telemetry::getVehicleId).containsExactly("v8", "v9");
+    }
+
+    @Test
+    void segmentsThatWouldOverflowIntOffsetsAreRejected() {
+        TelemetryJournal journal = configure(TelemetryJournal.MAX_SEGMENT_RECORDS + 1);
+        assertThatThrownBy(journal::open).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("segment-records");
+    }
+
+    private TelemetryJournal open(int segmentRecords) throws IOException {
+        TelemetryJournal journal = configure(segmentRecords);
+        journal.open();
+        return journal;
+    }
+
+    private TelemetryJournal configure(int segmentRecords) {
+        TelemetryJournal journal = new TelemetryJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directoryName", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentRecords", segmentRecords);
+        ReflectionTestUtils.setField(journal, "maxSegments", 64);
+        return journal;
+    }
+
+    private Path segment(long index) {
+        return directory.resolve(String.format("%016d.seg", index));
+    }
+
+    private static List<Telemetry> readings(int first, int count) {
+        return IntStream.range(first, first + count)
+                .mapToObj(i -> Telemetry.builder()
+                        .vehicleId("v" + i)
+                        .latitude(i + 0.5)
+                        .longitude(-i - 0.25)
+                        .speed(i * 10)
+                        .fuelLevel(100 - i)
+                        .engineTemp(80 + i)
+                        .timestamp(T0.plusSeconds(i))
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,158 @@
+package com.fleetmonitoring.repository;
+
+import com.fleetmonitoring.model.RollupResolution;
+import com.fleetmonitoring.model.TelemetryRollup;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// The rollups are PostgreSQL-specific SQL, so they run against a real server.
+@Testcontainers(disabledWithoutDocker = true)
+class TelemetryRollupRepositoryTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Duration STEP = Duration.ofSeconds(1);
+    private static final Duration MAX_GAP = Duration.ofSeconds(61);
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TelemetryRollupRepository repository;
+
+    @BeforeAll
+    static void createSchema() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        repository = new TelemetryRollupRepository(jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE telemetry (id bigserial, vehicle_id varchar(255) NOT NULL, " +
+                "latitude float(53) NOT NULL, longitude float(53) NOT NULL, speed float(53) NOT NULL, " +
+                "fuel_level float(53) NOT NULL, engine_temp float(53) NOT NULL, " +
+                "timestamp timestamp(6) with time zone NOT NULL)");
+        for (String table : new String[]{"telemetry_rollup_1m", "telemetry_rollup_1h"}) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (vehicle_id varchar(255) NOT NULL, " +
+                    "bucket timestamp(6) with time zone NOT NULL, samples integer NOT NULL, " +
+                    "min_speed float(53) NOT NULL, max_speed float(53) NOT NULL, avg_speed float(53) NOT NULL, " +
+                    "min_fuel_level float(53) NOT NULL, max_fuel_level float(53) NOT NULL, " +
+                    "avg_fuel_level float(53) NOT NULL, min_engine_temp float(53) NOT NULL, " +
+                    "max_engine_temp float(53) NOT NULL, avg_engine_temp float(53) NOT NULL, " +
+                    "last_latitude float(53) NOT NULL, last_longitude float(53) NOT NULL, " +
+                    "last_timestamp timestamp(6) with time zone NOT NULL, PRIMARY KEY (vehicle_id, bucket))");
+        }
+    }
+
+    @BeforeEach
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE telemetry, telemetry_rollup_1m, telemetry_rollup_1h");
+    }
+
+    @Test
+    void minuteIsWeightedByTheTimeEachStoredRowStoodFor() {
+        insert(0, 0, 1.0);
+        for (int s = 50; s < 60; s++) {
+            insert(s, 100, 2.0);
+        }
+        insert(60, 100, 3.0);
+
+        repository.rollupMinutes(T0, T0.plusSeconds(60), MAX_GAP, STEP, true);
+
+        TelemetryRollup minute = single(RollupResolution.MINUTE);
+        assertThat(minute.getSamples()).isEqualTo(60);
+        assertThat(minute.getAvgSpeed()).isCloseTo(1000.0 / 60, within(1e-9));
+        assertThat(minute.getMinSpeed()).isZero();
+        assertThat(minute.getMaxSpeed()).isEqualTo(100);
+        assertThat(minute.getLastLatitude()).isEqualTo(2.0);
+        assertThat(minute.getLastTimestamp()).isEqualTo(T0.plusSeconds(59));
+    }
+
+    @Test
+    void spanCrossingAMinuteIsSplitAndHoursWeightBySamples() {
+        insert(30, 10, 1.0);
+        insert(90, 40, 2.0);
+        insert(120, 40, 3.0);
+
+        repository.rollupMinutes(T0, T0.plusSeconds(120), MAX_GAP, STEP, true);
+        repository.rollupHours(T0, T0.plusSeconds(120));
+
+        List<TelemetryRollup> minutes = repository.findByVehicleIdBetween(RollupResolution.MINUTE, "v1",
+                T0, T0.plusSeconds(3600));
+        assertThat(minutes).extracting(TelemetryRollup::getBucket).containsExactly(T0.plusSeconds(60), T0);
+        TelemetryRollup second = minutes.get(0);
+        assertThat(second.getSamples()).isEqualTo(60);
+        assertThat(second.getAvgSpeed()).isCloseTo(25, within(1e-9));
+        assertThat(second.getMinSpeed()).isEqualTo(10);
+        assertThat(second.getLastTimestamp()).isEqualTo(T0.plusSeconds(90));
+        TelemetryRollup first = minutes.get(1);
+        assertThat(first.getSamples()).isEqualTo(30);
+        assertThat(first.getAvgSpeed()).isCloseTo(10, within(1e-9));
+
+        TelemetryRollup hour = single(RollupResolution.HOUR);
+        assertThat(hour.getSamples()).isEqualTo(90);
+        assertThat(hour.getAvgSpeed()).isCloseTo(20, within(1e-9));
+    }
+
+    @Test
+    void rowFollowedBySilenceStandsForOneFillInterval() {
+        insert(0, 30, 1.0);
+        insert(10, 60, 1.0);
+        insert(200, 90, 1.0);
+
+        repository.rollupMinutes(T0, T0.plusSeconds(60), MAX_GAP, STEP, true);
+
+        TelemetryRollup minute = single(RollupResolution.MINUTE);
+        assertThat(minute.getSamples()).isEqualTo(11);
+        assertThat(minute.getAvgSpeed()).isCloseTo((30 * 10 + 60) / 11.0, within(1e-9));
+    }
+
+    @Test
+    void samplesAreCountedAtTheVehiclesReportInterval() {
+        insert(0, 30, 1.0);
+        insert(30, 60, 1.0);
+        insert(200, 90, 1.0);
+
+        repository.rollupMinutes(T0, T0.plusSeconds(60), MAX_GAP, STEP, new String[]{"v1"}, new long[]{5_000}, true);
+
+        TelemetryRollup minute = single(RollupResolution.MINUTE);
+        assertThat(minute.getSamples()).isEqualTo(7);
+        assertThat(minute.getAvgSpeed()).isCloseTo((30 * 30 + 60 * 5) / 35.0, within(1e-9));
+    }
+
+    @Test
+    void withoutTheDeadBandSamplesCountStoredRows() {
+        insert(30, 10, 1.0);
+        insert(90, 40, 2.0);
+        insert(120, 40, 3.0);
+
+        repository.rollupMinutes(T0, T0.plusSeconds(120), MAX_GAP, STEP, false);
+
+        List<TelemetryRollup> minutes = repository.findByVehicleIdBetween(RollupResolution.MINUTE, "v1",
+                T0, T0.plusSeconds(3600));
+        assertThat(minutes).extracting(TelemetryRollup::getSamples).containsExactly(1, 1);
+    }
+
+    private void insert(long second, double speed, double lat) {
+        jdbcTemplate.update("INSERT INTO telemetry (vehicle_id, latitude, longitude, speed, fuel_level, " +
+                "engine_temp, timestamp) VALUES ('v1', ?, 13.0, ?, 50, 90, ?)",
+                lat, speed, Timestamp.from(T0.plusSeconds(second)));
+    }
+
+    private TelemetryRollup single(RollupResolution resolution) {
+        List<TelemetryRollup> rows = repository.findByVehicleIdBetween(resolution, "v1",
+                T0.minusSeconds(3600), T0.plusSeconds(3600));
+        assertThat(rows).hasSize(1);
+        return rows.get(0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.fleetmonitoring.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GridIndexTest {
+
+    private final GridIndex grid = new GridIndex(0.01);
+
+    @Test
+    void swapRemoveKeepsTheRestOfTheCellWhenAVehicleChangesCell() {
+        grid.update(0, 52.001, 13.001);
+        grid.update(1, 52.002, 13.002);
+        grid.update(2, 52.003, 13.003);
+
+        grid.update(0, 52.051, 13.051);
+        assertThat(inCell(52.005, 13.005)).containsExactlyInAnyOrder(1, 2);
+        assertThat(inCell(52.055, 13.055)).containsExactly(0);
+
+        // 2 took 0's slot; moving it out again must find it there.
+        grid.update(2, 52.052, 13.052);
+        assertThat(inCell(52.005, 13.005)).containsExactly(1);
+        assertThat(inCell(52.055, 13.055)).containsExactlyInAnyOrder(0, 2);
+
+        grid.update(1, 52.053, 13.053);
+        assertThat(inCell(52.005, 13.005)).isEmpty();
+        assertThat(inCell(52.055, 13.055)).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void moveWithinACellOnlyUpdatesThePosition() {
+        grid.update(0, 52.001, 13.001);
+        grid.update(0, 52.009, 13.009);
+
+        assertThat(inCell(52.005, 13.005)).containsExactly(0);
+        assertThat(query(52.0, 13.0, 52.005, 13.005)).isEmpty();
+        assertThat(query(52.005, 13.005, 52.01, 13.01)).containsExactly(0);
+    }
+
+    @Test
+    void queryFiltersTheCoveringCellsToTheBox() {
+        grid.update(0, 52.001, 13.001);
+        grid.update(1, 52.019, 13.019);
+        grid.update(2, 52.5, 13.5);
+
+        assertThat(query(52.0, 13.0, 52.02, 13.02)).containsExactlyInAnyOrder(0, 1);
+        assertThat(query(52.0, 13.0, 52.01, 13.01)).containsExactly(0);
+        // Wider than the occupied cells, so the walk goes over those instead of the span.
+        assertThat(query(-90, -180, 90, 180)).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    private List<Integer> inCell(double lat, double lng) {
+        List<Integer> ordinals = new ArrayList<>();
+        grid.forEachCell(lat, lng, lat, lng, cell -> {
+            for (int i = 0; i < cell.size(); i++) {
+                ordinals.add(cell.ordinalAt(i));
+            }
+        });
+        return ordinals;
+    }
+
+    private List<Integer> query(double minLat, double minLng, double maxLat, double maxLng) {
+        List<Integer> ordinals = new ArrayList<>();
+        grid.query(minLat, minLng, maxLat, maxLng, ordinals::add);
+        return ordinals;
+    }
+}
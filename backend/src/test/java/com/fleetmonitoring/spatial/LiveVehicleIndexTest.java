@@ -0,0 +1,130 @@
+package com.fleetmonitoring.spatial;
+
+import com.fleetmonitoring.model.NearbyVehicle;
+import com.fleetmonitoring.state.FleetSnapshot;
+import com.fleetmonitoring.state.FleetStateStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LiveVehicleIndexTest {
+
+    private final FleetStateStore store = new FleetStateStore();
+    private final LiveVehicleIndex index = new LiveVehicleIndex(0.01);
+
+    @Test
+    void nearestMatchesABruteForceScan() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            put("v" + i, 52 + random.nextDouble(), 13 + random.nextDouble() * 1.5);
+        }
+        FleetSnapshot snapshot = store.publish();
+        index.publish(snapshot);
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 52 + random.nextDouble();
+            double lng = 13 + random.nextDouble() * 1.5;
+            assertMatchesBruteForce(snapshot, lat, lng, 10);
+        }
+    }
+
+    @Test
+    void nearestDoublesTheRadiusFromAnEmptyCell() {
+        put("v0", 52.0, 13.0);
+        put("v1", 48.1, 11.6);
+        put("v2", 50.1, 8.7);
+        FleetSnapshot snapshot = store.publish();
+        index.publish(snapshot);
+
+        // Hundreds of kilometres from every vehicle, starting from a one-cell radius.
+        assertMatchesBruteForce(snapshot, 55.0, 5.0, 2);
+        // More than the fleet: the radius grows to half the globe and returns everything.
+        assertThat(index.nearest(-40.0, -70.0, 10)).hasSize(3);
+        assertMatchesBruteForce(snapshot, -40.0, -70.0, 10);
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridianAndThePoles() {
+        put("east", 0.0, 179.995);
+        put("west", 0.0, -179.995);
+        put("north-a", 89.995, 0.0);
+        put("north-b", 89.995, 180.0);
+        FleetSnapshot snapshot = store.publish();
+        index.publish(snapshot);
+
+        assertThat(index.within(0.0, 179.999, 5, 10)).extracting(NearbyVehicle::vehicleId)
+                .containsExactly("east", "west");
+        assertThat(index.within(89.999, 90.0, 5, 10)).extracting(NearbyVehicle::vehicleId)
+                .containsExactlyInAnyOrder("north-a", "north-b");
+        assertMatchesBruteForce(snapshot, 0.0, -179.999, 2);
+        assertMatchesBruteForce(snapshot, 89.999, -45.0, 2);
+        assertMatchesBruteForce(snapshot, 89.999, 135.0, 2);
+    }
+
+    @Test
+    void withinReturnsTheClosestUpToTheLimit() {
+        for (int i = 0; i < 5; i++) {
+            put("v" + i, 52.0 + i * 0.001, 13.0);
+        }
+        put("far", 52.1, 13.0);
+        index.publish(store.publish());
+
+        List<NearbyVehicle> hits = index.within(52.0, 13.0, 1, 3);
+
+        assertThat(hits).extracting(NearbyVehicle::vehicleId).containsExactly("v0", "v1", "v2");
+        assertThat(hits.get(2).distanceKm()).isCloseTo(0.2224, within(1e-3));
+        assertThat(index.within(52.0, 13.0, 1, 100)).hasSize(5);
+    }
+
+    @Test
+    void incrementalPublishMovesOnlyTheReportedVehicles() {
+        put("v0", 52.0, 13.0);
+        put("v1", 52.0, 13.01);
+        FleetSnapshot first = store.publish();
+        index.publish(first);
+
+        store.update(0, 52.5, 13.5, 0, 50, 90, 0);
+        FleetSnapshot second = store.publish();
+        index.publish(second, new int[]{0}, second.getVersion());
+
+        assertThat(index.within(52.5, 13.5, 1, 10)).extracting(NearbyVehicle::vehicleId).containsExactly("v0");
+        assertThat(index.within(52.0, 13.0, 1, 10)).extracting(NearbyVehicle::vehicleId).containsExactly("v1");
+
+        // A missed snapshot in between: the whole fleet is re-indexed, not just the ordinals given.
+        store.update(1, 52.5, 13.51, 0, 50, 90, 0);
+        store.publish();
+        FleetSnapshot fourth = store.publish();
+        index.publish(fourth, new int[0], fourth.getVersion());
+
+        assertThat(index.within(52.5, 13.5, 1, 10)).extracting(NearbyVehicle::vehicleId)
+                .containsExactly("v0", "v1");
+    }
+
+    private void put(String vehicleId, double lat, double lng) {
+        store.update(store.register(vehicleId), lat, lng, 0, 50, 90, 0);
+    }
+
+    private void assertMatchesBruteForce(FleetSnapshot snapshot, double lat, double lng, int k) {
+        List<Integer> expected = IntStream.range(0, snapshot.getSize()).boxed()
+                .sorted(Comparator.comparingDouble(i -> GeoMath.haversineKm(lat, lng,
+                        snapshot.getLatitudes()[i], snapshot.getLongitudes()[i])))
+                .limit(k)
+                .toList();
+
+        List<NearbyVehicle> nearest = index.nearest(lat, lng, k);
+
+        assertThat(nearest).extracting(NearbyVehicle::vehicleId)
+                .containsExactlyElementsOf(expected.stream().map(i -> snapshot.getVehicleIds()[i]).toList());
+        for (int i = 0; i < nearest.size(); i++) {
+            int ordinal = expected.get(i);
+            assertThat(nearest.get(i).distanceKm()).isCloseTo(GeoMath.haversineKm(lat, lng,
+                    snapshot.getLatitudes()[ordinal], snapshot.getLongitudes()[ordinal]), within(1e-9));
+        }
+    }
+}
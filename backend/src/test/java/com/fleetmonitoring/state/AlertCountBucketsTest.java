@@ -0,0 +1,117 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertCountBucketsTest {
+
+    private static final long NOW = 28_000_000;
+
+    private final AlertCountBuckets buckets = new AlertCountBuckets();
+
+    @Test
+    void countsByTypeAndSeverityOverAnyWindow() {
+        buckets.add(AlertType.OVERSPEED, Severity.WARNING, NOW, 2);
+        buckets.add(AlertType.OVERSPEED, Severity.CRITICAL, NOW - 10, 1);
+        buckets.add(AlertType.LOW_FUEL, Severity.WARNING, NOW - 90, 4);
+
+        assertThat(type(buckets.counts(NOW, 1), AlertType.OVERSPEED)).isEqualTo(2);
+        assertThat(type(buckets.counts(NOW, 11), AlertType.OVERSPEED)).isEqualTo(3);
+        long[] hour = buckets.counts(NOW, AlertCountBuckets.HOUR);
+        assertThat(type(hour, AlertType.OVERSPEED)).isEqualTo(3);
+        assertThat(type(hour, AlertType.LOW_FUEL)).isZero();
+        assertThat(severity(hour, Severity.CRITICAL)).isEqualTo(1);
+        long[] day = buckets.counts(NOW, AlertCountBuckets.MINUTES);
+        assertThat(type(day, AlertType.LOW_FUEL)).isEqualTo(4);
+        assertThat(severity(day, Severity.WARNING)).isEqualTo(6);
+    }
+
+    @Test
+    void advanceMovesMinutesOutOfTheHourAndThenTheDay() {
+        buckets.add(AlertType.OVERSPEED, Severity.WARNING, NOW, 1);
+
+        assertThat(type(buckets.counts(NOW + 59, AlertCountBuckets.HOUR), AlertType.OVERSPEED)).isEqualTo(1);
+        assertThat(type(buckets.counts(NOW + 60, AlertCountBuckets.HOUR), AlertType.OVERSPEED)).isZero();
+        assertThat(type(buckets.counts(NOW + 60, AlertCountBuckets.MINUTES), AlertType.OVERSPEED)).isEqualTo(1);
+        assertThat(type(buckets.counts(NOW + 1439, AlertCountBuckets.MINUTES), AlertType.OVERSPEED)).isEqualTo(1);
+        assertThat(type(buckets.counts(NOW + 1440, AlertCountBuckets.MINUTES), AlertType.OVERSPEED)).isZero();
+
+        // The reused slot starts empty.
+        buckets.add(AlertType.LOW_FUEL, Severity.WARNING, NOW + 1440, 1);
+        long[] minute = buckets.counts(NOW + 1440, 1);
+        assertThat(type(minute, AlertType.OVERSPEED)).isZero();
+        assertThat(type(minute, AlertType.LOW_FUEL)).isEqualTo(1);
+    }
+
+    @Test
+    void lateCountsLandInTheirOwnMinuteOrAreDropped() {
+        buckets.counts(NOW, 1);
+        buckets.add(AlertType.OVERSPEED, Severity.WARNING, NOW - 30, 1);
+        buckets.add(AlertType.OVERSPEED, Severity.WARNING, NOW - 120, 1);
+        buckets.add(AlertType.OVERSPEED, Severity.WARNING, NOW - 1440, 1);
+
+        assertThat(type(buckets.counts(NOW, 30), AlertType.OVERSPEED)).isZero();
+        assertThat(type(buckets.counts(NOW, 31), AlertType.OVERSPEED)).isEqualTo(1);
+        assertThat(type(buckets.counts(NOW, AlertCountBuckets.HOUR), AlertType.OVERSPEED)).isEqualTo(1);
+        assertThat(type(buckets.counts(NOW, AlertCountBuckets.MINUTES), AlertType.OVERSPEED)).isEqualTo(2);
+    }
+
+    @Test
+    void jumpOfADayOrMoreClearsEverything() {
+        buckets.add(AlertType.OVERSPEED, Severity.WARNING, NOW, 5);
+
+        long[] day = buckets.counts(NOW + 5000, AlertCountBuckets.MINUTES);
+        assertThat(day).containsOnly(0L);
+        assertThat(buckets.counts(NOW + 5000, 120)).containsOnly(0L);
+    }
+
+    @Test
+    void runningTotalsMatchSummedMinutes() {
+        Random random = new Random(42);
+        List<long[]> kept = new ArrayList<>();
+        long now = NOW;
+        for (int step = 0; step < 5000; step++) {
+            if (random.nextInt(10) == 0) {
+                now += random.nextInt(200);
+            }
+            buckets.counts(now, 1);
+            long minute = now - random.nextInt(1500);
+            AlertType type = AlertType.values()[random.nextInt(AlertType.values().length)];
+            buckets.add(type, Severity.WARNING, minute, 1);
+            if (now - minute < AlertCountBuckets.MINUTES) {
+                kept.add(new long[]{minute, type.ordinal()});
+            }
+
+            if (step % 97 == 0) {
+                for (int window : new int[]{AlertCountBuckets.HOUR, AlertCountBuckets.MINUTES, 7}) {
+                    long[] counts = buckets.counts(now, window);
+                    for (AlertType t : AlertType.values()) {
+                        long expected = 0;
+                        for (long[] entry : kept) {
+                            if (entry[1] == t.ordinal() && now - entry[0] < window) {
+                                expected++;
+                            }
+                        }
+                        assertThat(type(counts, t)).as("%s over %d minutes at step %d", t, window, step)
+                                .isEqualTo(expected);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long type(long[] counts, AlertType type) {
+        return counts[AlertCountBuckets.typeIndex(type)];
+    }
+
+    private static long severity(long[] counts, Severity severity) {
+        return counts[AlertCountBuckets.severityIndex(severity)];
+    }
+}
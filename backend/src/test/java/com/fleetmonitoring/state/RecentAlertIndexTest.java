@@ -0,0 +1,180 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.Alert;
+import com.fleetmonitoring.model.AlertCounts;
+import com.fleetmonitoring.model.AlertPage;
+import com.fleetmonitoring.model.AlertType;
+import com.fleetmonitoring.model.Severity;
+import com.fleetmonitoring.repository.AlertRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecentAlertIndexTest {
+
+    private final AlertRepository alertRepository = mock(AlertRepository.class);
+
+    @Test
+    void idsIncreaseAndFollowRaiseTime() {
+        RecentAlertIndex index = index(100, Duration.ofHours(6));
+        long before = RecentAlertIndex.idAt(System.currentTimeMillis());
+        List<Alert> alerts = alerts("v1", 3);
+        index.record(alerts);
+
+        assertThat(alerts.get(0).getId()).isGreaterThanOrEqualTo(before);
+        assertThat(alerts).extracting(Alert::getId).isSorted().doesNotHaveDuplicates();
+        assertThat(alerts.get(2).getId()).isLessThan(RecentAlertIndex.idAt(System.currentTimeMillis() + 1));
+    }
+
+    @Test
+    void pagesInMemoryFollowTheCursorNewestFirst() {
+        RecentAlertIndex index = index(100, Duration.ofHours(6));
+        List<Alert> alerts = alerts("v1", 5);
+        index.record(alerts);
+
+        AlertPage first = index.page(null, null, null, null, 3);
+        assertThat(first.alerts()).containsExactly(alerts.get(4), alerts.get(3), alerts.get(2));
+        assertThat(first.nextCursor()).isEqualTo(alerts.get(2).getId());
+        verify(alertRepository, never()).findPage(any(), any(), any(), eq(0L), anyLong(), anyInt());
+
+        AlertPage second = index.page(null, null, null, first.nextCursor(), 3);
+        assertThat(second.alerts()).containsExactly(alerts.get(1), alerts.get(0));
+        assertThat(second.nextCursor()).isNull();
+        // Nothing was ever evicted, so Postgres is only asked below the first id it could hold.
+        verify(alertRepository).findPage(null, null, null, 0, 1, 1);
+    }
+
+    @Test
+    void pageCrossingTheFloorContinuesInPostgresWithoutGapsOrDuplicates() {
+        RecentAlertIndex index = index(3, Duration.ofHours(6));
+        List<Alert> alerts = alerts("v1", 5);
+        index.record(alerts);
+        long floor = alerts.get(1).getId() + 1;
+        when(alertRepository.findPage(isNull(), isNull(), isNull(), eq(0L), eq(floor), anyInt()))
+                .thenReturn(List.of(alerts.get(1)));
+        when(alertRepository.findPage(isNull(), isNull(), isNull(), eq(0L), eq(alerts.get(1).getId()), anyInt()))
+                .thenReturn(List.of(alerts.get(0)));
+
+        AlertPage first = index.page(null, null, null, null, 4);
+        assertThat(first.alerts()).containsExactly(alerts.get(4), alerts.get(3), alerts.get(2), alerts.get(1));
+        assertThat(first.nextCursor()).isEqualTo(alerts.get(1).getId());
+        verify(alertRepository).findPage(null, null, null, 0, floor, 1);
+
+        AlertPage second = index.page(null, null, null, first.nextCursor(), 4);
+        assertThat(second.alerts()).containsExactly(alerts.get(0));
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void cursorAtTheOldestAlertInMemoryHandsOffAtTheFloor() {
+        RecentAlertIndex index = index(3, Duration.ofHours(6));
+        List<Alert> alerts = alerts("v1", 5);
+        index.record(alerts);
+
+        index.page(null, null, null, alerts.get(2).getId(), 2);
+
+        verify(alertRepository).findPage(null, null, null, 0, alerts.get(1).getId() + 1, 2);
+    }
+
+    @Test
+    void filtersApplyInMemoryAndInPostgres() {
+        RecentAlertIndex index = index(100, Duration.ofHours(6));
+        List<Alert> alerts = new ArrayList<>(alerts("v1", 2));
+        alerts.add(alert("v2", AlertType.LOW_FUEL, Severity.CRITICAL));
+        alerts.add(alert("v1", AlertType.LOW_FUEL, Severity.CRITICAL));
+        index.record(alerts);
+
+        AlertPage page = index.page("v1", AlertType.LOW_FUEL, null, null, 5);
+        assertThat(page.alerts()).containsExactly(alerts.get(3));
+        verify(alertRepository).findPage("v1", AlertType.LOW_FUEL, null, 0, 1, 4);
+
+        assertThat(index.page(null, null, Severity.CRITICAL, null, 5).alerts())
+                .containsExactly(alerts.get(3), alerts.get(2));
+    }
+
+    @Test
+    void warmsTheRecentWindowByIdAndEvictsByAge() {
+        long now = System.currentTimeMillis();
+        Alert old = alert("v1", AlertType.OVERSPEED, Severity.WARNING);
+        old.setId(RecentAlertIndex.idAt(now - Duration.ofMinutes(90).toMillis()));
+        Alert recent = alert("v1", AlertType.OVERSPEED, Severity.WARNING);
+        recent.setId(RecentAlertIndex.idAt(now - Duration.ofMinutes(30).toMillis()));
+        when(alertRepository.maxId()).thenReturn(recent.getId());
+        when(alertRepository.findPage(isNull(), isNull(), isNull(), anyLong(), eq(Long.MAX_VALUE), eq(100)))
+                .thenReturn(List.of(recent, old));
+
+        RecentAlertIndex index = index(100, Duration.ofHours(1));
+        verify(alertRepository).findPage(isNull(), isNull(), isNull(),
+                longThat(fromId -> fromId <= RecentAlertIndex.idAt(now - 3_600_000 + 5_000)
+                        && fromId >= RecentAlertIndex.idAt(now - 3_600_000)),
+                eq(Long.MAX_VALUE), eq(100));
+        assertThat(index.page(null, null, null, null, 2).alerts()).containsExactly(recent, old);
+
+        // The next batch evicts the alert raised more than max-age ago, so the floor moves above it.
+        List<Alert> fresh = alerts("v1", 1);
+        index.record(fresh);
+        index.page(null, null, null, null, 5);
+        verify(alertRepository).findPage(null, null, null, 0, old.getId() + 1, 3);
+    }
+
+    @Test
+    void countsCoverRecordedAlertsAndRejectOddWindows() {
+        RecentAlertIndex index = index(100, Duration.ofHours(6));
+        List<Alert> alerts = new ArrayList<>(alerts("v1", 2));
+        alerts.add(alert("v2", AlertType.LOW_FUEL, Severity.CRITICAL));
+        index.record(alerts);
+
+        AlertCounts hour = index.counts(Duration.ofHours(1));
+        assertThat(hour.total()).isEqualTo(3);
+        assertThat(hour.byType()).containsEntry(AlertType.OVERSPEED, 2L).containsEntry(AlertType.LOW_FUEL, 1L);
+        assertThat(hour.bySeverity()).containsEntry(Severity.CRITICAL, 1L);
+        assertThat(index.counts(Duration.ofMinutes(5)).total()).isEqualTo(3);
+
+        assertThatThrownBy(() -> index.counts(Duration.ofSeconds(90))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.counts(Duration.ofDays(2))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RecentAlertIndex index(int capacity, Duration maxAge) {
+        RecentAlertIndex index = new RecentAlertIndex(alertRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "capacity", capacity);
+        ReflectionTestUtils.setField(index, "maxAge", maxAge);
+        index.init();
+        return index;
+    }
+
+    private static List<Alert> alerts(String vehicleId, int count) {
+        List<Alert> alerts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            alerts.add(alert(vehicleId, AlertType.OVERSPEED, Severity.WARNING));
+        }
+        return alerts;
+    }
+
+    private static Alert alert(String vehicleId, AlertType type, Severity severity) {
+        return Alert.builder()
+                .vehicleId(vehicleId)
+                .alertType(type)
+                .severity(severity)
+                .message("test")
+                .timestamp(Instant.now())
+                .build();
+    }
+}
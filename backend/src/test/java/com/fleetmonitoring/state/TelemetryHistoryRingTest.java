@@ -0,0 +1,106 @@
+package com.fleetmonitoring.state;
+
+import com.fleetmonitoring.model.Telemetry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryHistoryRingTest {
+
+    @Test
+    void returnsNewestFirstDownToTheCutOffAndLimit() {
+        TelemetryHistoryRing ring = ring(10, 1, 6);
+
+        assertThat(millis(ring.newest(10, 0, false))).containsExactly(6L, 5L, 4L, 3L, 2L, 1L);
+        assertThat(millis(ring.newest(2, 0, false))).containsExactly(6L, 5L);
+        assertThat(millis(ring.newest(10, 4, false))).containsExactly(6L, 5L, 4L);
+        assertThat(ring.newest(10, 7, false)).isEmpty();
+        assertThat(ring.newest(10, 0, false).get(0)).satisfies(t -> {
+            assertThat(t.getVehicleId()).isEqualTo("v0");
+            assertThat(t.getLatitude()).isEqualTo(6.0);
+            assertThat(t.getEngineTemp()).isEqualTo(6.0);
+        });
+    }
+
+    @Test
+    void neverReturnsTheSlotTheWriterFillsNext() {
+        TelemetryHistoryRing ring = ring(4, 1, 6);
+
+        // Readings 3 to 6 are in the ring, but 3's slot is the one the next add overwrites.
+        assertThat(ring.size()).isEqualTo(4);
+        assertThat(millis(ring.newest(10, 0, false))).containsExactly(6L, 5L, 4L);
+    }
+
+    @Test
+    void requireOlderNeedsAReadingPastTheCutOff() {
+        TelemetryHistoryRing ring = ring(10, 1, 6);
+
+        assertThat(millis(ring.newest(10, 3, true))).containsExactly(6L, 5L, 4L, 3L);
+        // Nothing older than 1 was ever kept, so an earlier one may have been evicted or never added.
+        assertThat(ring.newest(10, 1, true)).isNull();
+        assertThat(ring.newest(10, 0, true)).isNull();
+    }
+
+    @Test
+    void requireOlderDoesNotTrustAReadingInTheLappedSlot() {
+        TelemetryHistoryRing ring = ring(4, 1, 6);
+
+        assertThat(millis(ring.newest(10, 5, true))).containsExactly(6L, 5L);
+        // 3 is older than the cut-off but sits in the slot the writer may be overwriting.
+        assertThat(ring.newest(10, 4, true)).isNull();
+    }
+
+    @Test
+    void concurrentReadersNeverSeeTornOrLappedReadings() throws InterruptedException {
+        TelemetryHistoryRing ring = new TelemetryHistoryRing("v0", 16);
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 500_000; i++) {
+                ring.add(reading(i));
+            }
+        });
+        writer.start();
+
+        while (writer.isAlive()) {
+            List<Telemetry> readings = ring.newest(16, 0, false);
+            for (int i = 0; i < readings.size(); i++) {
+                Telemetry t = readings.get(i);
+                long millis = t.getTimestamp().toEpochMilli();
+                assertThat(t.getLatitude()).isEqualTo(millis);
+                assertThat(t.getFuelLevel()).isEqualTo(millis);
+                if (i > 0) {
+                    assertThat(millis).isEqualTo(readings.get(i - 1).getTimestamp().toEpochMilli() - 1);
+                }
+            }
+        }
+        writer.join();
+        assertThat(millis(ring.newest(3, 0, false))).containsExactly(500_000L, 499_999L, 499_998L);
+    }
+
+    private static TelemetryHistoryRing ring(int capacity, int from, int to) {
+        TelemetryHistoryRing ring = new TelemetryHistoryRing("v0", capacity);
+        for (int i = from; i <= to; i++) {
+            ring.add(reading(i));
+        }
+        return ring;
+    }
+
+    // Every field carries the reading's timestamp, so a mix of two readings shows up as a mismatch.
+    private static Telemetry reading(long millis) {
+        return Telemetry.builder()
+                .vehicleId("v0")
+                .latitude(millis)
+                .longitude(millis)
+                .speed(millis)
+                .fuelLevel(millis)
+                .engineTemp(millis)
+                .timestamp(Instant.ofEpochMilli(millis))
+                .build();
+    }
+
+    private static List<Long> millis(List<Telemetry> readings) {
+        return readings.stream().map(t -> t.getTimestamp().toEpochMilli()).toList();
+    }
+}
@@ -0,0 +1,77 @@
+package com.fleetmonitoring.track;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PolylineEncoderTest {
+
+    @Test
+    void encodesTheReferenceExample() {
+        TrackPoints track = new TrackPoints();
+        track.add(38.5, -120.2, 0, 0);
+        track.add(40.7, -120.95, 0, 0);
+        track.add(43.252, -126.453, 0, 0);
+
+        assertThat(PolylineEncoder.positions(track, new int[]{0, 1, 2}, PolylineEncoder.PRECISION_5))
+                .isEqualTo("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+    }
+
+    @Test
+    void positionsRoundTripWithNegativeDeltas() {
+        Random random = new Random(7);
+        TrackPoints track = new TrackPoints();
+        double lat = -33.8;
+        double lng = 151.2;
+        for (int i = 0; i < 500; i++) {
+            lat += (random.nextDouble() - 0.5) * 0.02;
+            lng += (random.nextDouble() - 0.5) * 0.02;
+            track.add(lat, lng, 0, i * 1000L);
+        }
+        int[] indices = {0, 3, 4, 100, 101, 250, 499};
+
+        long[] decoded = decode(PolylineEncoder.positions(track, indices, PolylineEncoder.PRECISION_5), 2);
+
+        assertThat(decoded).hasSize(indices.length * 2);
+        for (int i = 0; i < indices.length; i++) {
+            assertThat(decoded[2 * i]).isEqualTo(Math.round(track.latitude(indices[i]) * 1e5));
+            assertThat(decoded[2 * i + 1]).isEqualTo(Math.round(track.longitude(indices[i]) * 1e5));
+        }
+    }
+
+    @Test
+    void deltasRoundTripEpochSecondsAndDecreasingValues() {
+        // The first epoch second doubles past 2^31 when zigzagged, so it needs more than 32 bits.
+        long[] values = {1_700_000_000L, 1_700_000_001L, 1_700_000_061L, 1_700_003_661L, 0, -5, 120, 119, 119};
+
+        assertThat(decode(PolylineEncoder.deltas(values), 1)).containsExactly(values);
+        assertThat(PolylineEncoder.deltas(new long[0])).isEmpty();
+    }
+
+    // Reference decoder: zigzag 5-bit groups, each value a delta from the previous one in its column
+    // (positions interleave a latitude and a longitude column).
+    private static long[] decode(String encoded, int columns) {
+        List<Long> values = new ArrayList<>();
+        long[] previous = new long[columns];
+        int i = 0;
+        while (i < encoded.length()) {
+            long result = 0;
+            int shift = 0;
+            long chunk;
+            do {
+                chunk = encoded.charAt(i++) - 63;
+                result |= (chunk & 0x1f) << shift;
+                shift += 5;
+            } while (chunk >= 0x20);
+            long delta = (result & 1) != 0 ? ~(result >>> 1) : result >>> 1;
+            int column = values.size() % columns;
+            previous[column] += delta;
+            values.add(previous[column]);
+        }
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,84 @@
+package com.fleetmonitoring.track;
+
+import com.fleetmonitoring.spatial.GeoMath;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackSimplifierTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void droppedPointsStayWithinToleranceOfTheSynchronizedPosition() {
+        Random random = new Random(11);
+        TrackPoints track = new TrackPoints();
+        double lat = 52.0;
+        double lng = 13.0;
+        double heading = 0;
+        for (int i = 0; i < 3000; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.3;
+            double step = random.nextDouble() < 0.05 ? 0 : random.nextDouble() * 0.0002;
+            lat += Math.cos(heading) * step;
+            lng += Math.sin(heading) * step;
+            track.add(lat, lng, 0, T0 + i * 1000L);
+        }
+
+        for (double tolerance : new double[]{1, 10, 50}) {
+            int[] kept = TrackSimplifier.simplify(track, tolerance);
+
+            assertThat(kept[0]).isZero();
+            assertThat(kept[kept.length - 1]).isEqualTo(track.size() - 1);
+            assertThat(kept.length).isLessThan(track.size());
+            for (int k = 0; k + 1 < kept.length; k++) {
+                int a = kept[k];
+                int b = kept[k + 1];
+                for (int i = a + 1; i < b; i++) {
+                    // Slack for the simplifier's equirectangular projection against haversine.
+                    assertThat(synchronizedDistanceMeters(track, a, b, i)).isLessThanOrEqualTo(tolerance * 1.001);
+                }
+            }
+        }
+    }
+
+    @Test
+    void keepsAStopOnAStraightLine() {
+        TrackPoints track = new TrackPoints();
+        // 10 s east at constant speed, 10 s parked, 10 s east again: spatially one straight line.
+        for (int i = 0; i <= 30; i++) {
+            int moving = Math.min(i, 10) + Math.max(0, i - 20);
+            track.add(52.0, 13.0 + moving * 0.0002, 0, T0 + i * 1000L);
+        }
+
+        int[] kept = TrackSimplifier.simplify(track, 5);
+
+        assertThat(kept).contains(0, 10, 20, 30);
+        for (int k = 0; k + 1 < kept.length; k++) {
+            for (int i = kept[k] + 1; i < kept[k + 1]; i++) {
+                assertThat(synchronizedDistanceMeters(track, kept[k], kept[k + 1], i)).isLessThanOrEqualTo(5.0);
+            }
+        }
+    }
+
+    @Test
+    void keepsEverythingWithoutATolerance() {
+        TrackPoints track = new TrackPoints();
+        for (int i = 0; i < 5; i++) {
+            track.add(52.0, 13.0, 0, T0 + i * 1000L);
+        }
+
+        assertThat(TrackSimplifier.simplify(track, 0)).containsExactly(0, 1, 2, 3, 4);
+        assertThat(TrackSimplifier.simplify(track, 10)).containsExactly(0, 4);
+        assertThat(TrackSimplifier.simplify(new TrackPoints(), 10)).isEmpty();
+    }
+
+    // Haversine distance from point i to where the vehicle would be at i's time moving uniformly from a to b.
+    private static double synchronizedDistanceMeters(TrackPoints track, int a, int b, int i) {
+        double ratio = (double) (track.timeMillis(i) - track.timeMillis(a)) / (track.timeMillis(b) - track.timeMillis(a));
+        double lat = track.latitude(a) + ratio * (track.latitude(b) - track.latitude(a));
+        double lng = track.longitude(a) + ratio * (track.longitude(b) - track.longitude(a));
+        return GeoMath.haversineKm(lat, lng, track.latitude(i), track.longitude(i)) * 1000;
+    }
+}
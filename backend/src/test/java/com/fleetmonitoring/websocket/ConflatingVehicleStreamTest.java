@@ -0,0 +1,176 @@
+package com.fleetmonitoring.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetmonitoring.model.Telemetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConflatingVehicleStreamTest {
+
+    private static final String SESSION = "s1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SessionBacklog sessionBacklog = new SessionBacklog();
+    private final List<Message<?>> sent = new ArrayList<>();
+    // Stands in for the outbound executor: every frame handed over is queued for the session.
+    private final MessageChannel channel = (message, timeout) -> {
+        sent.add(message);
+        sessionBacklog.preSend(message, null);
+        return true;
+    };
+    private ConflatingVehicleStream stream;
+    private WebSocketSession socket;
+
+    @Test
+    void fastSessionReceivesEveryReading() throws Exception {
+        connect(3);
+
+        stream.publish(List.of(reading("v0", 1), reading("v1", 1)));
+        write(1);
+        stream.publish(List.of(reading("v0", 2)));
+        write(1);
+
+        assertThat(sent).hasSize(2);
+        assertThat(frame(0)).extracting(t -> t.get("vehicleId").asText(), t -> t.get("speed").asDouble())
+                .containsExactly(tuple("v0", 1.0), tuple("v1", 1.0));
+        assertThat(frame(1)).extracting(t -> t.get("vehicleId").asText()).containsExactly("v0");
+        assertThat(sessionBacklog.backlog(SESSION)).isZero();
+        assertThat(count("conflated")).isZero();
+    }
+
+    @Test
+    void slowSessionGetsTheNewestReadingOfEachVehicleOnceAFrameIsWritten() throws Exception {
+        connect(3);
+        stream.publish(List.of(reading("v0", 1)));
+        stream.publish(List.of(reading("v1", 2)));
+        assertThat(sessionBacklog.backlog(SESSION)).isEqualTo(2);
+
+        // Out of credit: both are held back, and v0's newer reading replaces its unsent one.
+        stream.publish(List.of(reading("v0", 3), reading("v1", 3)));
+        stream.publish(List.of(reading("v0", 4)));
+        assertThat(sent).hasSize(2);
+        assertThat(count("conflated")).isEqualTo(1);
+
+        write(1);
+
+        assertThat(sent).hasSize(3);
+        // v0 was re-inserted, so it drains after v1.
+        assertThat(frame(2)).extracting(t -> t.get("vehicleId").asText(), t -> t.get("speed").asDouble())
+                .containsExactly(tuple("v1", 3.0), tuple("v0", 4.0));
+        assertThat(meterRegistry.get("fleet.stream.session.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void fullBufferEvictsTheOldestVehicles() throws Exception {
+        connect(3);
+        stream.publish(List.of(reading("a", 1)));
+        stream.publish(List.of(reading("b", 1)));
+
+        stream.publish(List.of(reading("v0", 2), reading("v1", 2), reading("v2", 2), reading("v3", 2),
+                reading("v4", 2)));
+        assertThat(count("dropped")).isEqualTo(2);
+
+        write(1);
+        assertThat(frame(2)).extracting(t -> t.get("vehicleId").asText()).containsExactly("v2", "v3", "v4");
+    }
+
+    @Test
+    void batchIsSentInChunksWhileCreditLastsAndTheRestIsBuffered() throws Exception {
+        connect(1000);
+
+        stream.publish(IntStream.range(0, 120).mapToObj(i -> reading("v" + i, 1)).toList());
+
+        assertThat(sent).hasSize(2);
+        assertThat(frame(0)).hasSize(50);
+        assertThat(frame(1).get(0).get("vehicleId").asText()).isEqualTo("v50");
+
+        write(1);
+        assertThat(sent).hasSize(3);
+        assertThat(frame(2)).hasSize(20);
+        assertThat(frame(2).get(0).get("vehicleId").asText()).isEqualTo("v100");
+    }
+
+    @Test
+    void disconnectedSessionIsNotSentAnything() throws Exception {
+        connect(3);
+        stream.onDisconnect(new SessionDisconnectEvent(this,
+                MessageBuilder.createMessage(new byte[0], SimpMessageHeaderAccessor.create().getMessageHeaders()),
+                SESSION, CloseStatus.NORMAL));
+
+        stream.publish(List.of(reading("v0", 1)));
+
+        assertThat(sent).isEmpty();
+        assertThat(stream.getSubscriberCount()).isZero();
+    }
+
+    private void connect(int maxPendingVehicles) throws Exception {
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn(SESSION);
+        sessionBacklog.decorate(handler).afterConnectionEstablished(raw);
+        ArgumentCaptor<WebSocketSession> counting = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(counting.capture());
+        socket = counting.getValue();
+
+        stream = new ConflatingVehicleStream(channel, sessionBacklog, objectMapper, meterRegistry, 2,
+                maxPendingVehicles);
+        stream.init();
+        stream.onSubscribe(subscribe());
+    }
+
+    private SessionSubscribeEvent subscribe() {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        headers.setSessionId(SESSION);
+        headers.setSubscriptionId("sub-0");
+        headers.setDestination(ConflatingVehicleStream.TOPIC);
+        return new SessionSubscribeEvent(this, MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+    }
+
+    // Frames leaving the socket, each of which hands the stream a chance to drain.
+    private void write(int frames) throws IOException {
+        for (int i = 0; i < frames; i++) {
+            socket.sendMessage(new TextMessage("frame"));
+        }
+    }
+
+    private List<JsonNode> frame(int index) throws IOException {
+        List<JsonNode> readings = new ArrayList<>();
+        objectMapper.readTree((byte[]) sent.get(index).getPayload()).forEach(readings::add);
+        return readings;
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("fleet.stream.session.updates").tag("result", result).counter().count();
+    }
+
+    private static Telemetry reading(String vehicleId, double speed) {
+        return Telemetry.builder().vehicleId(vehicleId).speed(speed).timestamp(Instant.ofEpochSecond(1_700_000_000L))
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.fleetmonitoring.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionBacklogTest {
+
+    private final SessionBacklog sessionBacklog = new SessionBacklog();
+    private final WebSocketHandler handler = mock(WebSocketHandler.class);
+    private final WebSocketHandler decorated = sessionBacklog.decorate(handler);
+
+    @Test
+    void backlogIsQueuedMinusWrittenFrames() throws Exception {
+        WebSocketSession socket = connect("s1");
+        List<String> written = new ArrayList<>();
+        sessionBacklog.onWritten(written::add);
+
+        sessionBacklog.preSend(frame("s1"), null);
+        sessionBacklog.preSend(frame("s1"), null);
+        sessionBacklog.preSend(frame("s1"), null);
+        assertThat(sessionBacklog.backlog("s1")).isEqualTo(3);
+
+        socket.sendMessage(new TextMessage("frame"));
+        socket.sendMessage(new TextMessage("frame"));
+
+        assertThat(sessionBacklog.backlog("s1")).isEqualTo(1);
+        assertThat(written).containsExactly("s1", "s1");
+    }
+
+    @Test
+    void framesForOtherOrUnknownSessionsAreIgnored() throws Exception {
+        connect("s1");
+
+        sessionBacklog.preSend(frame("s2"), null);
+        sessionBacklog.preSend(MessageBuilder.withPayload(new byte[0]).build(), null);
+
+        assertThat(sessionBacklog.backlog("s1")).isZero();
+        assertThat(sessionBacklog.backlog("s2")).isZero();
+    }
+
+    @Test
+    void closingTheConnectionForgetsItsCounts() throws Exception {
+        WebSocketSession socket = connect("s1");
+        sessionBacklog.preSend(frame("s1"), null);
+
+        decorated.afterConnectionClosed(socket, CloseStatus.NORMAL);
+
+        assertThat(sessionBacklog.backlog("s1")).isZero();
+        sessionBacklog.preSend(frame("s1"), null);
+        assertThat(sessionBacklog.backlog("s1")).isZero();
+    }
+
+    // Opens a connection through the decorator and returns the counting session the handler was given.
+    private WebSocketSession connect(String sessionId) throws Exception {
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn(sessionId);
+        decorated.afterConnectionEstablished(raw);
+        ArgumentCaptor<WebSocketSession> counting = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(counting.capture());
+        return counting.getValue();
+    }
+
+    private static Message<byte[]> frame(String sessionId) {
+        return SessionMessages.json(sessionId, "sub-0", ConflatingVehicleStream.TOPIC, new byte[0]);
+    }
+}
@@ -6,6 +6,11 @@ const typeBadge: Record<AlertType, { label: string; classes: string }> = {
   OVERSPEED: { label: 'Speed', classes: 'text-red-400 bg-red-500/10 ring-red-500/20' },
   LOW_FUEL: { label: 'Fuel', classes: 'text-amber-400 bg-amber-500/10 ring-amber-500/20' },
   ENGINE_OVERHEAT: { label: 'Temp', classes: 'text-orange-400 bg-orange-500/10 ring-orange-500/20' },
+  FUEL_DROP: { label: 'Fuel drop', classes: 'text-yellow-400 bg-yellow-500/10 ring-yellow-500/20' },
+  ENGINE_TEMP_RISE: { label: 'Temp rise', classes: 'text-rose-400 bg-rose-500/10 ring-rose-500/20' },
+  GEOFENCE_ENTER: { label: 'Fence in', classes: 'text-sky-400 bg-sky-500/10 ring-sky-500/20' },
+  GEOFENCE_EXIT: { label: 'Fence out', classes: 'text-indigo-400 bg-indigo-500/10 ring-indigo-500/20' },
+  GEOFENCE_DWELL: { label: 'Dwell', classes: 'text-violet-400 bg-violet-500/10 ring-violet-500/20' },
 };
 
 const filterOptions: Array<{ value: AlertType | 'ALL'; label: string }> = [
@@ -13,6 +18,11 @@ const filterOptions: Array<{ value: AlertType | 'ALL'; label: string }> = [
   { value: 'OVERSPEED', label: 'Speed' },
   { value: 'LOW_FUEL', label: 'Fuel' },
   { value: 'ENGINE_OVERHEAT', label: 'Temp' },
+  { value: 'FUEL_DROP', label: 'Fuel drop' },
+  { value: 'ENGINE_TEMP_RISE', label: 'Temp rise' },
+  { value: 'GEOFENCE_ENTER', label: 'Fence in' },
+  { value: 'GEOFENCE_EXIT', label: 'Fence out' },
+  { value: 'GEOFENCE_DWELL', label: 'Dwell' },
 ];
 
 interface Props {
@@ -22,7 +32,7 @@ interface Props {
 export default function AlertsPanel({ onToggle }: Props) {
   const alertsEnabled = useFleetStore((s) => s.alertsEnabled);
   const toggleAlerts = useFleetStore((s) => s.toggleAlerts);
-  const { alerts, filter, setFilter } = useAlerts();
+  const { alerts, filter, setFilter, counts } = useAlerts();
 
   const handleToggle = () => {
     const next = !alertsEnabled;
@@ -48,8 +58,8 @@ export default function AlertsPanel({ onToggle }: Props) {
         </button>
       </div>
 
-      {/* Filter pills */}
-      <div className="flex gap-1.5 mb-3">
+      {/* Filter pills, with counts over the last hour */}
+      <div className="flex flex-wrap gap-1.5 mb-3">
         {filterOptions.map((opt) => (
           <button
             key={opt.value}
@@ -61,6 +71,11 @@ export default function AlertsPanel({ onToggle }: Props) {
             }`}
           >
             {opt.label}
+            {counts && (
+              <span className="ml-1 tabular-nums text-slate-600">
+                {opt.value === 'ALL' ? counts.total : counts.byType[opt.value] ?? 0}
+              </span>
+            )}
           </button>
         ))}
       </div>
@@ -70,34 +85,49 @@ export default function AlertsPanel({ onToggle }: Props) {
         {alerts.length === 0 ? (
           <div className="text-center text-slate-600 py-10 text-[12px]">No alerts to display</div>
         ) : (
-          alerts.map((alert, i) => {
-            const badge = typeBadge[alert.alertType];
+          alerts.map((item, i) => {
+            const entry = item.kind === 'alert' ? item.alert : item.summary;
+            const badge = typeBadge[entry.alertType];
             return (
               <div
-                key={`${alert.vehicleId}-${alert.timestamp}-${i}`}
+                key={item.kind === 'alert'
+                  ? `${item.alert.id ?? item.alert.vehicleId}-${entry.timestamp}-${i}`
+                  : `summary-${entry.alertType}-${entry.severity}-${entry.timestamp}-${i}`}
                 className={`rounded-lg px-3 py-2.5 text-[12px] transition-colors ${
-                  alert.severity === 'CRITICAL'
+                  entry.severity === 'CRITICAL'
                     ? 'bg-red-500/[0.06] ring-1 ring-red-500/10'
                     : 'bg-white/[0.02] ring-1 ring-white/[0.03]'
                 }`}
               >
                 <div className="flex items-center gap-2">
                   <span className="font-mono text-[10px] text-slate-600 shrink-0">
-                    {new Date(alert.timestamp).toLocaleTimeString('en-ZA', { hour: '2-digit', minute: '2-digit', second: '2-digit', hour12: false })}
+                    {new Date(entry.timestamp).toLocaleTimeString('en-ZA', { hour: '2-digit', minute: '2-digit', second: '2-digit', hour12: false })}
                   </span>
                   <span className={`px-1.5 py-0.5 text-[9px] font-semibold rounded-full ring-1 ${badge.classes}`}>
                     {badge.label}
                   </span>
-                  {alert.severity === 'CRITICAL' && (
+                  {entry.severity === 'CRITICAL' && (
                     <span className="px-1.5 py-0.5 text-[9px] font-bold rounded-full bg-red-500/15 text-red-400 ring-1 ring-red-500/25">
                       CRIT
                     </span>
                   )}
-                  <span className="ml-auto font-mono text-[10px] text-slate-500 bg-slate-800/60 px-1.5 py-0.5 rounded">
-                    {alert.vehicleId}
-                  </span>
+                  {item.kind === 'alert' ? (
+                    <span className="ml-auto font-mono text-[10px] text-slate-500 bg-slate-800/60 px-1.5 py-0.5 rounded">
+                      {item.alert.vehicleId}
+                    </span>
+                  ) : (
+                    <span className="ml-auto text-[10px] font-medium text-slate-400 ring-1 ring-slate-600/40 px-1.5 py-0.5 rounded">
+                      {item.summary.count} vehicles
+                    </span>
+                  )}
                 </div>
-                <div className="text-slate-400 mt-1 leading-snug">{alert.message}</div>
+                <div className="text-slate-400 mt-1 leading-snug">{entry.message}</div>
+                {item.kind === 'summary' && item.summary.vehicleIds.length > 0 && (
+                  <div className="mt-1 font-mono text-[10px] text-slate-600 leading-snug">
+                    {item.summary.vehicleIds.join(', ')}
+                    {item.summary.count > item.summary.vehicleIds.length && ` and ${item.summary.count - item.summary.vehicleIds.length} more`}
+                  </div>
+                )}
               </div>
             );
           })
@@ -1,11 +1,14 @@
+import { useState } from 'react';
 import { MapContainer, TileLayer } from 'react-leaflet';
 import { useFleetStore } from '../store/useFleetStore';
 import VehicleMarker from './VehicleMarker';
+import VehicleTrack from './VehicleTrack';
 import { MAP_CENTER, MAP_ZOOM } from '../utils/constants';
 
 export default function FleetMap() {
   const vehicles = useFleetStore((s) => s.vehicles);
   const vehicleList = Array.from(vehicles.values());
+  const [selected, setSelected] = useState<string | null>(null);
 
   return (
     <MapContainer
@@ -19,8 +22,14 @@ export default function FleetMap() {
         url="https://{s}.basemaps.cartocdn.com/dark_all/{z}/{x}/{y}{r}.png"
       />
       {vehicleList.map((v) => (
-        <VehicleMarker key={v.vehicleId} vehicle={v} />
+        <VehicleMarker
+          key={v.vehicleId}
+          vehicle={v}
+          onOpen={setSelected}
+          onClose={(id) => setSelected((current) => (current === id ? null : current))}
+        />
       ))}
+      {selected && <VehicleTrack vehicleId={selected} />}
     </MapContainer>
   );
 }
@@ -63,15 +63,24 @@ function createIcon(status: Status) {
 
 interface Props {
   vehicle: Vehicle;
+  onOpen: (vehicleId: string) => void;
+  onClose: (vehicleId: string) => void;
 }
 
-export default function VehicleMarker({ vehicle }: Props) {
+export default function VehicleMarker({ vehicle, onOpen, onClose }: Props) {
   const status = getStatus(vehicle);
   const icon = createIcon(status);
   const province = getProvince(vehicle.vehicleId);
 
   return (
-    <Marker position={[vehicle.lastLatitude, vehicle.lastLongitude]} icon={icon}>
+    <Marker
+      position={[vehicle.lastLatitude, vehicle.lastLongitude]}
+      icon={icon}
+      eventHandlers={{
+        popupopen: () => onOpen(vehicle.vehicleId),
+        popupclose: () => onClose(vehicle.vehicleId),
+      }}
+    >
       <Popup>
         <div style={{ minWidth: 160 }}>
           <div style={{ fontFamily: 'JetBrains Mono, monospace', fontSize: '14px', fontWeight: 600, marginBottom: 2, color: '#f1f5f9' }}>
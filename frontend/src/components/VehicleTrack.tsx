@@ -0,0 +1,38 @@
+import { useEffect, useState } from 'react';
+import { Polyline, useMap } from 'react-leaflet';
+import type { TrackPoint } from '../types';
+import { fetchTrack } from '../services/api';
+import { TRACK_WINDOW_MS } from '../utils/constants';
+
+interface Props {
+  vehicleId: string;
+}
+
+// The selected vehicle's recent path, simplified server-side to about a pixel at the current zoom.
+export default function VehicleTrack({ vehicleId }: Props) {
+  const map = useMap();
+  const [points, setPoints] = useState<TrackPoint[]>([]);
+
+  useEffect(() => {
+    let cancelled = false;
+    const to = new Date();
+    const from = new Date(to.getTime() - TRACK_WINDOW_MS);
+    fetchTrack(vehicleId, from.toISOString(), to.toISOString(), map.getZoom())
+      .then((track) => {
+        if (!cancelled) setPoints(track);
+      })
+      .catch(console.error);
+    return () => {
+      cancelled = true;
+      setPoints([]);
+    };
+  }, [vehicleId, map]);
+
+  if (points.length < 2) return null;
+  return (
+    <Polyline
+      positions={points.map((p) => [p.latitude, p.longitude] as [number, number])}
+      pathOptions={{ color: '#34d399', weight: 2, opacity: 0.8 }}
+    />
+  );
+}
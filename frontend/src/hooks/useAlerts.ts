@@ -1,6 +1,8 @@
-import { useState, useMemo } from 'react';
+import { useState, useMemo, useEffect } from 'react';
 import { useFleetStore } from '../store/useFleetStore';
-import type { AlertType } from '../types';
+import { fetchAlertCounts } from '../services/api';
+import type { AlertCounts, AlertType } from '../types';
+import { ALERT_COUNTS_REFRESH_MS } from '../utils/constants';
 
 export function useAlerts() {
   const alerts = useFleetStore((s) => s.alerts);
@@ -8,8 +10,18 @@ export function useAlerts() {
 
   const filtered = useMemo(() => {
     if (filter === 'ALL') return alerts;
-    return alerts.filter((a) => a.alertType === filter);
+    return alerts.filter((item) =>
+      (item.kind === 'alert' ? item.alert.alertType : item.summary.alertType) === filter);
   }, [alerts, filter]);
 
-  return { alerts: filtered, filter, setFilter };
+  // The feed only holds the latest alerts; counts over the last hour come from the server.
+  const [counts, setCounts] = useState<AlertCounts | null>(null);
+  useEffect(() => {
+    const load = () => fetchAlertCounts().then(setCounts).catch(console.error);
+    load();
+    const id = setInterval(load, ALERT_COUNTS_REFRESH_MS);
+    return () => clearInterval(id);
+  }, []);
+
+  return { alerts: filtered, filter, setFilter, counts };
 }
@@ -2,13 +2,14 @@ import { useEffect, useRef } from 'react';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { useFleetStore } from '../store/useFleetStore';
-import type { TelemetryPoint, Alert } from '../types';
+import type { TelemetryPoint, AlertBatch, FleetMetrics } from '../types';
 import { WS_URL } from '../utils/constants';
 
 export function useWebSocket() {
   const clientRef = useRef<Client | null>(null);
   const updateFromTelemetry = useFleetStore((s) => s.updateFromTelemetry);
-  const addAlert = useFleetStore((s) => s.addAlert);
+  const addAlertBatch = useFleetStore((s) => s.addAlertBatch);
+  const setMetrics = useFleetStore((s) => s.setMetrics);
 
   useEffect(() => {
     const stompClient = new Client({
@@ -23,8 +24,18 @@ export function useWebSocket() {
         });
 
         stompClient.subscribe('/topic/alerts', (message) => {
-          const alert: Alert = JSON.parse(message.body);
-          addAlert(alert);
+          const batch: AlertBatch = JSON.parse(message.body);
+          addAlertBatch(batch);
+        });
+
+        // Mute is per session on the server, so a reconnect has to restate it.
+        if (!useFleetStore.getState().alertsEnabled) {
+          stompClient.publish({ destination: '/app/toggleAlerts', body: JSON.stringify({ enabled: false }) });
+        }
+
+        stompClient.subscribe('/topic/metrics', (message) => {
+          const metrics: FleetMetrics = JSON.parse(message.body);
+          setMetrics(metrics);
         });
       },
     });
@@ -35,7 +46,7 @@ export function useWebSocket() {
     return () => {
       stompClient.deactivate();
     };
-  }, [updateFromTelemetry, addAlert]);
+  }, [updateFromTelemetry, addAlertBatch, setMetrics]);
 
   const sendToggleAlerts = (enabled: boolean) => {
     clientRef.current?.publish({
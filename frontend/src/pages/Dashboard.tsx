@@ -4,7 +4,7 @@ import MetricsPanel from '../components/MetricsPanel';
 import AlertsPanel from '../components/AlertsPanel';
 import { useFleetStore } from '../store/useFleetStore';
 import { useWebSocket } from '../hooks/useWebSocket';
-import { fetchVehicles, fetchAlerts } from '../services/api';
+import { fetchVehicles, fetchAlerts, fetchFleetMetrics } from '../services/api';
 
 function useClock() {
   const [time, setTime] = useState(new Date());
@@ -18,14 +18,16 @@ function useClock() {
 export default function Dashboard() {
   const setVehicles = useFleetStore((s) => s.setVehicles);
   const setAlerts = useFleetStore((s) => s.setAlerts);
+  const setMetrics = useFleetStore((s) => s.setMetrics);
   const metrics = useFleetStore((s) => s.metrics);
   const { sendToggleAlerts } = useWebSocket();
   const clock = useClock();
 
   useEffect(() => {
     fetchVehicles().then(setVehicles).catch(console.error);
-    fetchAlerts().then(setAlerts).catch(console.error);
-  }, [setVehicles, setAlerts]);
+    fetchAlerts().then((page) => setAlerts(page.alerts)).catch(console.error);
+    fetchFleetMetrics().then(setMetrics).catch(console.error);
+  }, [setVehicles, setAlerts, setMetrics]);
 
   return (
     <div className="flex flex-col h-screen bg-[#0b0f1a] text-slate-200 font-sans">
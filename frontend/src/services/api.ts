@@ -1,6 +1,7 @@
 import axios from 'axios';
-import type { Vehicle, Alert, TelemetryPoint } from '../types';
+import type { Vehicle, AlertPage, AlertCounts, TelemetryPoint, FleetMetrics, Track, TrackPoint } from '../types';
 import { API_BASE } from '../utils/constants';
+import { decodeDeltas, decodePolyline } from '../utils/polyline';
 
 const client = axios.create({ baseURL: API_BASE });
 
@@ -14,10 +15,17 @@ export async function fetchVehicle(vehicleId: string): Promise<Vehicle> {
   return data;
 }
 
-export async function fetchAlerts(type?: string, limit = 100): Promise<Alert[]> {
+// Newest first; pass the previous page's nextCursor as `before` to continue.
+export async function fetchAlerts(type?: string, limit = 100, before?: number): Promise<AlertPage> {
   const params: Record<string, string | number> = { limit };
   if (type) params.type = type;
-  const { data } = await client.get<Alert[]>('/alerts', { params });
+  if (before !== undefined) params.before = before;
+  const { data } = await client.get<AlertPage>('/alerts', { params });
+  return data;
+}
+
+export async function fetchAlertCounts(window = 'PT1H'): Promise<AlertCounts> {
+  const { data } = await client.get<AlertCounts>('/alerts/counts', { params: { window } });
   return data;
 }
 
@@ -27,3 +35,23 @@ export async function fetchTelemetry(vehicleId: string, limit = 100): Promise<Te
   });
   return data;
 }
+
+export async function fetchTrack(vehicleId: string, from: string, to: string, zoom?: number): Promise<TrackPoint[]> {
+  const params: Record<string, string | number> = { from, to };
+  if (zoom !== undefined) params.zoom = zoom;
+  const { data } = await client.get<Track>(`/telemetry/${encodeURIComponent(vehicleId)}/track`, { params });
+  const positions = decodePolyline(data.polyline);
+  const times = decodeDeltas(data.times);
+  const speeds = decodeDeltas(data.speeds);
+  return positions.map(([latitude, longitude], i) => ({
+    latitude,
+    longitude,
+    speed: speeds[i] / 10,
+    timestamp: new Date(times[i] * 1000).toISOString(),
+  }));
+}
+
+export async function fetchFleetMetrics(): Promise<FleetMetrics> {
+  const { data } = await client.get<FleetMetrics>('/metrics/fleet');
+  return data;
+}
@@ -18,7 +18,35 @@ export interface TelemetryPoint {
   timestamp: string;
 }
 
-export type AlertType = 'OVERSPEED' | 'LOW_FUEL' | 'ENGINE_OVERHEAT';
+export interface Track {
+  vehicleId: string;
+  from: string;
+  to: string;
+  toleranceMeters: number;
+  rawPoints: number;
+  points: number;
+  distanceKm: number;
+  polyline: string;
+  times: string;
+  speeds: string;
+}
+
+export interface TrackPoint {
+  latitude: number;
+  longitude: number;
+  speed: number;
+  timestamp: string;
+}
+
+export type AlertType =
+  | 'OVERSPEED'
+  | 'LOW_FUEL'
+  | 'ENGINE_OVERHEAT'
+  | 'FUEL_DROP'
+  | 'ENGINE_TEMP_RISE'
+  | 'GEOFENCE_ENTER'
+  | 'GEOFENCE_EXIT'
+  | 'GEOFENCE_DWELL';
 export type Severity = 'WARNING' | 'CRITICAL';
 
 export interface Alert {
@@ -30,10 +58,50 @@ export interface Alert {
   timestamp: string;
 }
 
-export interface FleetMetrics {
+export interface AlertPage {
+  alerts: Alert[];
+  nextCursor: number | null;
+}
+
+export interface AlertCounts {
+  from: string;
+  to: string;
+  total: number;
+  byType: Record<AlertType, number>;
+  bySeverity: Record<Severity, number>;
+}
+
+// Over-limit alerts of one type and severity, folded into a single line.
+export interface AlertSummary {
+  alertType: AlertType;
+  severity: Severity;
+  count: number;
+  vehicleIds: string[];
+  message: string;
+  timestamp: string;
+}
+
+// One line of the live alert feed: a single alert, or a summary of many that is not tied to one vehicle.
+export type AlertFeedItem =
+  | { kind: 'alert'; alert: Alert }
+  | { kind: 'summary'; summary: AlertSummary };
+
+export interface AlertBatch {
+  timestamp: string;
+  alerts: Alert[];
+  summaries: AlertSummary[];
+}
+
+export interface ProvinceMetrics {
   totalOnline: number;
   averageSpeed: number;
   overspeedCount: number;
   lowFuelCount: number;
   overheatCount: number;
 }
+
+export interface FleetMetrics extends ProvinceMetrics {
+  version: number;
+  timestamp: number;
+  provinces: Record<string, ProvinceMetrics>;
+}
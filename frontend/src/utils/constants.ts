@@ -9,3 +9,7 @@ export const FUEL_WARNING = 15;
 export const TEMP_WARNING = 100;
 
 export const MAX_ALERTS_DISPLAY = 200;
+export const ALERT_COUNTS_REFRESH_MS = 30_000;
+
+// How far back the selected vehicle's track goes.
+export const TRACK_WINDOW_MS = 60 * 60 * 1000;
@@ -0,0 +1,38 @@
+// Decoders for the encoded polyline format used by /api/telemetry/{id}/track. Arithmetic instead of
+// bit operators keeps values beyond 32 bits, such as epoch seconds, exact.
+
+function decodeSigned(encoded: string): number[] {
+  const values: number[] = [];
+  let index = 0;
+  while (index < encoded.length) {
+    let result = 0;
+    let scale = 1;
+    let chunk: number;
+    do {
+      chunk = encoded.charCodeAt(index++) - 63;
+      result += (chunk & 0x1f) * scale;
+      scale *= 32;
+    } while (chunk >= 0x20);
+    values.push(result % 2 === 1 ? -(result + 1) / 2 : result / 2);
+  }
+  return values;
+}
+
+export function decodeDeltas(encoded: string): number[] {
+  let value = 0;
+  return decodeSigned(encoded).map((delta) => (value += delta));
+}
+
+export function decodePolyline(encoded: string, precision = 5): [number, number][] {
+  const deltas = decodeSigned(encoded);
+  const factor = 10 ** precision;
+  const points: [number, number][] = [];
+  let lat = 0;
+  let lng = 0;
+  for (let i = 0; i + 1 < deltas.length; i += 2) {
+    lat += deltas[i];
+    lng += deltas[i + 1];
+    points.push([lat / factor, lng / factor]);
+  }
+  return points;
+}